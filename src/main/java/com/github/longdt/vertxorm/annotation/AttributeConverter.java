@@ -0,0 +1,28 @@
+package com.github.longdt.vertxorm.annotation;
+
+/**
+ * <p>Convert a field value from and to its column value, see {@link Convert}.</p>
+ * Null values are not passed to converters.
+ *
+ * @param <X> the field type.
+ * @param <Y> the column value type, a type supported by {@link io.vertx.sqlclient.Row#get(Class, int)}.
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public interface AttributeConverter<X, Y> {
+    /**
+     * <p>toDatabaseValue.</p>
+     *
+     * @param attribute a X object.
+     * @return a Y object.
+     */
+    Y toDatabaseValue(X attribute);
+
+    /**
+     * <p>toEntityValue.</p>
+     *
+     * @param dbValue a Y object.
+     * @return a X object.
+     */
+    X toEntityValue(Y dbValue);
+}
@@ -0,0 +1,43 @@
+package com.github.longdt.vertxorm.annotation;
+
+/**
+ * <p>Naming conventions of {@link NamingStrategy}.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public enum Case {
+    /** Keep names, e.g. <code>flinkJob</code>. */
+    CAMEL_CASE,
+    /** Lower case words joined by underscores, e.g. <code>flink_job</code>. */
+    SNAKE_CASE,
+    /** Upper case words joined by underscores, e.g. <code>FLINK_JOB</code>. */
+    UPPER_SNAKE_CASE;
+
+    /**
+     * Convert a java name.
+     *
+     * @param name a class or field name.
+     * @return a {@link java.lang.String} object.
+     */
+    public String format(String name) {
+        if (this == CAMEL_CASE) {
+            return name;
+        }
+        var sb = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); ++i) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                // start a word at an upper case letter following a lower case one, or followed by a lower case one
+                boolean prevLower = i > 0 && !Character.isUpperCase(name.charAt(i - 1)) && name.charAt(i - 1) != '_';
+                boolean nextLower = i > 0 && i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1))
+                        && Character.isUpperCase(name.charAt(i - 1));
+                if (prevLower || nextLower) {
+                    sb.append('_');
+                }
+            }
+            sb.append(this == SNAKE_CASE ? Character.toLowerCase(c) : Character.toUpperCase(c));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.longdt.vertxorm.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Set the column name of a field, instead of the name given by {@link NamingStrategy}.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Column {
+    /**
+     * <p>name.</p>
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    String name();
+}
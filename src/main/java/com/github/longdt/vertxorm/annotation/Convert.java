@@ -0,0 +1,25 @@
+package com.github.longdt.vertxorm.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Convert a field from and to its column value by an {@link AttributeConverter}.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Convert {
+    /**
+     * The converter class, it must have a public no-arg constructor.
+     *
+     * @return a {@link java.lang.Class} object.
+     */
+    Class<? extends AttributeConverter<?, ?>> converter();
+}
@@ -0,0 +1,27 @@
+package com.github.longdt.vertxorm.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Mark a class mapped to a table.</p>
+ * The annotation processor generates a <code>&lt;Entity&gt;Configuration</code> class next to it, which maps
+ * rows and parameters by constant column indexes.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Entity {
+    /**
+     * The table name, the class name converted by {@link NamingStrategy} if empty.
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    String value() default "";
+}
@@ -0,0 +1,19 @@
+package com.github.longdt.vertxorm.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Mark the primary key field of an {@link Entity}.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Id {
+}
@@ -0,0 +1,26 @@
+package com.github.longdt.vertxorm.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>Set how table and column names are derived from class and field names of an {@link Entity}.</p>
+ * Names are kept as they are if an entity has no naming strategy.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface NamingStrategy {
+    /**
+     * <p>value.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.annotation.Case} object.
+     */
+    Case value();
+}
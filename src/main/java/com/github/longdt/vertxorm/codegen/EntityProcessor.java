@@ -0,0 +1,455 @@
+package com.github.longdt.vertxorm.codegen;
+
+import com.github.longdt.vertxorm.annotation.AttributeConverter;
+import com.github.longdt.vertxorm.annotation.Case;
+import com.github.longdt.vertxorm.annotation.Column;
+import com.github.longdt.vertxorm.annotation.Convert;
+import com.github.longdt.vertxorm.annotation.Entity;
+import com.github.longdt.vertxorm.annotation.Id;
+import com.github.longdt.vertxorm.annotation.NamingStrategy;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Generate a <code>&lt;Entity&gt;Configuration</code> class for each class annotated by {@link Entity}.</p>
+ * The generated configuration maps rows and parameters (including a {@link
+ * com.github.longdt.vertxorm.repository.ParametersWriter}) by constant column indexes through plain getter and
+ * setter calls, without reflection. The id field is the first column, other fields follow in declaration order,
+ * superclass fields first. Static and transient fields are not mapped.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class EntityProcessor extends AbstractProcessor {
+    private static final String ID_ACCESSOR = "com.github.longdt.vertxorm.repository.IdAccessor";
+    private static final String CONFIGURATION = "com.github.longdt.vertxorm.repository.Configuration";
+    private static final Map<String, String> ROW_GETTERS = Map.ofEntries(
+            Map.entry("java.lang.String", "getString"),
+            Map.entry("java.lang.Boolean", "getBoolean"),
+            Map.entry("java.lang.Short", "getShort"),
+            Map.entry("java.lang.Integer", "getInteger"),
+            Map.entry("java.lang.Long", "getLong"),
+            Map.entry("java.lang.Float", "getFloat"),
+            Map.entry("java.lang.Double", "getDouble"),
+            Map.entry("java.math.BigDecimal", "getBigDecimal"),
+            Map.entry("java.time.LocalDate", "getLocalDate"),
+            Map.entry("java.time.LocalTime", "getLocalTime"),
+            Map.entry("java.time.LocalDateTime", "getLocalDateTime"),
+            Map.entry("java.time.OffsetTime", "getOffsetTime"),
+            Map.entry("java.time.OffsetDateTime", "getOffsetDateTime"),
+            Map.entry("java.util.UUID", "getUUID"),
+            Map.entry("io.vertx.core.buffer.Buffer", "getBuffer"));
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(Entity.class.getName());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (var element : roundEnv.getElementsAnnotatedWith(Entity.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@Entity must annotate a class");
+                continue;
+            }
+            try {
+                var model = buildModel((TypeElement) element);
+                if (model != null) {
+                    generate(model);
+                }
+            } catch (IOException e) {
+                error(element, "Can't generate configuration: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private EntityModel buildModel(TypeElement type) {
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@Entity class must not be generic");
+            return null;
+        }
+        var noArgConstructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .anyMatch(c -> c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE));
+        if (!noArgConstructor) {
+            error(type, "@Entity class must have a no-arg constructor");
+            return null;
+        }
+        var namingStrategy = type.getAnnotation(NamingStrategy.class);
+        var naming = namingStrategy != null ? namingStrategy.value() : Case.CAMEL_CASE;
+        var entity = type.getAnnotation(Entity.class);
+        var model = new EntityModel();
+        model.type = type;
+        model.tableName = entity.value().isEmpty() ? naming.format(type.getSimpleName().toString()) : entity.value();
+        boolean valid = true;
+        for (var field : getFields(type)) {
+            var fieldModel = buildField(type, field, naming);
+            if (fieldModel == null) {
+                valid = false;
+            } else if (field.getAnnotation(Id.class) != null) {
+                if (model.id != null) {
+                    error(field, "@Entity class must have only one @Id field");
+                    valid = false;
+                }
+                if (field.asType().getKind().isPrimitive()) {
+                    error(field, "@Id field must not be primitive, null ids are generated by the database");
+                    valid = false;
+                }
+                model.id = fieldModel;
+            } else {
+                model.fields.add(fieldModel);
+            }
+        }
+        if (model.id == null) {
+            error(type, "@Entity class must have an @Id field");
+            valid = false;
+        }
+        if (!valid) {
+            return null;
+        }
+        model.fields.add(0, model.id);
+        for (int i = 0; i < model.fields.size(); ++i) {
+            model.fields.get(i).index = i;
+        }
+        return model;
+    }
+
+    private List<VariableElement> getFields(TypeElement type) {
+        var fields = new ArrayList<VariableElement>();
+        var superType = type.getSuperclass();
+        if (superType.getKind() == TypeKind.DECLARED) {
+            var superElement = (TypeElement) ((DeclaredType) superType).asElement();
+            if (!superElement.getQualifiedName().contentEquals("java.lang.Object")) {
+                fields.addAll(getFields(superElement));
+            }
+        }
+        for (var field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            var modifiers = field.getModifiers();
+            if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private FieldModel buildField(TypeElement type, VariableElement field, Case naming) {
+        var fieldModel = new FieldModel();
+        var name = field.getSimpleName().toString();
+        var column = field.getAnnotation(Column.class);
+        fieldModel.columnName = column != null ? column.name() : naming.format(name);
+        fieldModel.type = field.asType();
+        var capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        var methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+        for (var method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            var methodName = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty() && isSameType(method.getReturnType(), fieldModel.type)
+                    && (methodName.equals("get" + capitalized) || methodName.equals("is" + capitalized))) {
+                fieldModel.getter = methodName + "()";
+            } else if (method.getParameters().size() == 1 && methodName.equals("set" + capitalized)
+                    && isSameType(method.getParameters().get(0).asType(), fieldModel.type)) {
+                fieldModel.setter = methodName;
+            }
+        }
+        boolean fieldAccessible = !field.getModifiers().contains(Modifier.PRIVATE);
+        if (fieldModel.getter == null && fieldAccessible) {
+            fieldModel.getter = name;
+        }
+        if (fieldModel.setter == null && fieldAccessible && !field.getModifiers().contains(Modifier.FINAL)) {
+            fieldModel.fieldSetter = name;
+        }
+        if (fieldModel.getter == null || (fieldModel.setter == null && fieldModel.fieldSetter == null)) {
+            error(field, "Field must have a getter and a setter, or must not be private");
+            return null;
+        }
+        var convert = field.getAnnotation(Convert.class);
+        if (convert != null) {
+            var converterType = getConverterType(convert);
+            var dbType = getConverterDbType(converterType);
+            if (dbType == null) {
+                error(field, "Converter must implement " + AttributeConverter.class.getName() + " with a concrete column type");
+                return null;
+            }
+            fieldModel.converter = erasure(converterType);
+            fieldModel.dbType = erasure(dbType);
+        } else if (!isEnum(fieldModel.type) && !ROW_GETTERS.containsKey(boxedName(fieldModel.type))
+                && fieldModel.type.getKind() == TypeKind.DECLARED
+                && !((DeclaredType) fieldModel.type).getTypeArguments().isEmpty()) {
+            error(field, "Generic field type requires @Convert");
+            return null;
+        }
+        return fieldModel;
+    }
+
+    private TypeMirror getConverterType(Convert convert) {
+        try {
+            convert.converter();
+            throw new IllegalStateException("Converter class is not available as a type mirror");
+        } catch (MirroredTypeException e) {
+            return e.getTypeMirror();
+        }
+    }
+
+    private TypeMirror getConverterDbType(TypeMirror type) {
+        for (var superType : processingEnv.getTypeUtils().directSupertypes(type)) {
+            if (superType.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            var declared = (DeclaredType) superType;
+            var element = (TypeElement) declared.asElement();
+            if (element.getQualifiedName().contentEquals(AttributeConverter.class.getName())) {
+                var dbType = declared.getTypeArguments().get(1);
+                return dbType.getKind() == TypeKind.DECLARED ? dbType : null;
+            }
+            var dbType = getConverterDbType(superType);
+            if (dbType != null) {
+                return dbType;
+            }
+        }
+        return null;
+    }
+
+    private boolean isSameType(TypeMirror t1, TypeMirror t2) {
+        return processingEnv.getTypeUtils().isSameType(t1, t2);
+    }
+
+    private boolean isEnum(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+    }
+
+    private String boxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            var typeUtils = processingEnv.getTypeUtils();
+            return typeUtils.boxedClass(typeUtils.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        }
+        return erasure(type);
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private void generate(EntityModel model) throws IOException {
+        var type = model.type;
+        var packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        var simpleName = type.getSimpleName() + "Configuration";
+        var entityName = type.getQualifiedName().toString();
+        var idName = boxedName(model.id.type);
+        var file = processingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? simpleName : packageName + "." + simpleName, type);
+        try (Writer writer = file.openWriter()) {
+            var out = new StringBuilder();
+            if (!packageName.isEmpty()) {
+                out.append("package ").append(packageName).append(";\n\n");
+            }
+            out.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                    .append("public class ").append(simpleName).append(" extends ").append(CONFIGURATION)
+                    .append('<').append(idName).append(", ").append(entityName).append("> {\n");
+            out.append("    public static final String TABLE_NAME = \"").append(model.tableName).append("\";\n");
+            out.append("    public static final java.util.List<String> COLUMN_NAMES = java.util.List.of(")
+                    .append(model.fields.stream().map(f -> '"' + f.columnName + '"').collect(Collectors.joining(", ")))
+                    .append(");\n");
+            for (var field : model.fields) {
+                if (field.converter != null) {
+                    out.append("    private static final ").append(field.converter).append(' ').append(converterName(field))
+                            .append(" = new ").append(field.converter).append("();\n");
+                }
+            }
+            appendIdAccessor(out, model, idName, entityName);
+            out.append('\n')
+                    .append("    public ").append(simpleName).append("() {\n")
+                    .append("        setTableName(TABLE_NAME);\n")
+                    .append("        setColumnNames(COLUMN_NAMES);\n")
+                    .append("        setIdAccessor(ID_ACCESSOR);\n")
+                    .append("        setRowMapper(").append(simpleName).append("::mapRow);\n")
+                    .append("        setParametersMapper(").append(simpleName).append("::toParameters);\n")
+                    .append("        setParametersWriter(").append(simpleName).append("::writeParameters);\n")
+                    .append("    }\n");
+            appendRowMapper(out, model, entityName);
+            appendParametersMapper(out, model, entityName);
+            appendParametersWriter(out, model, entityName);
+            out.append("}\n");
+            writer.write(out.toString());
+        }
+    }
+
+    private void appendIdAccessor(StringBuilder out, EntityModel model, String idName, String entityName) {
+        var id = model.id;
+        out.append('\n')
+                .append("    public static final ").append(ID_ACCESSOR).append('<').append(idName).append(", ").append(entityName)
+                .append("> ID_ACCESSOR = new ").append(ID_ACCESSOR).append("<>() {\n")
+                .append("        @Override\n")
+                .append("        public ").append(idName).append(" getId(").append(entityName).append(" entity) {\n")
+                .append("            return entity.").append(id.getter).append(";\n")
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        public void setId(").append(entityName).append(" entity, ").append(idName).append(" id) {\n")
+                .append("            ").append(setValue(id, "id")).append(";\n")
+                .append("        }\n\n");
+        if (id.converter != null) {
+            out.append("        @Override\n")
+                    .append("        public Object id2DbValue(").append(idName).append(" id) {\n")
+                    .append("            return id != null ? ").append(converterName(id)).append(".toDatabaseValue(id) : null;\n")
+                    .append("        }\n\n")
+                    .append("        @Override\n")
+                    .append("        public ").append(idName).append(" db2IdValue(Object value) {\n")
+                    .append("            return value != null ? ").append(converterName(id)).append(".toEntityValue((")
+                    .append(id.dbType).append(") value) : null;\n")
+                    .append("        }\n");
+        } else {
+            String conversion;
+            switch (idName) {
+                case "java.lang.Integer":
+                    conversion = "((Number) value).intValue()";
+                    break;
+                case "java.lang.Long":
+                    conversion = "((Number) value).longValue()";
+                    break;
+                case "java.lang.Short":
+                    conversion = "((Number) value).shortValue()";
+                    break;
+                default:
+                    conversion = "(" + idName + ") value";
+            }
+            out.append("        @Override\n")
+                    .append("        public ").append(idName).append(" db2IdValue(Object value) {\n")
+                    .append("            return value != null ? ").append(conversion).append(" : null;\n")
+                    .append("        }\n");
+        }
+        out.append("    };\n");
+    }
+
+    private void appendRowMapper(StringBuilder out, EntityModel model, String entityName) {
+        out.append('\n')
+                .append("    public static ").append(entityName).append(" mapRow(io.vertx.sqlclient.Row row) {\n")
+                .append("        var entity = new ").append(entityName).append("();\n");
+        for (var field : model.fields) {
+            int index = field.index;
+            String value;
+            if (field.converter != null) {
+                out.append("        var c").append(index).append(" = row.get(").append(field.dbType).append(".class, ")
+                        .append(index).append(");\n");
+                value = "c" + index + " != null ? " + converterName(field) + ".toEntityValue(c" + index + ") : null";
+            } else if (isEnum(field.type)) {
+                out.append("        var c").append(index).append(" = row.getString(").append(index).append(");\n");
+                value = "c" + index + " != null ? " + erasure(field.type) + ".valueOf(c" + index + ") : null";
+            } else {
+                var getter = ROW_GETTERS.get(boxedName(field.type));
+                value = getter != null ? "row." + getter + "(" + index + ")"
+                        : "row.get(" + erasure(field.type) + ".class, " + index + ")";
+            }
+            if (field.type.getKind().isPrimitive()) {
+                out.append("        var v").append(index).append(" = ").append(value).append(";\n")
+                        .append("        if (v").append(index).append(" != null) {\n")
+                        .append("            ").append(setValue(field, "v" + index)).append(";\n")
+                        .append("        }\n");
+            } else {
+                out.append("        ").append(setValue(field, value)).append(";\n");
+            }
+        }
+        out.append("        return entity;\n")
+                .append("    }\n");
+    }
+
+    private void appendParametersMapper(StringBuilder out, EntityModel model, String entityName) {
+        out.append('\n')
+                .append("    public static Object[] toParameters(").append(entityName).append(" entity) {\n")
+                .append("        Object[] params = new Object[").append(model.fields.size()).append("];\n");
+        for (var field : model.fields) {
+            int index = field.index;
+            var value = "entity." + field.getter;
+            if (field.converter != null || isEnum(field.type)) {
+                out.append("        var v").append(index).append(" = ").append(value).append(";\n");
+                value = field.converter != null
+                        ? "v" + index + " != null ? " + converterName(field) + ".toDatabaseValue(v" + index + ") : null"
+                        : "v" + index + " != null ? v" + index + ".name() : null";
+            }
+            out.append("        params[").append(index).append("] = ").append(value).append(";\n");
+        }
+        out.append("        return params;\n")
+                .append("    }\n");
+    }
+
+    private void appendParametersWriter(StringBuilder out, EntityModel model, String entityName) {
+        out.append('\n')
+                .append("    public static void writeParameters(").append(entityName)
+                .append(" entity, io.vertx.sqlclient.Tuple tuple, int from) {\n");
+        for (var field : model.fields) {
+            int index = field.index;
+            var value = "entity." + field.getter;
+            out.append("        if (from <= ").append(index).append(") {\n");
+            if (field.converter != null || isEnum(field.type)) {
+                out.append("            var v").append(index).append(" = ").append(value).append(";\n");
+                value = field.converter != null
+                        ? "v" + index + " != null ? " + converterName(field) + ".toDatabaseValue(v" + index + ") : null"
+                        : "v" + index + " != null ? v" + index + ".name() : null";
+            }
+            out.append("            tuple.addValue(").append(value).append(");\n")
+                    .append("        }\n");
+        }
+        out.append("    }\n");
+    }
+
+    private static String setValue(FieldModel field, String value) {
+        if (field.setter != null) {
+            return "entity." + field.setter + "(" + value + ")";
+        }
+        return "entity." + field.fieldSetter + " = " + value;
+    }
+
+    private static String converterName(FieldModel field) {
+        return "CONVERTER_" + field.index;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static class EntityModel {
+        private TypeElement type;
+        private String tableName;
+        private FieldModel id;
+        private final List<FieldModel> fields = new ArrayList<>();
+    }
+
+    private static class FieldModel {
+        private int index;
+        private String columnName;
+        private TypeMirror type;
+        private String getter;
+        private String setter;
+        private String fieldSetter;
+        private String converter;
+        private String dbType;
+    }
+}
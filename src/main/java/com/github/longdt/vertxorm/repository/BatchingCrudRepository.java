@@ -0,0 +1,108 @@
+package com.github.longdt.vertxorm.repository;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * <p>A {@link CrudRepository} which coalesces {@link #find(Object)} calls into
+ * {@link CrudRepository#findMapById(java.util.Collection)} calls, like a DataLoader.</p>
+ * Ids looked up on the same Vert.x context are collected until the current event loop task ends (or until
+ * windowMillis elapse if it is positive), then they are queried by one <code>IN (...)</code> statement. A batch
+ * is dispatched as soon as it holds maxBatchSize distinct ids. Calls outside of a Vert.x context are not batched.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class BatchingCrudRepository<ID, E> extends ForwardingCrudRepository<ID, E> {
+    private final String contextKey = "vertx-orm.batch." + UUID.randomUUID();
+    private final int maxBatchSize;
+    private final long windowMillis;
+
+    /**
+     * <p>Constructor for BatchingCrudRepository.</p>
+     *
+     * @param delegate a {@link com.github.longdt.vertxorm.repository.CrudRepository} object.
+     */
+    public BatchingCrudRepository(CrudRepository<ID, E> delegate) {
+        this(delegate, delegate.getIdBatchSize(), 0);
+    }
+
+    /**
+     * <p>Constructor for BatchingCrudRepository.</p>
+     *
+     * @param delegate a {@link com.github.longdt.vertxorm.repository.CrudRepository} object.
+     * @param maxBatchSize the max number of distinct ids of a batch.
+     * @param windowMillis how long a batch collects ids, 0 to collect ids until the current task ends.
+     */
+    public BatchingCrudRepository(CrudRepository<ID, E> delegate, int maxBatchSize, long windowMillis) {
+        super(delegate);
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.windowMillis = windowMillis;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(ID id) {
+        Context context = Vertx.currentContext();
+        if (context == null) {
+            return delegate.find(id);
+        }
+        Batch<ID, E> batch = context.get(contextKey);
+        if (batch == null) {
+            batch = new Batch<>();
+            context.put(contextKey, batch);
+            schedule(context, batch);
+        }
+        var promise = batch.promises.computeIfAbsent(id, k -> Promise.promise());
+        if (batch.promises.size() >= maxBatchSize) {
+            dispatch(context, batch);
+        }
+        return promise.future();
+    }
+
+    private void schedule(Context context, Batch<ID, E> batch) {
+        if (windowMillis > 0) {
+            context.owner().setTimer(windowMillis, t -> dispatch(context, batch));
+        } else {
+            context.runOnContext(v -> dispatch(context, batch));
+        }
+    }
+
+    private void dispatch(Context context, Batch<ID, E> batch) {
+        if (batch.dispatched) {
+            return;
+        }
+        batch.dispatched = true;
+        if (context.get(contextKey) == batch) {
+            context.remove(contextKey);
+        }
+        var promises = batch.promises;
+        if (promises.size() == 1) {
+            var entry = promises.entrySet().iterator().next();
+            delegate.find(entry.getKey()).onComplete(entry.getValue());
+            return;
+        }
+        delegate.findMapById(promises.keySet()).onComplete(ar -> {
+            if (ar.succeeded()) {
+                promises.forEach((id, promise) -> promise.complete(Optional.ofNullable(ar.result().get(id))));
+            } else {
+                promises.values().forEach(promise -> promise.fail(ar.cause()));
+            }
+        });
+    }
+
+    private static class Batch<ID, E> {
+        private final Map<ID, Promise<Optional<E>>> promises = new LinkedHashMap<>();
+        private boolean dispatched;
+    }
+}
@@ -0,0 +1,388 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.repository.query.QueryFactory;
+import com.github.longdt.vertxorm.util.BloomFilter;
+import com.github.longdt.vertxorm.util.BloomFilterStats;
+import com.github.longdt.vertxorm.util.SQLHelper;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.SqlConnection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * <p>A {@link CrudRepository} which answers {@link #find(Object)} and {@link #exists(Object)} of absent ids from a
+ * {@link BloomFilter} of all ids of the table, without a database round trip.</p>
+ * The filter is built by {@link #rebuild()}, which streams the id column; until the first build completes every
+ * lookup goes to the database. Ids written through this repository are added to the filter before the write is
+ * sent (or once they are generated), and are kept in a rebuild started while their write is in progress.
+ * Deleted ids stay in the filter until the next rebuild, see {@link #scheduleRebuild(Vertx, long, TimeUnit)}.
+ * Ids inserted outside of this repository are not found until the next rebuild, unless they are received from an
+ * {@link InvalidationBroadcaster}. Lookups on a connection in a transaction started by
+ * {@link SQLHelper#withTransaction(io.vertx.sqlclient.Pool, java.util.function.BiFunction)} bypass the filter,
+ * since the transaction may have inserted ids which are not in it.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class BloomFilterCrudRepository<ID, E> extends ForwardingCrudRepository<ID, E> {
+    private static final int FETCH_SIZE = 4096;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final Map<ID, Integer> inFlightIds = new ConcurrentHashMap<>();
+    private final LongAdder negativeCount = new LongAdder();
+    private final LongAdder positiveCount = new LongAdder();
+    private final LongAdder falsePositiveCount = new LongAdder();
+    private final LongAdder staleCount = new LongAdder();
+    private final AtomicLong rebuildCount = new AtomicLong();
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private Future<Void> rebuilding;
+    private long builtSize;
+    private Vertx vertx;
+    private long rebuildTimerId = -1;
+
+    /**
+     * <p>Constructor for BloomFilterCrudRepository.</p>
+     *
+     * @param delegate a {@link com.github.longdt.vertxorm.repository.CrudRepository} object.
+     * @param expectedInsertions the expected number of rows of the table.
+     * @param fpp the false positive probability when the table holds expectedInsertions rows.
+     */
+    public BloomFilterCrudRepository(CrudRepository<ID, E> delegate, long expectedInsertions, double fpp) {
+        super(delegate);
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be in (0, 1)");
+        }
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+    }
+
+    /**
+     * Create a filter which also adds ids written on other nodes, broadcaster should be the invalidation
+     * broadcaster of delegate's {@link Configuration}.
+     *
+     * @param delegate a {@link com.github.longdt.vertxorm.repository.CrudRepository} object.
+     * @param expectedInsertions the expected number of rows of the table.
+     * @param fpp the false positive probability when the table holds expectedInsertions rows.
+     * @param broadcaster a {@link com.github.longdt.vertxorm.repository.InvalidationBroadcaster} object.
+     */
+    public BloomFilterCrudRepository(CrudRepository<ID, E> delegate, long expectedInsertions, double fpp,
+                                     InvalidationBroadcaster broadcaster) {
+        this(delegate, expectedInsertions, fpp);
+        var idAccessor = delegate.getIdAccessor();
+        broadcaster.handler(dbIds -> dbIds.forEach(dbId -> add(idAccessor.db2IdValue(dbId))));
+    }
+
+    /**
+     * Build a new filter from the id column of the table and replace the current filter once it completes.
+     * Calls during a rebuild return the running rebuild.
+     *
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<Void> rebuild() {
+        BloomFilter next;
+        Promise<Void> promise = Promise.promise();
+        synchronized (this) {
+            if (rebuilding != null) {
+                return rebuilding;
+            }
+            long size = Math.max(expectedInsertions, builtSize + builtSize / 2);
+            next = BloomFilter.create(size, fpp);
+            building = next;
+            rebuilding = promise.future();
+        }
+        // ids whose writes may commit after the stream reads its snapshot
+        inFlightIds.keySet().forEach(next::put);
+        var rows = new AtomicLong();
+        delegate.streamIds(QueryFactory.emptyQuery(), FETCH_SIZE)
+                .compose(stream -> {
+                    Promise<Void> end = Promise.promise();
+                    stream.exceptionHandler(end::tryFail);
+                    stream.endHandler(end::tryComplete);
+                    stream.handler(id -> {
+                        next.put(id);
+                        rows.incrementAndGet();
+                    });
+                    return end.future();
+                })
+                .onComplete(ar -> {
+                    synchronized (this) {
+                        if (ar.succeeded()) {
+                            filter = next;
+                            builtSize = rows.get();
+                            staleCount.reset();
+                            rebuildCount.incrementAndGet();
+                        }
+                        // filter must be replaced before building is cleared, see add(ID)
+                        building = null;
+                        rebuilding = null;
+                    }
+                    promise.handle(ar);
+                });
+        return promise.future();
+    }
+
+    /**
+     * Periodically rebuild the filter when deletes since the last build exceed 10% of the built ids, or when the
+     * expected false positive probability of the filter exceeds twice fpp.
+     *
+     * @param vertx a {@link io.vertx.core.Vertx} object.
+     * @param period the period between checks.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.BloomFilterCrudRepository} object.
+     */
+    public synchronized BloomFilterCrudRepository<ID, E> scheduleRebuild(Vertx vertx, long period, TimeUnit unit) {
+        cancelRebuild();
+        this.vertx = vertx;
+        this.rebuildTimerId = vertx.setPeriodic(Math.max(1, unit.toMillis(period)), t -> {
+            if (needsRebuild()) {
+                rebuild();
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Cancel the periodic rebuild.
+     */
+    public synchronized void cancelRebuild() {
+        if (rebuildTimerId != -1) {
+            vertx.cancelTimer(rebuildTimerId);
+            rebuildTimerId = -1;
+        }
+    }
+
+    private boolean needsRebuild() {
+        var current = filter;
+        if (current == null) {
+            return true;
+        }
+        long size;
+        synchronized (this) {
+            size = builtSize;
+        }
+        return staleCount.sum() > size / 10 || current.expectedFpp() > fpp * 2;
+    }
+
+    /**
+     * Check whether the filter is built, lookups go to the database until then.
+     *
+     * @return a boolean.
+     */
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    /**
+     * <p>getStats.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.util.BloomFilterStats} object.
+     */
+    public BloomFilterStats getStats() {
+        var current = filter;
+        return new BloomFilterStats(negativeCount.sum(), positiveCount.sum(), falsePositiveCount.sum(),
+                rebuildCount.get(), staleCount.sum(), current != null ? current.expectedFpp() : 0.0);
+    }
+
+    private void add(ID id) {
+        // read building before filter, a rebuild replaces filter before it clears building
+        var next = building;
+        if (next != null) {
+            next.put(id);
+        }
+        var current = filter;
+        if (current != null) {
+            current.put(id);
+        }
+    }
+
+    private void track(ID id) {
+        inFlightIds.merge(id, 1, Integer::sum);
+        add(id);
+    }
+
+    private void untrack(ID id) {
+        inFlightIds.computeIfPresent(id, (k, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Release ids when the write completes, or when the transaction of conn completes.
+     */
+    private void release(SqlConnection conn, List<ID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        var txn = conn != null ? SQLHelper.getTransaction(conn) : null;
+        if (txn == null) {
+            ids.forEach(this::untrack);
+        } else {
+            txn.completion().onComplete(ar -> ids.forEach(this::untrack));
+        }
+    }
+
+    private Future<E> write(SqlConnection conn, E entity, Supplier<Future<E>> writer) {
+        var idAccessor = getIdAccessor();
+        var id = idAccessor.getId(entity);
+        if (id != null) {
+            track(id);
+        }
+        return writer.get().onComplete(ar -> {
+            if (id != null) {
+                release(conn, List.of(id));
+                return;
+            }
+            var generatedId = ar.succeeded() ? idAccessor.getId(ar.result()) : null;
+            if (generatedId != null) {
+                track(generatedId);
+                release(conn, List.of(generatedId));
+            }
+        });
+    }
+
+    private Future<List<E>> writeAll(SqlConnection conn, Collection<E> entities, Supplier<Future<List<E>>> writer) {
+        var idAccessor = getIdAccessor();
+        var ids = new ArrayList<ID>(entities.size());
+        for (var entity : entities) {
+            var id = idAccessor.getId(entity);
+            if (id != null) {
+                track(id);
+                ids.add(id);
+            }
+        }
+        return writer.get().onComplete(ar -> {
+            if (ar.succeeded() && ids.size() < entities.size()) {
+                var presetIds = new HashSet<>(ids);
+                for (var entity : ar.result()) {
+                    var id = idAccessor.getId(entity);
+                    if (id != null && !presetIds.contains(id)) {
+                        track(id);
+                        ids.add(id);
+                    }
+                }
+            }
+            release(conn, ids);
+        });
+    }
+
+    private <T> Future<T> lookup(ID id, Supplier<Future<T>> loader, T absent) {
+        var current = filter;
+        if (current == null) {
+            return loader.get();
+        }
+        if (!current.mightContain(id)) {
+            negativeCount.increment();
+            return Future.succeededFuture(absent);
+        }
+        positiveCount.increment();
+        return loader.get().onSuccess(result -> {
+            if (absent.equals(result)) {
+                falsePositiveCount.increment();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(ID id) {
+        return lookup(id, () -> delegate.find(id), Optional.empty());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(SqlConnection conn, ID id) {
+        if (SQLHelper.getTransaction(conn) != null) {
+            return delegate.find(conn, id);
+        }
+        return lookup(id, () -> delegate.find(conn, id), Optional.empty());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(ID id) {
+        return lookup(id, () -> delegate.exists(id), Boolean.FALSE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(SqlConnection conn, ID id) {
+        if (SQLHelper.getTransaction(conn) != null) {
+            return delegate.exists(conn, id);
+        }
+        return lookup(id, () -> delegate.exists(conn, id), Boolean.FALSE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> save(E entity) {
+        return write(null, entity, () -> delegate.save(entity));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> save(SqlConnection conn, E entity) {
+        return write(conn, entity, () -> delegate.save(conn, entity));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> saveAll(Collection<E> entities) {
+        return writeAll(null, entities, () -> delegate.saveAll(entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> saveAll(SqlConnection conn, Collection<E> entities) {
+        return writeAll(conn, entities, () -> delegate.saveAll(conn, entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> insert(E entity) {
+        return write(null, entity, () -> delegate.insert(entity));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> insert(SqlConnection conn, E entity) {
+        return write(conn, entity, () -> delegate.insert(conn, entity));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> insertAll(Collection<E> entities) {
+        return writeAll(null, entities, () -> delegate.insertAll(entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> insertAll(SqlConnection conn, Collection<E> entities) {
+        return writeAll(conn, entities, () -> delegate.insertAll(conn, entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> delete(ID id) {
+        return delegate.delete(id).onSuccess(v -> staleCount.increment());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> delete(SqlConnection conn, ID id) {
+        return delegate.delete(conn, id).onSuccess(v -> staleCount.increment());
+    }
+}
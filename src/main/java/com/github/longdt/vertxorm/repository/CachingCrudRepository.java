@@ -0,0 +1,318 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.repository.query.Query;
+import com.github.longdt.vertxorm.util.CacheStats;
+import com.github.longdt.vertxorm.util.LruCache;
+import com.github.longdt.vertxorm.util.SQLHelper;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.SqlConnection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * <p>A {@link CrudRepository} which serves {@link #find(Object)} and {@link #exists(Object)} from a read-through
+ * {@link LruCache}, absent entities included.</p>
+ * Writes evict the cached entries of the ids of their entities once they complete, failed ones included since
+ * they may have been applied in part, e.g. an insert which committed but timed out. Ids generated by a failed
+ * insert are unknown, so they are only seen after the ttl. Writes on a connection in a transaction started by
+ * {@link SQLHelper#withTransaction(io.vertx.sqlclient.Pool, java.util.function.BiFunction)} evict when the
+ * transaction completes, and reads on such connection bypass the cache since they may see uncommitted rows.
+ * Loads racing with an eviction of the same id are not cached. Loads of {@link #find(Object)} run on the primary
+ * even if delegate reads from replicas, and entities read on a replica connection are not cached.
+ * Writes which are not done through this repository are only seen after the ttl. The cache keeps its own copies of
+ * entities made by the copier and hands a new copy to each caller, so that a caller changing its entity doesn't
+ * change what other callers find.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class CachingCrudRepository<ID, E> extends ForwardingCrudRepository<ID, E> {
+    private static final int GENERATION_STRIPES = 64;
+    private final LruCache<ID, Optional<E>> cache;
+    private final long ttlMillis;
+    private final UnaryOperator<E> copier;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+
+    /**
+     * <p>Constructor for CachingCrudRepository.</p>
+     *
+     * @param delegate a {@link com.github.longdt.vertxorm.repository.CrudRepository} object.
+     * @param maxSize the max number of cached entities.
+     * @param ttl time to live of cached entities.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @param copier copies an entity, {@link java.util.function.UnaryOperator#identity()} only if entities are
+     *               immutable.
+     */
+    public CachingCrudRepository(CrudRepository<ID, E> delegate, int maxSize, long ttl, TimeUnit unit,
+                                 UnaryOperator<E> copier) {
+        super(delegate);
+        this.cache = new LruCache<>(maxSize);
+        this.ttlMillis = unit.toMillis(ttl);
+        this.copier = Objects.requireNonNull(copier);
+    }
+
+    /**
+     * Create a cache which also evicts ids written on other nodes, broadcaster should be the invalidation
+     * broadcaster of delegate's {@link Configuration}.
+     *
+     * @param delegate a {@link com.github.longdt.vertxorm.repository.CrudRepository} object.
+     * @param maxSize the max number of cached entities.
+     * @param ttl time to live of cached entities.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @param copier copies an entity, see {@link #CachingCrudRepository(CrudRepository, int, long, TimeUnit, UnaryOperator)}.
+     * @param broadcaster a {@link com.github.longdt.vertxorm.repository.InvalidationBroadcaster} object.
+     */
+    public CachingCrudRepository(CrudRepository<ID, E> delegate, int maxSize, long ttl, TimeUnit unit,
+                                 UnaryOperator<E> copier, InvalidationBroadcaster broadcaster) {
+        this(delegate, maxSize, ttl, unit, copier);
+        var idAccessor = delegate.getIdAccessor();
+        broadcaster.handler(dbIds -> dbIds.forEach(dbId -> invalidate(idAccessor.db2IdValue(dbId))));
+    }
+
+    /**
+     * <p>getStats.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.util.CacheStats} object.
+     */
+    public CacheStats getStats() {
+        return new CacheStats(cache.hitCount(), cache.missCount(), cache.evictionCount(), loadCount.sum(), loadTime.sum());
+    }
+
+    /**
+     * Evict an entity which is changed outside of this repository.
+     *
+     * @param id a ID object.
+     */
+    public void invalidate(ID id) {
+        int stripe = stripe(id);
+        generations.incrementAndGet(stripe);
+        cache.remove(id);
+    }
+
+    /**
+     * <p>invalidateAll.</p>
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; ++i) {
+            generations.incrementAndGet(i);
+        }
+        cache.clear();
+    }
+
+    private static int stripe(Object id) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private Future<Optional<E>> load(ID id, Supplier<Future<Optional<E>>> loader) {
+        var cached = cache.get(id);
+        if (cached != null) {
+            return Future.succeededFuture(cached.map(copier));
+        }
+        int stripe = stripe(id);
+        long generation = generations.get(stripe);
+        long start = System.nanoTime();
+        return loader.get().onSuccess(entity -> {
+            loadCount.increment();
+            loadTime.add(System.nanoTime() - start);
+            if (generations.get(stripe) == generation) {
+                cache.put(id, entity.map(copier), ttlMillis);
+                // an eviction may happen between the check and the put
+                if (generations.get(stripe) != generation) {
+                    cache.remove(id);
+                }
+            }
+        });
+    }
+
+    /**
+     * Evict id now, or when the transaction of conn completes.
+     */
+    private void evict(SqlConnection conn, ID id) {
+        if (id == null) {
+            return;
+        }
+        var txn = conn != null ? SQLHelper.getTransaction(conn) : null;
+        if (txn == null) {
+            invalidate(id);
+        } else {
+            txn.completion().onComplete(ar -> invalidate(id));
+        }
+    }
+
+    private void evict(SqlConnection conn, Collection<E> entities) {
+        var idAccessor = getIdAccessor();
+        for (var entity : entities) {
+            evict(conn, idAccessor.getId(entity));
+        }
+    }
+
+    private ID getId(E entity) {
+        return getIdAccessor().getId(entity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(ID id) {
+        // loads go to the primary, a lagging replica could cache an entity older than the last eviction
+        return load(id, () -> delegate.withConnection(conn -> delegate.find(conn, id)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(SqlConnection conn, ID id) {
+        if (SQLHelper.getTransaction(conn) != null) {
+            return delegate.find(conn, id);
+        }
+        if (ReplicaRouter.isReplicaConnection(conn)) {
+            var cached = cache.get(id);
+            return cached != null ? Future.succeededFuture(cached.map(copier)) : delegate.find(conn, id);
+        }
+        return load(id, () -> delegate.find(conn, id));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(ID id) {
+        return find(id).map(Optional::isPresent);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(SqlConnection conn, ID id) {
+        if (SQLHelper.getTransaction(conn) != null) {
+            return delegate.exists(conn, id);
+        }
+        return find(conn, id).map(Optional::isPresent);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> save(E entity) {
+        return delegate.save(entity).onComplete(ar -> evict(null, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> save(SqlConnection conn, E entity) {
+        return delegate.save(conn, entity).onComplete(ar -> evict(conn, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> saveAll(Collection<E> entities) {
+        return delegate.saveAll(entities).onComplete(ar -> evict(null, entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> saveAll(SqlConnection conn, Collection<E> entities) {
+        return delegate.saveAll(conn, entities).onComplete(ar -> evict(conn, entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> insert(E entity) {
+        return delegate.insert(entity).onComplete(ar -> evict(null, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> insert(SqlConnection conn, E entity) {
+        return delegate.insert(conn, entity).onComplete(ar -> evict(conn, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> insertAll(Collection<E> entities) {
+        return delegate.insertAll(entities).onComplete(ar -> evict(null, entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> insertAll(SqlConnection conn, Collection<E> entities) {
+        return delegate.insertAll(conn, entities).onComplete(ar -> evict(conn, entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(E entity) {
+        return delegate.update(entity).onComplete(ar -> evict(null, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(SqlConnection conn, E entity) {
+        return delegate.update(conn, entity).onComplete(ar -> evict(conn, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<ID>> updateAll(Collection<E> entities) {
+        return delegate.updateAll(entities).onComplete(ar -> evict(null, entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<ID>> updateAll(SqlConnection conn, Collection<E> entities) {
+        return delegate.updateAll(conn, entities).onComplete(ar -> evict(conn, entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(E entity, Query<E> query) {
+        return delegate.update(entity, query).onComplete(ar -> evict(null, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(SqlConnection conn, E entity, Query<E> query) {
+        return delegate.update(conn, entity, query).onComplete(ar -> evict(conn, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(E entity) {
+        return delegate.updateDynamic(entity).onComplete(ar -> evict(null, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(SqlConnection conn, E entity) {
+        return delegate.updateDynamic(conn, entity).onComplete(ar -> evict(conn, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(E entity, Query<E> query) {
+        return delegate.updateDynamic(entity, query).onComplete(ar -> evict(null, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(SqlConnection conn, E entity, Query<E> query) {
+        return delegate.updateDynamic(conn, entity, query).onComplete(ar -> evict(conn, getId(entity)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> delete(ID id) {
+        return delegate.delete(id).onComplete(ar -> evict(null, id));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> delete(SqlConnection conn, ID id) {
+        return delegate.delete(conn, id).onComplete(ar -> evict(conn, id));
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.longdt.vertxorm.repository;
+
+/**
+ * <p>Thrown when an operation is rejected by a {@link ConcurrencyLimiter} whose wait queue is full, or waits too long
+ * for a {@link ConcurrencyLimiter} or a {@link ConnectionBroker}.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    /**
+     * <p>Constructor for ConcurrencyLimitExceededException.</p>
+     *
+     * @param message a {@link java.lang.String} object.
+     */
+    public ConcurrencyLimitExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,226 @@
+package com.github.longdt.vertxorm.repository;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <p>An adaptive limit of concurrent operations of a repository, so that a slow table can't take all connections of
+ * a shared pool.</p>
+ * The limit follows AIMD driven by latency: it is multiplied by {@value #BACKOFF_RATIO} when an operation takes more
+ * than {@value #LATENCY_TOLERANCE} times the average latency, and grows by 1 / limit when an operation completes in
+ * time while at least half of the limit is in use. Operations over the limit wait in a bounded FIFO queue, and are
+ * rejected by a {@link ConcurrencyLimitExceededException} when the queue is full or they wait longer than
+ * {@link #setMaxQueueWait(Vertx, long, TimeUnit)}. A queued operation runs on the context of its caller. Latency is
+ * measured from the start of an operation, so it includes the wait for a pooled connection but not the wait in the
+ * queue. Only successful operations adjust the limit. See
+ * {@link Configuration#setConcurrencyLimiter(ConcurrencyLimiter)}.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class ConcurrencyLimiter {
+    /** Constant <code>BACKOFF_RATIO=0.9</code> */
+    public static final double BACKOFF_RATIO = 0.9;
+    /** Constant <code>LATENCY_TOLERANCE=2.0</code> */
+    public static final double LATENCY_TOLERANCE = 2.0;
+    private static final double LATENCY_SMOOTHING = 0.05;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+    private Vertx vertx;
+    private long maxQueueWaitMillis;
+    private double limit;
+    private int inFlight;
+    private double averageLatency = -1;
+    private long rejectedCount;
+
+    /**
+     * <p>Constructor for ConcurrencyLimiter.</p>
+     *
+     * @param initialLimit a int.
+     * @param minLimit a int.
+     * @param maxLimit a int, usually at most the pool size.
+     * @param maxQueueSize the max number of operations waiting for the limit, 0 to reject them at once.
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueueSize) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit || maxQueueSize < 0) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < minLimit <= initialLimit <= maxLimit");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * Reject operations which wait in the queue longer than timeout.
+     *
+     * @param vertx a {@link io.vertx.core.Vertx} object.
+     * @param timeout a long, 0 to wait without a timeout.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.ConcurrencyLimiter} object.
+     */
+    public synchronized ConcurrencyLimiter setMaxQueueWait(Vertx vertx, long timeout, TimeUnit unit) {
+        this.vertx = vertx;
+        this.maxQueueWaitMillis = timeout > 0 ? Math.max(1, unit.toMillis(timeout)) : 0;
+        return this;
+    }
+
+    /**
+     * Run operation when the limit allows.
+     *
+     * @param operation a {@link java.util.function.Supplier} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object, failed by a {@link ConcurrencyLimitExceededException} if the
+     * limit and the queue are full, or the operation waits longer than the max queue wait.
+     */
+    public <T> Future<T> submit(Supplier<Future<T>> operation) {
+        synchronized (this) {
+            if (inFlight >= (int) limit) {
+                if (queue.size() >= maxQueueSize) {
+                    ++rejectedCount;
+                    return Future.failedFuture(new ConcurrencyLimitExceededException("Concurrency limit "
+                            + (int) limit + " and wait queue " + maxQueueSize + " are full"));
+                }
+                Promise<T> promise = Promise.promise();
+                var waiter = new Waiter(Vertx.currentContext(), () -> run(operation).onComplete(promise));
+                queue.add(waiter);
+                if (maxQueueWaitMillis > 0) {
+                    long timeout = maxQueueWaitMillis;
+                    waiter.timerId = vertx.setTimer(timeout, t -> expire(waiter, promise, timeout));
+                }
+                return promise.future();
+            }
+            ++inFlight;
+        }
+        return run(operation);
+    }
+
+    private void expire(Waiter waiter, Promise<?> promise, long timeout) {
+        synchronized (this) {
+            if (!queue.remove(waiter)) {
+                return;
+            }
+            ++rejectedCount;
+        }
+        promise.fail(new ConcurrencyLimitExceededException("Waited " + timeout + "ms for concurrency limit "
+                + getLimit()));
+    }
+
+    private <T> Future<T> run(Supplier<Future<T>> operation) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            future = Future.failedFuture(e);
+        }
+        return future.onComplete(ar -> release(ar.succeeded() ? System.nanoTime() - start : -1));
+    }
+
+    private void release(long latency) {
+        var ready = new ArrayList<Waiter>(1);
+        synchronized (this) {
+            if (latency >= 0) {
+                adjust(latency);
+            }
+            --inFlight;
+            while (inFlight < (int) limit && !queue.isEmpty()) {
+                var waiter = queue.poll();
+                if (waiter.timerId != -1) {
+                    vertx.cancelTimer(waiter.timerId);
+                }
+                ready.add(waiter);
+                ++inFlight;
+            }
+        }
+        ready.forEach(Waiter::dispatch);
+    }
+
+    private void adjust(long latency) {
+        if (averageLatency < 0) {
+            averageLatency = latency;
+        }
+        if (latency > LATENCY_TOLERANCE * averageLatency) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        averageLatency += (latency - averageLatency) * LATENCY_SMOOTHING;
+    }
+
+    /**
+     * <p>Getter for the field <code>limit</code>.</p>
+     *
+     * @return a int.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Get the number of running operations.
+     *
+     * @return a int.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Get the number of operations waiting for the limit.
+     *
+     * @return a int.
+     */
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of rejected operations, timed out ones included.
+     *
+     * @return a long.
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Get the smoothed latency of successful operations.
+     *
+     * @return latency in milliseconds, -1 if no operation completed.
+     */
+    public synchronized double getAverageLatencyMillis() {
+        return averageLatency < 0 ? -1 : averageLatency / 1_000_000;
+    }
+
+    private static class Waiter {
+        private final Context context;
+        private final Runnable task;
+        private long timerId = -1;
+
+        private Waiter(Context context, Runnable task) {
+            this.context = context;
+            this.task = task;
+        }
+
+        /**
+         * Run task on the context of the caller rather than on the context of the operation releasing its slot.
+         */
+        private void dispatch() {
+            if (context != null) {
+                context.runOnContext(v -> task.run());
+            } else {
+                task.run();
+            }
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.github.longdt.vertxorm.repository;
 import io.vertx.sqlclient.Row;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 
 /**
@@ -12,11 +14,37 @@ import java.util.function.Function;
  * @version $Id: $Id
  */
 public class Configuration<ID, E> {
+    /** Constant <code>DEFAULT_MAX_PACKET_SIZE=4 * 1024 * 1024</code> */
+    public static final int DEFAULT_MAX_PACKET_SIZE = 4 * 1024 * 1024;
+    /** Constant <code>DEFAULT_SQL_CACHE_SIZE=256</code> */
+    public static final int DEFAULT_SQL_CACHE_SIZE = 256;
+    /** Constant <code>DEFAULT_COUNT_CACHE_SIZE=1024</code> */
+    public static final int DEFAULT_COUNT_CACHE_SIZE = 1024;
+    /** Constant <code>DEFAULT_ID_BATCH_SIZE=512</code> */
+    public static final int DEFAULT_ID_BATCH_SIZE = 512;
+    /** Constant <code>DEFAULT_QUERY_CACHE_SIZE=1024</code> */
+    public static final int DEFAULT_QUERY_CACHE_SIZE = 1024;
+    /** Constant <code>DEFAULT_QUERY_CACHE_MAX_WEIGHT=1000</code> */
+    public static final int DEFAULT_QUERY_CACHE_MAX_WEIGHT = 1000;
     private String tableName;
     private List<String> columnNames;
     private IdAccessor<ID, E> idAccessor;
     protected Function<Row, E> rowMapper;
     protected Function<E, Object[]> parametersMapper;
+    protected ParametersWriter<E> parametersWriter;
+    private int maxPacketSize = DEFAULT_MAX_PACKET_SIZE;
+    private int sqlCacheSize = DEFAULT_SQL_CACHE_SIZE;
+    private CountStrategy countStrategy = CountStrategy.EXACT;
+    private int countCacheSize = DEFAULT_COUNT_CACHE_SIZE;
+    private int idBatchSize = DEFAULT_ID_BATCH_SIZE;
+    private int queryCacheSize = DEFAULT_QUERY_CACHE_SIZE;
+    private int queryCacheMaxWeight = DEFAULT_QUERY_CACHE_MAX_WEIGHT;
+    private InvalidationBroadcaster invalidationBroadcaster;
+    private Map<String, Function<Object, Object>> columnDecoders = Map.of();
+    private ReplicaRouter replicaRouter;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private ConnectionBroker connectionBroker;
+    private ConnectionBroker.Lane lane = ConnectionBroker.Lane.INTERACTIVE;
 
     /**
      * <p>Getter for the field <code>tableName</code>.</p>
@@ -117,4 +145,291 @@ public class Configuration<ID, E> {
         this.parametersMapper = parametersMapper;
         return this;
     }
+
+    /**
+     * <p>Getter for the field <code>parametersWriter</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.ParametersWriter} object.
+     */
+    public ParametersWriter<E> getParametersWriter() {
+        return parametersWriter;
+    }
+
+    /**
+     * Set the writer of entity values into statement tuples. When it is set, single row insert, upsert and update
+     * statements use it instead of the parameters mapper.
+     *
+     * @param parametersWriter a {@link com.github.longdt.vertxorm.repository.ParametersWriter} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setParametersWriter(ParametersWriter<E> parametersWriter) {
+        this.parametersWriter = parametersWriter;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>maxPacketSize</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getMaxPacketSize() {
+        return maxPacketSize;
+    }
+
+    /**
+     * Set the upper bound in bytes of a multi-row statement packet. It should not exceed the server's
+     * <code>max_allowed_packet</code>.
+     *
+     * @param maxPacketSize a int.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setMaxPacketSize(int maxPacketSize) {
+        this.maxPacketSize = maxPacketSize;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>sqlCacheSize</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getSqlCacheSize() {
+        return sqlCacheSize;
+    }
+
+    /**
+     * Set the max number of generated sql statements which are cached by each kind of statement.
+     *
+     * @param sqlCacheSize a int.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setSqlCacheSize(int sqlCacheSize) {
+        this.sqlCacheSize = sqlCacheSize;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>countStrategy</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.CountStrategy} object.
+     */
+    public CountStrategy getCountStrategy() {
+        return countStrategy;
+    }
+
+    /**
+     * Set the count strategy of page queries whose {@link PageRequest} doesn't specify one.
+     *
+     * @param countStrategy a {@link com.github.longdt.vertxorm.repository.CountStrategy} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>countCacheSize</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getCountCacheSize() {
+        return countCacheSize;
+    }
+
+    /**
+     * Set the max number of totals which are cached by {@link CountStrategy#cached(long, java.util.concurrent.TimeUnit)}.
+     *
+     * @param countCacheSize a int.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setCountCacheSize(int countCacheSize) {
+        this.countCacheSize = countCacheSize;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>idBatchSize</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getIdBatchSize() {
+        return idBatchSize;
+    }
+
+    /**
+     * Set the max number of ids queried by one <code>IN (...)</code> statement of
+     * {@link CrudRepository#findAllById(java.util.Collection)}.
+     *
+     * @param idBatchSize a int.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setIdBatchSize(int idBatchSize) {
+        this.idBatchSize = idBatchSize;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>queryCacheSize</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getQueryCacheSize() {
+        return queryCacheSize;
+    }
+
+    /**
+     * Set the max number of query results cached for queries opted in by
+     * {@link com.github.longdt.vertxorm.repository.query.Query#cache(long, java.util.concurrent.TimeUnit)},
+     * 0 to disable the query cache.
+     *
+     * @param queryCacheSize a int.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setQueryCacheSize(int queryCacheSize) {
+        this.queryCacheSize = queryCacheSize;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>queryCacheMaxWeight</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getQueryCacheMaxWeight() {
+        return queryCacheMaxWeight;
+    }
+
+    /**
+     * Set the max weight of a cached query result, results of findAll weigh their number of entities and
+     * results of count and exists weigh 1. Heavier results are not cached.
+     *
+     * @param queryCacheMaxWeight a int.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setQueryCacheMaxWeight(int queryCacheMaxWeight) {
+        this.queryCacheMaxWeight = queryCacheMaxWeight;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>invalidationBroadcaster</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.InvalidationBroadcaster} object.
+     */
+    public InvalidationBroadcaster getInvalidationBroadcaster() {
+        return invalidationBroadcaster;
+    }
+
+    /**
+     * Set the broadcaster which publishes ids written by repository to other nodes, and drops cached query
+     * results when other nodes write.
+     *
+     * @param invalidationBroadcaster a {@link com.github.longdt.vertxorm.repository.InvalidationBroadcaster} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setInvalidationBroadcaster(InvalidationBroadcaster invalidationBroadcaster) {
+        this.invalidationBroadcaster = invalidationBroadcaster;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>columnDecoders</code>.</p>
+     *
+     * @return a {@link java.util.Map} object.
+     */
+    public Map<String, Function<Object, Object>> getColumnDecoders() {
+        return columnDecoders;
+    }
+
+    /**
+     * Set decoders of column values read by {@link EntityView}, by column name. Decoders are only needed for
+     * columns whose values are converted by the row mapper, e.g. json text to objects.
+     *
+     * @param columnDecoders a {@link java.util.Map} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setColumnDecoders(Map<String, Function<Object, Object>> columnDecoders) {
+        this.columnDecoders = columnDecoders;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>replicaRouter</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.ReplicaRouter} object.
+     */
+    public ReplicaRouter getReplicaRouter() {
+        return replicaRouter;
+    }
+
+    /**
+     * Set the router which sends pool-level reads to replicas. Writes, streams of ids and reads on a given
+     * connection stay on the pool of the repository, which should be the primary of the router. Reads on replicas
+     * may not see writes which are younger than the max lag of the router.
+     *
+     * @param replicaRouter a {@link com.github.longdt.vertxorm.repository.ReplicaRouter} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setReplicaRouter(ReplicaRouter replicaRouter) {
+        this.replicaRouter = replicaRouter;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>concurrencyLimiter</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.ConcurrencyLimiter} object.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Set the limiter of concurrent pool-level operations of repository, reads on replicas included. A limiter
+     * should not be shared by repositories. Streams and operations on a given connection are not limited.
+     *
+     * @param concurrencyLimiter a {@link com.github.longdt.vertxorm.repository.ConcurrencyLimiter} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
+    /**
+     * <p>Getter for the field <code>connectionBroker</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.ConnectionBroker} object.
+     */
+    public ConnectionBroker getConnectionBroker() {
+        return connectionBroker;
+    }
+
+    /**
+     * <p>Getter for the field <code>lane</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.Lane} object.
+     */
+    public ConnectionBroker.Lane getLane() {
+        return lane;
+    }
+
+    /**
+     * Set the broker which hands out connections of the pool of repository to pool-level operations, and the lane
+     * of these operations by default. Batch jobs use {@link ConnectionBroker.Lane#BACKGROUND}, e.g. by
+     * {@link com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository#withLane(ConnectionBroker.Lane)},
+     * so that they don't delay user facing operations sharing the pool. Streams go through the broker, reads on
+     * replicas don't.
+     *
+     * @param connectionBroker a {@link com.github.longdt.vertxorm.repository.ConnectionBroker} object whose pool is
+     *                         the pool of repository.
+     * @param lane a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.Lane} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.Configuration} object.
+     */
+    public Configuration<ID, E> setConnectionBroker(ConnectionBroker connectionBroker, ConnectionBroker.Lane lane) {
+        this.connectionBroker = connectionBroker;
+        this.lane = Objects.requireNonNull(lane);
+        return this;
+    }
 }
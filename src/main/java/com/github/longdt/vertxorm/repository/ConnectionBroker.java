@@ -0,0 +1,355 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.util.SQLHelper;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Transaction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>Hand out connections of a pool to operations of two lanes, so that background work like batch jobs can't queue
+ * interactive work behind it.</p>
+ * The broker admits at most size operations, the max size of the pool, so operations wait in the broker rather than
+ * in the pool. A released connection goes to the oldest waiting interactive operation, and to the oldest waiting
+ * background operation only if no interactive operation waits. Background operations hold at most backgroundShare
+ * of the connections. A waiting operation runs on the context of its caller, and fails by a
+ * {@link ConcurrencyLimitExceededException} if it waits longer than {@link #setMaxWait(Vertx, long, TimeUnit)}.
+ * All users of the pool should go through the broker, e.g. by
+ * {@link Configuration#setConnectionBroker(ConnectionBroker, Lane)} and
+ * {@link com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository#withLane(Lane)} for repositories,
+ * {@link #withTransaction(Lane, BiFunction)} for transactions of {@link SQLHelper}, and {@link #submit(Lane, Supplier)}
+ * for other operations.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class ConnectionBroker {
+    private final Pool pool;
+    private final int size;
+    private final int maxBackground;
+    private final LaneState[] lanes = {new LaneState(), new LaneState()};
+    private int inUse;
+    private Vertx vertx;
+    private long maxWaitMillis;
+
+    /**
+     * <p>Constructor for ConnectionBroker.</p>
+     *
+     * @param pool a {@link io.vertx.sqlclient.Pool} object.
+     * @param size the max size of pool.
+     * @param backgroundShare the max share of connections held by background operations, in (0, 1].
+     */
+    public ConnectionBroker(Pool pool, int size, double backgroundShare) {
+        if (size <= 0 || backgroundShare <= 0 || backgroundShare > 1) {
+            throw new IllegalArgumentException("size must be positive and backgroundShare in (0, 1]");
+        }
+        this.pool = Objects.requireNonNull(pool);
+        this.size = size;
+        this.maxBackground = Math.max(1, (int) (size * backgroundShare));
+    }
+
+    /**
+     * Run function with a connection of pool once lane is given one.
+     *
+     * @param lane a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.Lane} object.
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public <T> Future<T> withConnection(Lane lane, Function<SqlConnection, Future<T>> function) {
+        return submit(lane, () -> pool.withConnection(function));
+    }
+
+    /**
+     * Run function in a transaction of pool once lane is given a connection, the transaction is registered by
+     * {@link SQLHelper#withTransaction(Pool, Function)}.
+     *
+     * @param lane a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.Lane} object.
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public <T> Future<T> withTransaction(Lane lane, Function<SqlConnection, Future<T>> function) {
+        return submit(lane, () -> SQLHelper.withTransaction(pool, function));
+    }
+
+    /**
+     * Run action in a transaction of pool registered by
+     * {@link SQLHelper#withTransaction(Pool, BiFunction)} once lane is given a connection.
+     *
+     * @param lane a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.Lane} object.
+     * @param action a {@link java.util.function.BiFunction} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public <T> Future<T> withTransaction(Lane lane, BiFunction<SqlConnection, Transaction, Future<T>> action) {
+        return submit(lane, () -> SQLHelper.withTransaction(pool, action));
+    }
+
+    /**
+     * Fail operations which wait for a connection longer than timeout.
+     *
+     * @param vertx a {@link io.vertx.core.Vertx} object.
+     * @param timeout a long, 0 to wait without a timeout.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.ConnectionBroker} object.
+     */
+    public synchronized ConnectionBroker setMaxWait(Vertx vertx, long timeout, TimeUnit unit) {
+        this.vertx = vertx;
+        this.maxWaitMillis = timeout > 0 ? Math.max(1, unit.toMillis(timeout)) : 0;
+        return this;
+    }
+
+    /**
+     * Run operation once lane is given a connection, which is held until the future of operation completes.
+     * Operation takes a connection of pool by itself, e.g. to open a stream.
+     *
+     * @param lane a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.Lane} object.
+     * @param operation a {@link java.util.function.Supplier} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public <T> Future<T> submit(Lane lane, Supplier<Future<T>> operation) {
+        var state = lanes[lane.ordinal()];
+        synchronized (this) {
+            if (lanes[Lane.INTERACTIVE.ordinal()].queue.isEmpty() && state.queue.isEmpty() && canAcquire(lane)) {
+                acquire(lane, 0);
+            } else {
+                Promise<T> promise = Promise.promise();
+                var waiter = new Waiter(System.nanoTime(), Vertx.currentContext(),
+                        () -> run(lane, operation).onComplete(promise));
+                state.queue.add(waiter);
+                if (maxWaitMillis > 0) {
+                    long timeout = maxWaitMillis;
+                    waiter.timerId = vertx.setTimer(timeout, t -> expire(lane, waiter, promise, timeout));
+                }
+                return promise.future();
+            }
+        }
+        return run(lane, operation);
+    }
+
+    private void expire(Lane lane, Waiter waiter, Promise<?> promise, long timeout) {
+        synchronized (this) {
+            var state = lanes[lane.ordinal()];
+            if (!state.queue.remove(waiter)) {
+                return;
+            }
+            ++state.timedOutCount;
+        }
+        promise.fail(new ConcurrencyLimitExceededException("Waited " + timeout + "ms for a connection of lane "
+                + lane));
+    }
+
+    private boolean canAcquire(Lane lane) {
+        return inUse < size && (lane == Lane.INTERACTIVE || lanes[lane.ordinal()].inUse < maxBackground);
+    }
+
+    private void acquire(Lane lane, long waitNanos) {
+        var state = lanes[lane.ordinal()];
+        ++inUse;
+        ++state.inUse;
+        ++state.acquiredCount;
+        state.totalWaitNanos += waitNanos;
+        state.maxWaitNanos = Math.max(state.maxWaitNanos, waitNanos);
+    }
+
+    private <T> Future<T> run(Lane lane, Supplier<Future<T>> operation) {
+        Future<T> future;
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            future = Future.failedFuture(e);
+        }
+        return future.onComplete(ar -> release(lane));
+    }
+
+    private void release(Lane lane) {
+        var ready = new ArrayList<Waiter>(1);
+        synchronized (this) {
+            --inUse;
+            --lanes[lane.ordinal()].inUse;
+            long now = System.nanoTime();
+            for (var next : Lane.values()) {
+                var queue = lanes[next.ordinal()].queue;
+                while (!queue.isEmpty() && canAcquire(next)) {
+                    var waiter = queue.poll();
+                    if (waiter.timerId != -1) {
+                        vertx.cancelTimer(waiter.timerId);
+                    }
+                    acquire(next, now - waiter.enqueuedNanos);
+                    ready.add(waiter);
+                }
+                if (!queue.isEmpty() && inUse >= size) {
+                    break;
+                }
+            }
+        }
+        ready.forEach(Waiter::dispatch);
+    }
+
+    /**
+     * Get a snapshot of the statistics of lane.
+     *
+     * @param lane a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.Lane} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.LaneStats} object.
+     */
+    public synchronized LaneStats getStats(Lane lane) {
+        var state = lanes[lane.ordinal()];
+        return new LaneStats(state.inUse, state.queue.size(), state.acquiredCount, state.timedOutCount,
+                state.totalWaitNanos, state.maxWaitNanos);
+    }
+
+    /**
+     * <p>Getter for the field <code>pool</code>.</p>
+     *
+     * @return a {@link io.vertx.sqlclient.Pool} object.
+     */
+    public Pool getPool() {
+        return pool;
+    }
+
+    private static class LaneState {
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        private int inUse;
+        private long acquiredCount;
+        private long timedOutCount;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+    }
+
+    private static class Waiter {
+        private final long enqueuedNanos;
+        private final Context context;
+        private final Runnable task;
+        private long timerId = -1;
+
+        private Waiter(long enqueuedNanos, Context context, Runnable task) {
+            this.enqueuedNanos = enqueuedNanos;
+            this.context = context;
+            this.task = task;
+        }
+
+        /**
+         * Run task on the context of the caller rather than on the context of the operation releasing its
+         * connection.
+         */
+        private void dispatch() {
+            if (context != null) {
+                context.runOnContext(v -> task.run());
+            } else {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * <p>The lane of an operation.</p>
+     */
+    public enum Lane {
+        /** User facing operations, which are given connections first. */
+        INTERACTIVE,
+        /** Batch and maintenance operations, which hold at most the background share of connections. */
+        BACKGROUND
+    }
+
+    /**
+     * <p>A snapshot of the statistics of a lane.</p>
+     */
+    public static class LaneStats {
+        private final int inUse;
+        private final int queueDepth;
+        private final long acquiredCount;
+        private final long timedOutCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+
+        private LaneStats(int inUse, int queueDepth, long acquiredCount, long timedOutCount, long totalWaitNanos,
+                          long maxWaitNanos) {
+            this.inUse = inUse;
+            this.queueDepth = queueDepth;
+            this.acquiredCount = acquiredCount;
+            this.timedOutCount = timedOutCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        /**
+         * Get the number of connections held by the lane.
+         *
+         * @return a int.
+         */
+        public int getInUse() {
+            return inUse;
+        }
+
+        /**
+         * Get the number of operations of the lane waiting for a connection.
+         *
+         * @return a int.
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * Get the number of connections given to the lane.
+         *
+         * @return a long.
+         */
+        public long getAcquiredCount() {
+            return acquiredCount;
+        }
+
+        /**
+         * Get the number of operations of the lane which waited longer than the max wait.
+         *
+         * @return a long.
+         */
+        public long getTimedOutCount() {
+            return timedOutCount;
+        }
+
+        /**
+         * Get the mean wait of the lane for a connection.
+         *
+         * @return wait in milliseconds.
+         */
+        public double getAverageWaitMillis() {
+            return acquiredCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / acquiredCount;
+        }
+
+        /**
+         * Get the longest wait of the lane for a connection.
+         *
+         * @return wait in milliseconds.
+         */
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString() {
+            return "LaneStats{" +
+                    "inUse=" + inUse +
+                    ", queueDepth=" + queueDepth +
+                    ", acquiredCount=" + acquiredCount +
+                    ", timedOutCount=" + timedOutCount +
+                    ", averageWaitMillis=" + getAverageWaitMillis() +
+                    ", maxWaitMillis=" + getMaxWaitMillis() +
+                    '}';
+        }
+    }
+}
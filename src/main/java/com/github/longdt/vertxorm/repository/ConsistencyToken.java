@@ -0,0 +1,61 @@
+package com.github.longdt.vertxorm.repository;
+
+import java.util.Objects;
+
+/**
+ * <p>A token of writes which a read must see, the GTID set executed by the primary after the writes.</p>
+ * Tokens are serialized by {@link #toString()}, so clients can keep them across requests, e.g. in a cookie.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public final class ConsistencyToken {
+    private final String gtidSet;
+
+    private ConsistencyToken(String gtidSet) {
+        this.gtidSet = Objects.requireNonNull(gtidSet);
+    }
+
+    /**
+     * <p>of.</p>
+     *
+     * @param gtidSet a {@link java.lang.String} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.ConsistencyToken} object.
+     */
+    public static ConsistencyToken of(String gtidSet) {
+        return new ConsistencyToken(gtidSet);
+    }
+
+    /**
+     * <p>Getter for the field <code>gtidSet</code>.</p>
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    public String getGtidSet() {
+        return gtidSet;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConsistencyToken)) {
+            return false;
+        }
+        return gtidSet.equals(((ConsistencyToken) o).gtidSet);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return gtidSet.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return gtidSet;
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.longdt.vertxorm.repository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>How the total elements of a {@link Page} are counted.</p>
+ * Except {@link #EXACT} and {@link #WINDOW}, a page query fetches one more row than the page size to know whether
+ * there is a next page, so the total is only counted when there is a next page. {@link Page#isTotalExact()} tells
+ * whether the total is exact or an estimate (a lower bound for {@link #NONE} and {@link #capped(long)}). An empty
+ * page past the end is the last page, and its total is 0 for {@link #NONE} since nothing is known about the rows
+ * before offset.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public final class CountStrategy {
+    /**
+     * <p>Strategy type.</p>
+     */
+    public enum Type {
+        EXACT, WINDOW, NONE, CAPPED, ESTIMATED, CACHED
+    }
+
+    /** Count by <code>SELECT count(*)</code> when the page is full or empty. */
+    public static final CountStrategy EXACT = new CountStrategy(Type.EXACT, 0);
+    /**
+     * Count in the page query itself by <code>COUNT(*) OVER()</code> (requires MySQL 8), falling back to
+     * <code>SELECT count(*)</code> only when the page is empty and not the first one.
+     */
+    public static final CountStrategy WINDOW = new CountStrategy(Type.WINDOW, 0);
+    /** Don't count, the total is the number of elements up to the current page. */
+    public static final CountStrategy NONE = new CountStrategy(Type.NONE, 0);
+    /** Estimate by table statistics or <code>EXPLAIN</code> rows of conditional queries. */
+    public static final CountStrategy ESTIMATED = new CountStrategy(Type.ESTIMATED, 0);
+
+    private final Type type;
+    private final long value;
+
+    private CountStrategy(Type type, long value) {
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * Count up to limit rows by <code>SELECT count(*) FROM (SELECT 1 ... LIMIT ?)</code>.
+     *
+     * @param limit the max counted rows.
+     * @return a {@link com.github.longdt.vertxorm.repository.CountStrategy} object.
+     */
+    public static CountStrategy capped(long limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return new CountStrategy(Type.CAPPED, limit);
+    }
+
+    /**
+     * Count exactly and cache the total of each query sql and params for ttl, or until a write through the
+     * repository.
+     *
+     * @param ttl a long.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.CountStrategy} object.
+     */
+    public static CountStrategy cached(long ttl, TimeUnit unit) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        return new CountStrategy(Type.CACHED, unit.toMillis(ttl));
+    }
+
+    /**
+     * <p>Getter for the field <code>type</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.CountStrategy.Type} object.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * <p>getLimit.</p>
+     *
+     * @return the max counted rows of {@link Type#CAPPED} strategy.
+     */
+    public long getLimit() {
+        return value;
+    }
+
+    /**
+     * <p>getTtlMillis.</p>
+     *
+     * @return the cache ttl of {@link Type#CACHED} strategy.
+     */
+    public long getTtlMillis() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return value > 0 ? type + "(" + value + ")" : type.toString();
+    }
+}
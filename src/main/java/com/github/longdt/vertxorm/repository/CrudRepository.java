@@ -2,12 +2,21 @@ package com.github.longdt.vertxorm.repository;
 
 import com.github.longdt.vertxorm.repository.query.Query;
 import com.github.longdt.vertxorm.repository.query.QueryFactory;
+import com.github.longdt.vertxorm.util.Futures;
+import com.github.longdt.vertxorm.util.MappedRowStream;
 import io.vertx.core.Future;
 import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowStream;
 import io.vertx.sqlclient.SqlConnection;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * <p>CrudRepository interface.</p>
@@ -24,7 +33,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<E> save(E entity) {
-        return getPool().withConnection(conn -> save(conn, entity));
+        return withConnection(conn -> save(conn, entity));
     }
 
     /**
@@ -36,6 +45,26 @@ public interface CrudRepository<ID, E> {
      */
     Future<E> save(SqlConnection conn, E entity);
 
+    /**
+     * <p>saveAll.</p>
+     *
+     * @param entities a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<List<E>> saveAll(Collection<E> entities) {
+        return withTransaction(conn -> saveAll(conn, entities));
+    }
+
+    /**
+     * Save entities in bulk. Entities without id are inserted as {@link #insertAll(SqlConnection, Collection)} does,
+     * the others are upserted by multi-row INSERT ... ON DUPLICATE KEY UPDATE statements.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param entities a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    Future<List<E>> saveAll(SqlConnection conn, Collection<E> entities);
+
     /**
      * <p>insert.</p>
      *
@@ -43,7 +72,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<E> insert(E entity) {
-        return getPool().withConnection(conn -> insert(conn, entity));
+        return withConnection(conn -> insert(conn, entity));
     }
 
     /**
@@ -55,6 +84,28 @@ public interface CrudRepository<ID, E> {
      */
     Future<E> insert(SqlConnection conn, E entity);
 
+    /**
+     * <p>insertAll.</p>
+     *
+     * @param entities a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<List<E>> insertAll(Collection<E> entities) {
+        return withTransaction(conn -> insertAll(conn, entities));
+    }
+
+    /**
+     * Insert entities by multi-row INSERT statements. Generated ids are set on entities which have null id. They
+     * are derived from {@code LAST_INSERT_ID()} of each statement, so the ids of the rows of a statement must be
+     * {@code @@auto_increment_increment} of the session apart, as MySQL assigns them to a multi-row insert of a
+     * known row count.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param entities a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    Future<List<E>> insertAll(SqlConnection conn, Collection<E> entities);
+
     /**
      * <p>update.</p>
      *
@@ -62,7 +113,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<E> update(E entity) {
-        return getPool().withConnection(conn -> update(conn, entity));
+        return withConnection(conn -> update(conn, entity));
     }
 
     /**
@@ -74,20 +125,39 @@ public interface CrudRepository<ID, E> {
      */
     Future<E> update(SqlConnection conn, E entity);
 
+    /**
+     * <p>updateAll.</p>
+     *
+     * @param entities a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<List<ID>> updateAll(Collection<E> entities) {
+        return withTransaction(conn -> updateAll(conn, entities));
+    }
+
+    /**
+     * Update entities by a single batch execution of the update statement.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param entities a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object which contains ids of entities that are not found.
+     */
+    Future<List<ID>> updateAll(SqlConnection conn, Collection<E> entities);
+
     default Future<E> update(E entity, Query<E> query) {
-        return getPool().withConnection(conn -> update(conn, entity, query));
+        return withConnection(conn -> update(conn, entity, query));
     }
 
     Future<E> update(SqlConnection conn, E entity, Query<E> query);
 
     default Future<Void> updateDynamic(E entity) {
-        return getPool().withConnection(conn -> updateDynamic(conn, entity));
+        return withConnection(conn -> updateDynamic(conn, entity));
     }
 
     Future<Void> updateDynamic(SqlConnection conn, E entity);
 
     default Future<Void> updateDynamic(E entity, Query<E> query) {
-        return getPool().withConnection(conn -> updateDynamic(conn, entity, query));
+        return withConnection(conn -> updateDynamic(conn, entity, query));
     }
 
     Future<Void> updateDynamic(SqlConnection conn, E entity, Query<E> query);
@@ -98,7 +168,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<Void> delete(ID id) {
-        return getPool().withConnection(conn -> delete(conn, id));
+        return withConnection(conn -> delete(conn, id));
     }
 
     /**
@@ -117,7 +187,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<Optional<E>> find(ID id) {
-        return getPool().withConnection(conn -> find(conn, id));
+        return withReadConnection(conn -> find(conn, id));
     }
 
     /**
@@ -129,13 +199,74 @@ public interface CrudRepository<ID, E> {
      */
     Future<Optional<E>> find(SqlConnection conn, ID id);
 
+    /**
+     * Find entities by ids, ordered as ids. Ids which are not found are skipped.
+     *
+     * @param ids a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<List<E>> findAllById(Collection<ID> ids) {
+        return findMapById(ids).map(entities -> orderById(ids, entities));
+    }
+
+    /**
+     * <p>findAllById.</p>
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param ids a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<List<E>> findAllById(SqlConnection conn, Collection<ID> ids) {
+        return findMapById(conn, ids).map(entities -> orderById(ids, entities));
+    }
+
+    private static <ID, E> List<E> orderById(Collection<ID> ids, Map<ID, E> entities) {
+        var result = new ArrayList<E>(entities.size());
+        for (var id : ids) {
+            var entity = entities.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find entities by ids. Ids are queried by chunks of {@link #getIdBatchSize()} concurrently, each chunk on
+     * its own pooled connection.
+     *
+     * @param ids a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<Map<ID, E>> findMapById(Collection<ID> ids) {
+        return Futures.findByChunks(ids, getIdBatchSize(), chunk -> withReadConnection(conn -> findMapById(conn, chunk)));
+    }
+
+    /**
+     * Find entities by ids using <code>IN (...)</code> statements of up to {@link #getIdBatchSize()} ids.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param ids a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    Future<Map<ID, E>> findMapById(SqlConnection conn, Collection<ID> ids);
+
+    /**
+     * Get the max number of ids queried by one statement of {@link #findMapById(SqlConnection, Collection)}.
+     *
+     * @return a int.
+     */
+    default int getIdBatchSize() {
+        return Configuration.DEFAULT_ID_BATCH_SIZE;
+    }
+
     /**
      * <p>findAll.</p>
      *
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<List<E>> findAll() {
-        return getPool().withConnection(this::findAll);
+        return withReadConnection(this::findAll);
     }
 
     /**
@@ -153,7 +284,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<List<E>> findAll(Query<E> query) {
-        return getPool().withConnection(conn -> findAll(conn, query));
+        return withReadConnection(conn -> findAll(conn, query));
     }
 
     /**
@@ -165,6 +296,90 @@ public interface CrudRepository<ID, E> {
      */
     Future<List<E>> findAll(SqlConnection conn, Query<E> query);
 
+    /**
+     * Find rows matching query, selecting only columns, and map them by mapper.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param columns a {@link java.util.List} object, each one must be a column of the table.
+     * @param mapper a {@link java.util.function.Function} object.
+     * @param <R> a R object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default <R> Future<List<R>> findAll(Query<E> query, List<String> columns, Function<Row, R> mapper) {
+        return withReadConnection(conn -> findAll(conn, query, columns, mapper));
+    }
+
+    /**
+     * Find rows matching query, selecting only columns, and map them by mapper. Results of a cached query (see
+     * {@link Query#cache(long, java.util.concurrent.TimeUnit)}) are only shared by calls with the same mapper
+     * instance.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param columns a {@link java.util.List} object, each one must be a column of the table.
+     * @param mapper a {@link java.util.function.Function} object.
+     * @param <R> a R object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    <R> Future<List<R>> findAll(SqlConnection conn, Query<E> query, List<String> columns, Function<Row, R> mapper);
+
+    /**
+     * Stream entities matching query through a cursor. The stream holds a connection and a transaction which are
+     * committed and released when the stream ends, or rolled back and released when it fails or is closed early.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param fetchSize the number of rows fetched by each cursor read.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<RowStream<E>> stream(Query<E> query, int fetchSize) {
+        return streamInTransaction(getReadConnection(), conn -> stream(conn, query, fetchSize));
+    }
+
+    private <T> Future<RowStream<T>> streamInTransaction(Future<SqlConnection> connection,
+                                                         Function<SqlConnection, Future<RowStream<T>>> streamFactory) {
+        return connection
+                .compose(conn -> conn.begin()
+                        .compose(tx -> streamFactory.apply(conn)
+                                .<RowStream<T>>map(stream -> new MappedRowStream<>(stream, e -> e,
+                                        err -> (err == null ? tx.commit() : tx.rollback()).eventually(v -> conn.close())))
+                                .onFailure(err -> tx.rollback().eventually(v -> conn.close())))
+                        .onFailure(err -> conn.close()));
+    }
+
+    /**
+     * Stream entities matching query through a cursor, so that memory is bounded by fetchSize. Cursors must be
+     * used inside a transaction of conn. The stream closes its statement when it ends, fails or is closed.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param fetchSize the number of rows fetched by each cursor read.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    Future<RowStream<E>> stream(SqlConnection conn, Query<E> query, int fetchSize);
+
+    /**
+     * Stream ids of entities matching query through a cursor on a connection of the pool, like
+     * {@link #stream(Query, int)}. Ids are always read from {@link #getPool()}, so that they are not behind writes.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param fetchSize the number of rows fetched by each cursor read.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<RowStream<ID>> streamIds(Query<E> query, int fetchSize) {
+        return streamInTransaction(getPool().getConnection(), conn -> streamIds(conn, query, fetchSize));
+    }
+
+    /**
+     * Stream ids of entities matching query through a cursor, only the id column is read. Cursors must be used
+     * inside a transaction of conn.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param fetchSize the number of rows fetched by each cursor read.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    Future<RowStream<ID>> streamIds(SqlConnection conn, Query<E> query, int fetchSize);
+
     /**
      * <p>find.</p>
      *
@@ -172,7 +387,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<Optional<E>> find(Query<E> query) {
-        return getPool().withConnection(conn -> find(conn, query));
+        return withReadConnection(conn -> find(conn, query));
     }
 
     /**
@@ -202,7 +417,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<Page<E>> findAll(Query<E> query, PageRequest pageRequest) {
-        return getPool().withTransaction(conn -> findAll(conn, query, pageRequest));
+        return withReadTransaction(conn -> findAll(conn, query, pageRequest));
     }
 
     /**
@@ -226,6 +441,107 @@ public interface CrudRepository<ID, E> {
      */
     Future<Page<E>> findAll(SqlConnection conn, Query<E> query, PageRequest pageRequest);
 
+    /**
+     * Find a page of rows matching query, selecting only columns, and map them by mapper.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param columns a {@link java.util.List} object, each one must be a column of the table.
+     * @param mapper a {@link java.util.function.Function} object.
+     * @param pageRequest a {@link com.github.longdt.vertxorm.repository.PageRequest} object.
+     * @param <R> a R object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default <R> Future<Page<R>> findAll(Query<E> query, List<String> columns, Function<Row, R> mapper, PageRequest pageRequest) {
+        return withReadTransaction(conn -> findAll(conn, query, columns, mapper, pageRequest));
+    }
+
+    /**
+     * Find a page of rows matching query, selecting only columns, and map them by mapper.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param columns a {@link java.util.List} object, each one must be a column of the table.
+     * @param mapper a {@link java.util.function.Function} object.
+     * @param pageRequest a {@link com.github.longdt.vertxorm.repository.PageRequest} object.
+     * @param <R> a R object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    <R> Future<Page<R>> findAll(SqlConnection conn, Query<E> query, List<String> columns, Function<Row, R> mapper,
+                                PageRequest pageRequest);
+
+    /**
+     * Find entities matching query as {@link EntityView}s, which decode columns on first access.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<List<EntityView<E>>> findAllViews(Query<E> query) {
+        return withReadConnection(conn -> findAllViews(conn, query));
+    }
+
+    /**
+     * Find entities matching query as {@link EntityView}s, which decode columns on first access.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    Future<List<EntityView<E>>> findAllViews(SqlConnection conn, Query<E> query);
+
+    /**
+     * Find a page of entities matching query as {@link EntityView}s, which decode columns on first access.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param pageRequest a {@link com.github.longdt.vertxorm.repository.PageRequest} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<Page<EntityView<E>>> findAllViews(Query<E> query, PageRequest pageRequest) {
+        return withReadTransaction(conn -> findAllViews(conn, query, pageRequest));
+    }
+
+    /**
+     * Find a page of entities matching query as {@link EntityView}s, which decode columns on first access.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param pageRequest a {@link com.github.longdt.vertxorm.repository.PageRequest} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    Future<Page<EntityView<E>>> findAllViews(SqlConnection conn, Query<E> query, PageRequest pageRequest);
+
+    /**
+     * <p>findAll.</p>
+     *
+     * @param pageRequest a {@link com.github.longdt.vertxorm.repository.KeysetPageRequest} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<Slice<E>> findAll(KeysetPageRequest pageRequest) {
+        return findAll(QueryFactory.emptyQuery(), pageRequest);
+    }
+
+    /**
+     * <p>findAll.</p>
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param pageRequest a {@link com.github.longdt.vertxorm.repository.KeysetPageRequest} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<Slice<E>> findAll(Query<E> query, KeysetPageRequest pageRequest) {
+        return withReadConnection(conn -> findAll(conn, query, pageRequest));
+    }
+
+    /**
+     * Find a slice by keyset (seek) paging. Rows are ordered by {@link Query#orderBy()} then by id, and the
+     * next slice starts after the order by values of the last row instead of skipping an offset, so deep
+     * slices cost the same as the first one. Order by columns should not be null.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param pageRequest a {@link com.github.longdt.vertxorm.repository.KeysetPageRequest} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    Future<Slice<E>> findAll(SqlConnection conn, Query<E> query, KeysetPageRequest pageRequest);
+
     /**
      * <p>count.</p>
      *
@@ -233,7 +549,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<Long> count(Query<E> query) {
-        return getPool().withConnection(conn -> count(conn, query));
+        return withReadConnection(conn -> count(conn, query));
     }
 
     /**
@@ -252,7 +568,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<Boolean> exists(ID id) {
-        return getPool().withConnection(conn -> exists(conn, id));
+        return withReadConnection(conn -> exists(conn, id));
     }
 
     /**
@@ -271,7 +587,7 @@ public interface CrudRepository<ID, E> {
      * @return a {@link io.vertx.core.Future} object.
      */
     default Future<Boolean> exists(Query<E> query) {
-        return getPool().withConnection(conn -> exists(conn, query));
+        return withReadConnection(conn -> exists(conn, query));
     }
 
     /**
@@ -284,9 +600,86 @@ public interface CrudRepository<ID, E> {
     Future<Boolean> exists(SqlConnection conn, Query<E> query);
 
     /**
-     * <p>getPool.</p>
+     * Get the pool which serves writes and transactions, the primary when replicas are configured.
      *
      * @return a {@link io.vertx.sqlclient.Pool} object.
      */
     Pool getPool();
+
+    /**
+     * Run function with a connection of {@link #getPool()}. Pool-level writes are routed through this method, so
+     * that implementations can bound them, see {@link Configuration#setConcurrencyLimiter(ConcurrencyLimiter)}.
+     *
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default <T> Future<T> withConnection(Function<SqlConnection, Future<T>> function) {
+        return getPool().withConnection(function);
+    }
+
+    /**
+     * Run function in a transaction of {@link #getPool()}, see {@link #withConnection(Function)}.
+     *
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default <T> Future<T> withTransaction(Function<SqlConnection, Future<T>> function) {
+        return getPool().withTransaction(function);
+    }
+
+    /**
+     * Run function with a connection serving reads outside of transactions. Pool-level reads are routed through
+     * this method, so they go to a replica when replicas are configured, see
+     * {@link Configuration#setReplicaRouter(ReplicaRouter)}. The default uses a connection of {@link #getPool()}.
+     *
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default <T> Future<T> withReadConnection(Function<SqlConnection, Future<T>> function) {
+        return getPool().withConnection(function);
+    }
+
+    /**
+     * Run function in a read-only unit of work which needs a transaction, like page queries, see
+     * {@link #withReadConnection(Function)}.
+     *
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default <T> Future<T> withReadTransaction(Function<SqlConnection, Future<T>> function) {
+        return getPool().withTransaction(function);
+    }
+
+    /**
+     * Get a connection serving reads, e.g. streams, see {@link #withReadConnection(Function)}.
+     *
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default Future<SqlConnection> getReadConnection() {
+        return getPool().getConnection();
+    }
+
+    /**
+     * Run operation within the concurrency limit of this repository, e.g. a read which a wrapping repository routes
+     * by itself, see {@link Configuration#setConcurrencyLimiter(ConcurrencyLimiter)}. The default runs operation at
+     * once.
+     *
+     * @param operation a {@link java.util.function.Supplier} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    default <T> Future<T> withConcurrencyLimit(Supplier<Future<T>> operation) {
+        return operation.get();
+    }
+
+    /**
+     * <p>getIdAccessor.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.IdAccessor} object.
+     */
+    IdAccessor<ID, E> getIdAccessor();
 }
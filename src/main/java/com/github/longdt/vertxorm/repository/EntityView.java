@@ -0,0 +1,127 @@
+package com.github.longdt.vertxorm.repository;
+
+import io.vertx.sqlclient.Row;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <p>A lightweight view of an entity over its {@link Row}.</p>
+ * A column is decoded by its decoder of {@link Configuration#getColumnDecoders()} on first access and the result
+ * is memoised, columns without decoder are read as they are. {@link #materialize()} maps the whole row by the row
+ * mapper of the repository. Views are not thread safe.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class EntityView<E> {
+    private static final Object UNDECODED = new Object();
+    private final Row row;
+    private final Schema<E> schema;
+    private Object[] values;
+    private E entity;
+
+    private EntityView(Row row, Schema<E> schema) {
+        this.row = row;
+        this.schema = schema;
+    }
+
+    /**
+     * Create a mapper of rows selecting columnNames to views.
+     *
+     * @param columnNames a {@link java.util.List} object.
+     * @param columnDecoders a {@link java.util.Map} object.
+     * @param rowMapper a {@link java.util.function.Function} object.
+     * @param <E> a E object.
+     * @return a {@link java.util.function.Function} object.
+     */
+    public static <E> Function<Row, EntityView<E>> mapper(List<String> columnNames,
+                                                          Map<String, Function<Object, Object>> columnDecoders,
+                                                          Function<Row, E> rowMapper) {
+        var schema = new Schema<>(columnNames, columnDecoders, rowMapper);
+        return row -> new EntityView<>(row, schema);
+    }
+
+    /**
+     * Get the decoded value of a column.
+     *
+     * @param column a {@link java.lang.String} object.
+     * @param <T> a T object.
+     * @return a T object.
+     */
+    public <T> T get(String column) {
+        var index = schema.indexes.get(column);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown column: " + column);
+        }
+        return get(index);
+    }
+
+    /**
+     * Get the decoded value of the column at index.
+     *
+     * @param index a int.
+     * @param <T> a T object.
+     * @return a T object.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(int index) {
+        var decoder = schema.decoders.get(index);
+        if (decoder == null) {
+            return (T) row.getValue(index);
+        }
+        if (values == null) {
+            values = new Object[schema.decoders.size()];
+            Arrays.fill(values, UNDECODED);
+        }
+        var value = values[index];
+        if (value == UNDECODED) {
+            var rawValue = row.getValue(index);
+            value = rawValue != null ? decoder.apply(rawValue) : null;
+            values[index] = value;
+        }
+        return (T) value;
+    }
+
+    /**
+     * <p>Getter for the field <code>row</code>.</p>
+     *
+     * @return a {@link io.vertx.sqlclient.Row} object.
+     */
+    public Row getRow() {
+        return row;
+    }
+
+    /**
+     * Map the whole row to an entity. The entity is memoised, so later calls return the same instance.
+     *
+     * @return a E object.
+     */
+    public E materialize() {
+        if (entity == null) {
+            entity = schema.rowMapper.apply(row);
+        }
+        return entity;
+    }
+
+    private static class Schema<E> {
+        private final Map<String, Integer> indexes;
+        private final List<Function<Object, Object>> decoders;
+        private final Function<Row, E> rowMapper;
+
+        private Schema(List<String> columnNames, Map<String, Function<Object, Object>> columnDecoders,
+                       Function<Row, E> rowMapper) {
+            this.indexes = new HashMap<>();
+            this.decoders = new ArrayList<>(columnNames.size());
+            for (int i = 0; i < columnNames.size(); ++i) {
+                indexes.put(columnNames.get(i), i);
+                decoders.add(columnDecoders.get(columnNames.get(i)));
+            }
+            this.rowMapper = rowMapper;
+        }
+    }
+}
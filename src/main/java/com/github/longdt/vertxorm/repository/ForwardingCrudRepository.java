@@ -0,0 +1,433 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.repository.query.Query;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowStream;
+import io.vertx.sqlclient.SqlConnection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>A {@link CrudRepository} which forwards all method calls to another repository.</p>
+ * Subclasses override methods to decorate the delegate, e.g. batching or caching.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class ForwardingCrudRepository<ID, E> implements CrudRepository<ID, E> {
+    protected final CrudRepository<ID, E> delegate;
+
+    /**
+     * <p>Constructor for ForwardingCrudRepository.</p>
+     *
+     * @param delegate a {@link com.github.longdt.vertxorm.repository.CrudRepository} object.
+     */
+    public ForwardingCrudRepository(CrudRepository<ID, E> delegate) {
+        this.delegate = Objects.requireNonNull(delegate);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> save(E entity) {
+        return delegate.save(entity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> save(SqlConnection conn, E entity) {
+        return delegate.save(conn, entity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> saveAll(Collection<E> entities) {
+        return delegate.saveAll(entities);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> saveAll(SqlConnection conn, Collection<E> entities) {
+        return delegate.saveAll(conn, entities);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> insert(E entity) {
+        return delegate.insert(entity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> insert(SqlConnection conn, E entity) {
+        return delegate.insert(conn, entity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> insertAll(Collection<E> entities) {
+        return delegate.insertAll(entities);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> insertAll(SqlConnection conn, Collection<E> entities) {
+        return delegate.insertAll(conn, entities);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(E entity) {
+        return delegate.update(entity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(SqlConnection conn, E entity) {
+        return delegate.update(conn, entity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<ID>> updateAll(Collection<E> entities) {
+        return delegate.updateAll(entities);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<ID>> updateAll(SqlConnection conn, Collection<E> entities) {
+        return delegate.updateAll(conn, entities);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(E entity, Query<E> query) {
+        return delegate.update(entity, query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(SqlConnection conn, E entity, Query<E> query) {
+        return delegate.update(conn, entity, query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(E entity) {
+        return delegate.updateDynamic(entity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(SqlConnection conn, E entity) {
+        return delegate.updateDynamic(conn, entity);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(E entity, Query<E> query) {
+        return delegate.updateDynamic(entity, query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(SqlConnection conn, E entity, Query<E> query) {
+        return delegate.updateDynamic(conn, entity, query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> delete(ID id) {
+        return delegate.delete(id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> delete(SqlConnection conn, ID id) {
+        return delegate.delete(conn, id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(ID id) {
+        return delegate.find(id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(SqlConnection conn, ID id) {
+        return delegate.find(conn, id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAllById(Collection<ID> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAllById(SqlConnection conn, Collection<ID> ids) {
+        return delegate.findAllById(conn, ids);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Map<ID, E>> findMapById(Collection<ID> ids) {
+        return delegate.findMapById(ids);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Map<ID, E>> findMapById(SqlConnection conn, Collection<ID> ids) {
+        return delegate.findMapById(conn, ids);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getIdBatchSize() {
+        return delegate.getIdBatchSize();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAll() {
+        return delegate.findAll();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAll(SqlConnection conn) {
+        return delegate.findAll(conn);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAll(Query<E> query) {
+        return delegate.findAll(query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAll(SqlConnection conn, Query<E> query) {
+        return delegate.findAll(conn, query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <R> Future<List<R>> findAll(Query<E> query, List<String> columns, Function<Row, R> mapper) {
+        return delegate.findAll(query, columns, mapper);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <R> Future<List<R>> findAll(SqlConnection conn, Query<E> query, List<String> columns, Function<Row, R> mapper) {
+        return delegate.findAll(conn, query, columns, mapper);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <R> Future<Page<R>> findAll(Query<E> query, List<String> columns, Function<Row, R> mapper, PageRequest pageRequest) {
+        return delegate.findAll(query, columns, mapper, pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <R> Future<Page<R>> findAll(SqlConnection conn, Query<E> query, List<String> columns, Function<Row, R> mapper,
+                                       PageRequest pageRequest) {
+        return delegate.findAll(conn, query, columns, mapper, pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<EntityView<E>>> findAllViews(Query<E> query) {
+        return delegate.findAllViews(query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<EntityView<E>>> findAllViews(SqlConnection conn, Query<E> query) {
+        return delegate.findAllViews(conn, query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<EntityView<E>>> findAllViews(Query<E> query, PageRequest pageRequest) {
+        return delegate.findAllViews(query, pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<EntityView<E>>> findAllViews(SqlConnection conn, Query<E> query, PageRequest pageRequest) {
+        return delegate.findAllViews(conn, query, pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<RowStream<E>> stream(Query<E> query, int fetchSize) {
+        return delegate.stream(query, fetchSize);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<RowStream<E>> stream(SqlConnection conn, Query<E> query, int fetchSize) {
+        return delegate.stream(conn, query, fetchSize);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<RowStream<ID>> streamIds(Query<E> query, int fetchSize) {
+        return delegate.streamIds(query, fetchSize);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<RowStream<ID>> streamIds(SqlConnection conn, Query<E> query, int fetchSize) {
+        return delegate.streamIds(conn, query, fetchSize);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(Query<E> query) {
+        return delegate.find(query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(SqlConnection conn, Query<E> query) {
+        return delegate.find(conn, query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<E>> findAll(PageRequest pageRequest) {
+        return delegate.findAll(pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<E>> findAll(Query<E> query, PageRequest pageRequest) {
+        return delegate.findAll(query, pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<E>> findAll(SqlConnection conn, PageRequest pageRequest) {
+        return delegate.findAll(conn, pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<E>> findAll(SqlConnection conn, Query<E> query, PageRequest pageRequest) {
+        return delegate.findAll(conn, query, pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Slice<E>> findAll(KeysetPageRequest pageRequest) {
+        return delegate.findAll(pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Slice<E>> findAll(Query<E> query, KeysetPageRequest pageRequest) {
+        return delegate.findAll(query, pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Slice<E>> findAll(SqlConnection conn, Query<E> query, KeysetPageRequest pageRequest) {
+        return delegate.findAll(conn, query, pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Long> count(Query<E> query) {
+        return delegate.count(query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Long> count(SqlConnection conn, Query<E> query) {
+        return delegate.count(conn, query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(ID id) {
+        return delegate.exists(id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(SqlConnection conn, ID id) {
+        return delegate.exists(conn, id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(Query<E> query) {
+        return delegate.exists(query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(SqlConnection conn, Query<E> query) {
+        return delegate.exists(conn, query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Pool getPool() {
+        return delegate.getPool();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withConnection(Function<SqlConnection, Future<T>> function) {
+        return delegate.withConnection(function);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withTransaction(Function<SqlConnection, Future<T>> function) {
+        return delegate.withTransaction(function);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withReadConnection(Function<SqlConnection, Future<T>> function) {
+        return delegate.withReadConnection(function);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withReadTransaction(Function<SqlConnection, Future<T>> function) {
+        return delegate.withReadTransaction(function);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<SqlConnection> getReadConnection() {
+        return delegate.getReadConnection();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withConcurrencyLimit(Supplier<Future<T>> operation) {
+        return delegate.withConcurrencyLimit(operation);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public IdAccessor<ID, E> getIdAccessor() {
+        return delegate.getIdAccessor();
+    }
+}
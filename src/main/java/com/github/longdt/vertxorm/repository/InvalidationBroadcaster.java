@@ -0,0 +1,238 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.util.Lists;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>Broadcast ids of changed rows of a table to the other nodes of a (clustered) Vert.x event bus, so that they
+ * evict their local caches.</p>
+ * Ids are database values (see {@link IdAccessor#id2DbValue(Object)}) of type {@link Short}, {@link Integer},
+ * {@link Long}, {@link String}, {@link UUID}, byte[] or {@link Buffer}, other types are rejected by
+ * {@link #invalidate(Object)}. Ids invalidated within coalesceMillis are published together as one {@link JsonArray}
+ * whose first element has a type code per id, so ids keep their types across the cluster. Handlers are only called
+ * for messages published by other broadcasters.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class InvalidationBroadcaster {
+    private static final String ORIGIN_HEADER = "origin";
+    private static final int MAX_IDS_PER_MESSAGE = 1024;
+    private static final char SHORT = 's';
+    private static final char INTEGER = 'i';
+    private static final char LONG = 'l';
+    private static final char STRING = 't';
+    private static final char UUID_STRING = 'u';
+    private static final char BYTES = 'b';
+    private static final char BUFFER = 'f';
+    private final Vertx vertx;
+    private final String address;
+    private final long coalesceMillis;
+    private final String origin = UUID.randomUUID().toString();
+    private final DeliveryOptions deliveryOptions = new DeliveryOptions().addHeader(ORIGIN_HEADER, origin);
+    private final List<Handler<List<Object>>> handlers = new CopyOnWriteArrayList<>();
+    private final MessageConsumer<JsonArray> consumer;
+    private final Promise<Void> registration = Promise.promise();
+    private Set<Object> pending = new LinkedHashSet<>();
+    private boolean scheduled;
+
+    /**
+     * <p>Constructor for InvalidationBroadcaster.</p>
+     *
+     * @param vertx a {@link io.vertx.core.Vertx} object.
+     * @param address the event bus address, usually one per table.
+     * @param coalesceMillis how long ids are collected before they are published.
+     */
+    public InvalidationBroadcaster(Vertx vertx, String address, long coalesceMillis) {
+        if (coalesceMillis <= 0) {
+            throw new IllegalArgumentException("coalesceMillis must be positive");
+        }
+        this.vertx = vertx;
+        this.address = address;
+        this.coalesceMillis = coalesceMillis;
+        this.consumer = vertx.eventBus().consumer(address, this::handleMessage);
+        consumer.completionHandler(registration);
+    }
+
+    /**
+     * <p>invalidate.</p>
+     *
+     * @param dbId a {@link java.lang.Object} object.
+     * @throws java.lang.IllegalArgumentException if the type of dbId is not supported.
+     */
+    public void invalidate(Object dbId) {
+        typeCode(dbId);
+        boolean schedule;
+        synchronized (this) {
+            pending.add(dbId);
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) {
+            vertx.setTimer(coalesceMillis, t -> flush());
+        }
+    }
+
+    /**
+     * <p>invalidate.</p>
+     *
+     * @param dbIds a {@link java.util.Collection} object.
+     * @throws java.lang.IllegalArgumentException if the type of an id is not supported.
+     */
+    public void invalidate(Collection<?> dbIds) {
+        if (dbIds.isEmpty()) {
+            return;
+        }
+        for (var dbId : dbIds) {
+            typeCode(dbId);
+        }
+        boolean schedule;
+        synchronized (this) {
+            pending.addAll(dbIds);
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) {
+            vertx.setTimer(coalesceMillis, t -> flush());
+        }
+    }
+
+    /**
+     * Publish pending ids now.
+     */
+    public void flush() {
+        List<Object> ids;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                scheduled = false;
+                return;
+            }
+            ids = new ArrayList<>(pending);
+            pending = new LinkedHashSet<>();
+            scheduled = false;
+        }
+        for (var chunk : Lists.partition(ids, MAX_IDS_PER_MESSAGE)) {
+            vertx.eventBus().publish(address, encode(chunk), deliveryOptions);
+        }
+    }
+
+    private void handleMessage(Message<JsonArray> message) {
+        if (origin.equals(message.headers().get(ORIGIN_HEADER))) {
+            return;
+        }
+        var ids = decode(message.body());
+        for (var handler : handlers) {
+            handler.handle(ids);
+        }
+    }
+
+    private static char typeCode(Object dbId) {
+        if (dbId instanceof Integer) {
+            return INTEGER;
+        } else if (dbId instanceof Long) {
+            return LONG;
+        } else if (dbId instanceof String) {
+            return STRING;
+        } else if (dbId instanceof Short) {
+            return SHORT;
+        } else if (dbId instanceof UUID) {
+            return UUID_STRING;
+        } else if (dbId instanceof byte[]) {
+            return BYTES;
+        } else if (dbId instanceof Buffer) {
+            return BUFFER;
+        }
+        throw new IllegalArgumentException("Unsupported id type: " + (dbId == null ? null : dbId.getClass().getName()));
+    }
+
+    private static JsonArray encode(List<Object> ids) {
+        var types = new StringBuilder(ids.size());
+        var json = new JsonArray(new ArrayList<>(ids.size() + 1)).addNull();
+        for (var id : ids) {
+            char type = typeCode(id);
+            types.append(type);
+            json.add(type == UUID_STRING ? id.toString() : id);
+        }
+        return json.set(0, types.toString());
+    }
+
+    private static List<Object> decode(JsonArray json) {
+        var types = json.getString(0);
+        var ids = new ArrayList<>(types.length());
+        for (int i = 0; i < types.length(); ++i) {
+            int pos = i + 1;
+            switch (types.charAt(i)) {
+                case SHORT:
+                    ids.add(json.getNumber(pos).shortValue());
+                    break;
+                case INTEGER:
+                    ids.add(json.getInteger(pos));
+                    break;
+                case LONG:
+                    ids.add(json.getLong(pos));
+                    break;
+                case STRING:
+                    ids.add(json.getString(pos));
+                    break;
+                case UUID_STRING:
+                    ids.add(UUID.fromString(json.getString(pos)));
+                    break;
+                case BYTES:
+                    ids.add(json.getBinary(pos));
+                    break;
+                case BUFFER:
+                    ids.add(json.getBuffer(pos));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown id type code: " + types.charAt(i));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Add a handler of ids invalidated by other broadcasters.
+     *
+     * @param handler a {@link io.vertx.core.Handler} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.InvalidationBroadcaster} object.
+     */
+    public InvalidationBroadcaster handler(Handler<List<Object>> handler) {
+        handlers.add(handler);
+        return this;
+    }
+
+    /**
+     * Get a future which completes when the consumer is registered on all nodes of the cluster.
+     *
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<Void> registration() {
+        return registration.future();
+    }
+
+    /**
+     * Publish pending ids and unregister the consumer.
+     *
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<Void> close() {
+        flush();
+        return consumer.unregister();
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.longdt.vertxorm.repository;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * <p>Encode and decode the opaque cursor of keyset paging.</p>
+ * A cursor holds the values of order by columns of the last row of a slice. Each value is kept with its type,
+ * so that it is bound back as the same sql type.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public final class KeysetCursor {
+    private KeysetCursor() {
+    }
+
+    /**
+     * <p>encode.</p>
+     *
+     * @param values a {@link java.util.List} object.
+     * @return a {@link java.lang.String} object.
+     */
+    public static String encode(List<Object> values) {
+        var json = new JsonArray();
+        for (var value : values) {
+            if (value == null) {
+                json.addNull();
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                json.add("i").add(((Number) value).intValue());
+            } else if (value instanceof Long) {
+                json.add("l").add(value);
+            } else if (value instanceof Double || value instanceof Float) {
+                json.add("f").add(((Number) value).doubleValue());
+            } else if (value instanceof BigDecimal) {
+                json.add("d").add(value.toString());
+            } else if (value instanceof Boolean) {
+                json.add("b").add(value);
+            } else if (value instanceof String) {
+                json.add("s").add(value);
+            } else if (value instanceof LocalDateTime) {
+                json.add("dt").add(value.toString());
+            } else if (value instanceof LocalDate) {
+                json.add("da").add(value.toString());
+            } else if (value instanceof LocalTime) {
+                json.add("t").add(value.toString());
+            } else if (value instanceof OffsetDateTime) {
+                json.add("odt").add(value.toString());
+            } else if (value instanceof Duration) {
+                json.add("du").add(value.toString());
+            } else if (value instanceof Buffer) {
+                json.add("bin").add(((Buffer) value).getBytes());
+            } else {
+                throw new IllegalArgumentException("Unsupported cursor value type: " + value.getClass().getName());
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.toBuffer().getBytes());
+    }
+
+    /**
+     * <p>decode.</p>
+     *
+     * @param cursor a {@link java.lang.String} object.
+     * @return a {@link java.util.List} object.
+     * @throws java.lang.IllegalArgumentException if cursor is malformed.
+     */
+    public static List<Object> decode(String cursor) {
+        try {
+            var json = new JsonArray(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            var values = new ArrayList<>();
+            for (int i = 0; i < json.size(); ++i) {
+                var type = json.getValue(i);
+                if (type == null) {
+                    values.add(null);
+                } else if (!(type instanceof String) || ++i == json.size()) {
+                    throw new IllegalArgumentException("Invalid cursor: " + cursor);
+                } else {
+                    values.add(decodeValue((String) type, json, i));
+                }
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // tampered values fail with ClassCastException, DateTimeParseException, etc.
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Decode a cursor of order by columns.
+     *
+     * @param cursor a {@link java.lang.String} object.
+     * @param columnCount the number of order by columns.
+     * @return a {@link java.util.List} object of columnCount values.
+     * @throws java.lang.IllegalArgumentException if cursor is malformed or doesn't hold columnCount values.
+     */
+    public static List<Object> decode(String cursor, int columnCount) {
+        var values = decode(cursor);
+        if (values.size() != columnCount) {
+            throw new IllegalArgumentException("Cursor doesn't match order by columns");
+        }
+        return values;
+    }
+
+    private static Object decodeValue(String type, JsonArray json, int i) {
+        Object value;
+        switch (type) {
+            case "i":
+                value = json.getInteger(i);
+                break;
+            case "l":
+                value = json.getLong(i);
+                break;
+            case "f":
+                value = json.getDouble(i);
+                break;
+            case "d":
+                value = new BigDecimal(json.getString(i));
+                break;
+            case "b":
+                value = json.getBoolean(i);
+                break;
+            case "s":
+                value = json.getString(i);
+                break;
+            case "dt":
+                value = LocalDateTime.parse(json.getString(i));
+                break;
+            case "da":
+                value = LocalDate.parse(json.getString(i));
+                break;
+            case "t":
+                value = LocalTime.parse(json.getString(i));
+                break;
+            case "odt":
+                value = OffsetDateTime.parse(json.getString(i));
+                break;
+            case "du":
+                value = Duration.parse(json.getString(i));
+                break;
+            case "bin":
+                value = Buffer.buffer(json.getBinary(i));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown cursor value type: " + type);
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Missing cursor value of type: " + type);
+        }
+        return value;
+    }
+}
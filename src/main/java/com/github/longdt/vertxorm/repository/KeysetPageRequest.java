@@ -0,0 +1,75 @@
+package com.github.longdt.vertxorm.repository;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * Request a slice of keyset (seek) paging. The first slice has no cursor, next slices use
+ * {@link Slice#getNextCursor()} of the previous one.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+@DataObject
+public class KeysetPageRequest implements Shareable {
+    private final int size;
+    private final String cursor;
+
+    /**
+     * <p>Constructor for KeysetPageRequest.</p>
+     *
+     * @param size a int.
+     */
+    public KeysetPageRequest(int size) {
+        this(size, null);
+    }
+
+    /**
+     * <p>Constructor for KeysetPageRequest.</p>
+     *
+     * @param size a int.
+     * @param cursor a {@link java.lang.String} object.
+     */
+    public KeysetPageRequest(int size, String cursor) {
+        this.size = size;
+        this.cursor = cursor;
+    }
+
+    /**
+     * <p>Constructor for KeysetPageRequest.</p>
+     *
+     * @param jsonObject a {@link io.vertx.core.json.JsonObject} object.
+     */
+    public KeysetPageRequest(JsonObject jsonObject) {
+        this.size = jsonObject.getInteger("size");
+        this.cursor = jsonObject.getString("cursor");
+    }
+
+    /**
+     * <p>toJson.</p>
+     *
+     * @return a {@link io.vertx.core.json.JsonObject} object.
+     */
+    public JsonObject toJson() {
+        return new JsonObject().put("size", size).put("cursor", cursor);
+    }
+
+    /**
+     * <p>Getter for the field <code>size</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * <p>Getter for the field <code>cursor</code>.</p>
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+}
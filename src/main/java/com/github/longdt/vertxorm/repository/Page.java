@@ -22,13 +22,17 @@ public class Page<E> implements Shareable {
     private int pageSize;
     private long totalPage;
     private long totalElements;
+    private boolean totalExact;
+    private boolean last;
     private List<E> content;
 
-    Page(int currentPage, int pageSize, long totalPage, long totalElements, List<E> content) {
+    Page(int currentPage, int pageSize, long totalPage, long totalElements, boolean totalExact, boolean last, List<E> content) {
         this.currentPage = currentPage;
         this.pageSize = pageSize;
         this.totalPage = totalPage;
         this.totalElements = totalElements;
+        this.totalExact = totalExact;
+        this.last = last;
         this.content = content;
     }
 
@@ -52,11 +56,24 @@ public class Page<E> implements Shareable {
      * @param content a {@link java.util.List} object.
      */
     public Page(int currentPage, int pageSize, long totalElements, List<E> content) {
-        this.currentPage = currentPage;
-        this.pageSize = pageSize;
-        this.totalPage = (totalElements + (pageSize - 1)) / pageSize;
-        this.totalElements = totalElements;
-        this.content = content;
+        this(currentPage, pageSize, totalElements, true, currentPage * (long) pageSize >= totalElements, content);
+    }
+
+    /**
+     * <p>Constructor for Page.</p>
+     *
+     * @param pageRequest a {@link com.github.longdt.vertxorm.repository.PageRequest} object.
+     * @param totalElements a long, an estimate if totalExact is false.
+     * @param totalExact a boolean.
+     * @param last whether this is the last page.
+     * @param content a {@link java.util.List} object.
+     */
+    public Page(PageRequest pageRequest, long totalElements, boolean totalExact, boolean last, List<E> content) {
+        this(pageRequest.getIndex(), pageRequest.getSize(), totalElements, totalExact, last, content);
+    }
+
+    private Page(int currentPage, int pageSize, long totalElements, boolean totalExact, boolean last, List<E> content) {
+        this(currentPage, pageSize, (totalElements + (pageSize - 1)) / pageSize, totalElements, totalExact, last, content);
     }
 
     /**
@@ -91,7 +108,7 @@ public class Page<E> implements Shareable {
     public <R> Page<R> map(Function<E, R> mapFn) {
         List<R> result = new ArrayList<>(content.size());
         content.forEach(e -> result.add(mapFn.apply(e)));
-        return new Page<>(currentPage, pageSize, totalPage, totalElements, result);
+        return new Page<>(currentPage, pageSize, totalPage, totalElements, totalExact, last, result);
     }
 
     /**
@@ -130,6 +147,34 @@ public class Page<E> implements Shareable {
         return totalElements;
     }
 
+    /**
+     * Whether {@link #getTotalElements()} is exact. An inexact total is an estimate or a lower bound
+     * depending on {@link com.github.longdt.vertxorm.repository.CountStrategy}.
+     *
+     * @return a boolean.
+     */
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    /**
+     * <p>isLast.</p>
+     *
+     * @return a boolean.
+     */
+    public boolean isLast() {
+        return last;
+    }
+
+    /**
+     * <p>hasNext.</p>
+     *
+     * @return a boolean.
+     */
+    public boolean hasNext() {
+        return !last;
+    }
+
     /**
      * <p>Getter for the field <code>content</code>.</p>
      *
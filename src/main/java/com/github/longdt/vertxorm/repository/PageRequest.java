@@ -14,6 +14,7 @@ import io.vertx.core.shareddata.Shareable;
 public class PageRequest implements Shareable {
     private final int index;
     private final int size;
+    private final CountStrategy countStrategy;
 
     /**
      * <p>Constructor for PageRequest.</p>
@@ -22,8 +23,21 @@ public class PageRequest implements Shareable {
      * @param size a int.
      */
     public PageRequest(int index, int size) {
+        this(index, size, null);
+    }
+
+    /**
+     * <p>Constructor for PageRequest.</p>
+     *
+     * @param index a int.
+     * @param size a int.
+     * @param countStrategy a {@link com.github.longdt.vertxorm.repository.CountStrategy} object,
+     *                      null to use the count strategy of repository.
+     */
+    public PageRequest(int index, int size, CountStrategy countStrategy) {
         this.index = index;
         this.size = size;
+        this.countStrategy = countStrategy;
     }
 
     /**
@@ -34,6 +48,7 @@ public class PageRequest implements Shareable {
     public PageRequest(JsonObject jsonObject) {
         this.index = jsonObject.getInteger("index");
         this.size = jsonObject.getInteger("size");
+        this.countStrategy = null;
     }
 
     /**
@@ -71,4 +86,13 @@ public class PageRequest implements Shareable {
     public long getOffset() {
         return (index - 1) * (long) size;
     }
+
+    /**
+     * <p>Getter for the field <code>countStrategy</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.CountStrategy} object or null.
+     */
+    public CountStrategy getCountStrategy() {
+        return countStrategy;
+    }
 }
@@ -0,0 +1,46 @@
+package com.github.longdt.vertxorm.repository;
+
+/**
+ * <p>A sql statement with the number of its placeholders.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class ParameterizedSql {
+    private final String sql;
+    private final int paramCount;
+
+    /**
+     * <p>Constructor for ParameterizedSql.</p>
+     *
+     * @param sql a {@link java.lang.String} object.
+     * @param paramCount a int.
+     */
+    public ParameterizedSql(String sql, int paramCount) {
+        this.sql = sql;
+        this.paramCount = paramCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>sql</code>.</p>
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * <p>Getter for the field <code>paramCount</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getParamCount() {
+        return paramCount;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.longdt.vertxorm.repository;
+
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * <p>Write column values of an entity straight into a statement {@link Tuple}, in the order of
+ * {@link Configuration#getColumnNames()}.</p>
+ * It avoids the intermediate <code>Object[]</code> of the parameters mapper and the tuple wrappers over it. The
+ * id column value must be the same as {@link IdAccessor#id2DbValue(Object)} of the entity id.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+@FunctionalInterface
+public interface ParametersWriter<E> {
+    /**
+     * Append values of columns [from, columnCount) of entity to tuple. Insert with a generated id and update
+     * statements skip the id column by from = 1.
+     *
+     * @param entity a E object.
+     * @param tuple a {@link io.vertx.sqlclient.Tuple} object.
+     * @param from index of the first written column.
+     */
+    void write(E entity, Tuple tuple, int from);
+}
@@ -0,0 +1,299 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.repository.query.Query;
+import com.github.longdt.vertxorm.repository.query.QueryFactory;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.SqlConnection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * <p>A {@link CrudRepository} of a session which reads its own writes from replicas of a {@link ReplicaRouter}.</p>
+ * Pool-level writes capture the GTID set executed by the primary into the token of the session, and pool-level reads
+ * run on a replica which executed the token, or on the primary (see
+ * {@link ReplicaRouter#withConnection(ConsistencyToken, Function)}). Writes on a given connection are captured by
+ * {@link #refreshToken()} once their transaction is committed. If a capture fails, reads go to the primary until
+ * the next successful capture. Streams are not covered by the token. A repository is created per session, e.g. per
+ * user, and the token may be kept across requests by {@link #getToken()} and {@link #setToken(ConsistencyToken)}.
+ * Reads run within the concurrency limit of the delegate, and reads pinned to the primary use its connections, see
+ * {@link CrudRepository#withConnection(Function)}.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class ReadYourWritesCrudRepository<ID, E> extends ForwardingCrudRepository<ID, E> {
+    private final ReplicaRouter router;
+    private ConsistencyToken token;
+    private boolean primaryOnly;
+    private long captureSeq;
+    private long tokenSeq;
+
+    /**
+     * <p>Constructor for ReadYourWritesCrudRepository.</p>
+     *
+     * @param delegate a {@link com.github.longdt.vertxorm.repository.CrudRepository} object whose pool is the
+     *                 primary of router.
+     * @param router a {@link com.github.longdt.vertxorm.repository.ReplicaRouter} object.
+     */
+    public ReadYourWritesCrudRepository(CrudRepository<ID, E> delegate, ReplicaRouter router) {
+        super(delegate);
+        this.router = router;
+    }
+
+    /**
+     * Get the token of writes of the session.
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.ConsistencyToken} object, null if there is no write.
+     */
+    public synchronized ConsistencyToken getToken() {
+        return token;
+    }
+
+    /**
+     * Set the token of writes of the session, e.g. one kept by the client across requests.
+     *
+     * @param token a {@link com.github.longdt.vertxorm.repository.ConsistencyToken} object.
+     */
+    public synchronized void setToken(ConsistencyToken token) {
+        this.token = token;
+        this.tokenSeq = ++captureSeq;
+        this.primaryOnly = false;
+    }
+
+    /**
+     * Capture the writes executed by the primary so far into the token of the session.
+     *
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<ConsistencyToken> refreshToken() {
+        long seq;
+        synchronized (this) {
+            seq = ++captureSeq;
+        }
+        return router.currentToken()
+                .onComplete(ar -> {
+                    synchronized (this) {
+                        if (seq < tokenSeq) {
+                            return;
+                        }
+                        tokenSeq = seq;
+                        if (ar.succeeded()) {
+                            token = ar.result();
+                            primaryOnly = false;
+                        } else {
+                            primaryOnly = true;
+                        }
+                    }
+                });
+    }
+
+    private <T> Future<T> captured(Future<T> write) {
+        return write.compose(result -> refreshToken().otherwiseEmpty().map(result));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withReadConnection(Function<SqlConnection, Future<T>> function) {
+        ConsistencyToken token;
+        synchronized (this) {
+            if (primaryOnly) {
+                return delegate.withConnection(function);
+            }
+            token = this.token;
+        }
+        return delegate.withConcurrencyLimit(() -> router.withConnection(token, function));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withReadTransaction(Function<SqlConnection, Future<T>> function) {
+        ConsistencyToken token;
+        synchronized (this) {
+            if (primaryOnly) {
+                return delegate.withTransaction(function);
+            }
+            token = this.token;
+        }
+        return delegate.withConcurrencyLimit(() -> router.withTransaction(token, function));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<SqlConnection> getReadConnection() {
+        ConsistencyToken token;
+        synchronized (this) {
+            if (primaryOnly) {
+                return getPool().getConnection();
+            }
+            token = this.token;
+        }
+        return router.getConnection(token);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> save(E entity) {
+        return captured(delegate.save(entity));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> saveAll(Collection<E> entities) {
+        return captured(delegate.saveAll(entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> insert(E entity) {
+        return captured(delegate.insert(entity));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> insertAll(Collection<E> entities) {
+        return captured(delegate.insertAll(entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(E entity) {
+        return captured(delegate.update(entity));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<ID>> updateAll(Collection<E> entities) {
+        return captured(delegate.updateAll(entities));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<E> update(E entity, Query<E> query) {
+        return captured(delegate.update(entity, query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(E entity) {
+        return captured(delegate.updateDynamic(entity));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> updateDynamic(E entity, Query<E> query) {
+        return captured(delegate.updateDynamic(entity, query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> delete(ID id) {
+        return captured(delegate.delete(id));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(ID id) {
+        return withReadConnection(conn -> delegate.find(conn, id));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAllById(Collection<ID> ids) {
+        return withReadConnection(conn -> delegate.findAllById(conn, ids));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Map<ID, E>> findMapById(Collection<ID> ids) {
+        return withReadConnection(conn -> delegate.findMapById(conn, ids));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAll() {
+        return withReadConnection(delegate::findAll);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAll(Query<E> query) {
+        return withReadConnection(conn -> delegate.findAll(conn, query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <R> Future<List<R>> findAll(Query<E> query, List<String> columns, Function<Row, R> mapper) {
+        return withReadConnection(conn -> delegate.findAll(conn, query, columns, mapper));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <R> Future<Page<R>> findAll(Query<E> query, List<String> columns, Function<Row, R> mapper, PageRequest pageRequest) {
+        return withReadTransaction(conn -> delegate.findAll(conn, query, columns, mapper, pageRequest));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<EntityView<E>>> findAllViews(Query<E> query) {
+        return withReadConnection(conn -> delegate.findAllViews(conn, query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<EntityView<E>>> findAllViews(Query<E> query, PageRequest pageRequest) {
+        return withReadTransaction(conn -> delegate.findAllViews(conn, query, pageRequest));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Optional<E>> find(Query<E> query) {
+        return withReadConnection(conn -> delegate.find(conn, query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<E>> findAll(PageRequest pageRequest) {
+        return findAll(QueryFactory.emptyQuery(), pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<E>> findAll(Query<E> query, PageRequest pageRequest) {
+        return withReadTransaction(conn -> delegate.findAll(conn, query, pageRequest));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Slice<E>> findAll(KeysetPageRequest pageRequest) {
+        return findAll(QueryFactory.emptyQuery(), pageRequest);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Slice<E>> findAll(Query<E> query, KeysetPageRequest pageRequest) {
+        return withReadConnection(conn -> delegate.findAll(conn, query, pageRequest));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Long> count(Query<E> query) {
+        return withReadConnection(conn -> delegate.count(conn, query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(ID id) {
+        return withReadConnection(conn -> delegate.exists(conn, id));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(Query<E> query) {
+        return withReadConnection(conn -> delegate.exists(conn, query));
+    }
+}
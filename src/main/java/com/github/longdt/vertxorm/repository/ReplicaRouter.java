@@ -0,0 +1,676 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.util.LatencyWindow;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.mysqlclient.MySQLException;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <p>Route reads to replica pools of a primary pool.</p>
+ * Replicas are chosen by {@link Balancing}, and skipped while their lag measured by the last probe exceeds maxLag or
+ * the probe failed. Reads fall back to the primary when no replica is available. Lag is only measured after
+ * {@link #startProbing(Vertx, long, TimeUnit)} or {@link #probe()}, replicas are assumed available before.
+ * Reads can be hedged to cut tail latency, see {@link #enableHedging(Vertx, double, double)}. Reads given a
+ * {@link ConsistencyToken} see the writes of the token, see {@link #withConnection(ConsistencyToken, Function)}.
+ * Results read on replica connections are not cached by repositories, see {@link #isReplicaConnection(SqlConnection)}.
+ * One router is usually shared by all repositories of a database, see
+ * {@link Configuration#setReplicaRouter(ReplicaRouter)}.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class ReplicaRouter {
+    /** Constant <code>MAX_HEDGE_BURST=10</code> */
+    public static final int MAX_HEDGE_BURST = 10;
+    private static final int HEDGE_WINDOW_SIZE = 1024;
+    /** Constant <code>DEFAULT_GTID_WAIT_TIMEOUT_MILLIS=1000</code> */
+    public static final long DEFAULT_GTID_WAIT_TIMEOUT_MILLIS = 1000;
+    private static final long TOKEN = 1000;
+    private static final String GTID_EXECUTED_SQL = "SELECT @@GLOBAL.gtid_executed";
+    private static final String WAIT_FOR_GTID_SQL = "SELECT WAIT_FOR_EXECUTED_GTID_SET(?, ?)";
+    private static final Object NOT_CAUGHT_UP = new Object();
+    private static final int ER_PARSE_ERROR = 1064;
+    private static final Set<SqlConnection> REPLICA_CONNECTIONS =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private final Pool primary;
+    private final Replica[] replicas;
+    private final Balancing balancing;
+    private final long maxLagMillis;
+    private final LagProbe lagProbe;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private final LongAdder primaryReadCount = new LongAdder();
+    private final LongAdder gtidFallbackCount = new LongAdder();
+    private volatile double gtidWaitTimeoutSeconds = DEFAULT_GTID_WAIT_TIMEOUT_MILLIS / 1000.0;
+    private volatile Hedging hedging;
+    private Vertx vertx;
+    private long probeTimerId = -1;
+
+    /**
+     * <p>Constructor for ReplicaRouter.</p>
+     *
+     * @param primary a {@link io.vertx.sqlclient.Pool} object.
+     * @param replicas a {@link java.util.List} object.
+     * @param balancing a {@link com.github.longdt.vertxorm.repository.ReplicaRouter.Balancing} object.
+     * @param maxLag the max lag of replicas which serve reads.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @param lagProbe a {@link com.github.longdt.vertxorm.repository.ReplicaRouter.LagProbe} object.
+     */
+    public ReplicaRouter(Pool primary, List<Pool> replicas, Balancing balancing, long maxLag, TimeUnit unit,
+                         LagProbe lagProbe) {
+        this.primary = Objects.requireNonNull(primary);
+        this.replicas = replicas.stream().map(Replica::new).toArray(Replica[]::new);
+        this.balancing = Objects.requireNonNull(balancing);
+        this.maxLagMillis = unit.toMillis(maxLag);
+        this.lagProbe = Objects.requireNonNull(lagProbe);
+    }
+
+    /**
+     * Run function with a connection of a replica, or of the primary when no replica is available.
+     *
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public <T> Future<T> withConnection(Function<SqlConnection, Future<T>> function) {
+        var replica = select();
+        if (replica == null) {
+            primaryReadCount.increment();
+            return primary.withConnection(function);
+        }
+        var hedging = this.hedging;
+        if (hedging == null) {
+            return execute(replica, function, null);
+        }
+        return hedge(hedging, replica, function);
+    }
+
+    private <T> Future<T> execute(Replica replica, Function<SqlConnection, Future<T>> function, Hedging hedging) {
+        replica.outstanding.incrementAndGet();
+        long start = System.nanoTime();
+        return replica.pool.withConnection(conn -> function.apply(mark(conn)))
+                .onComplete(ar -> {
+                    replica.outstanding.decrementAndGet();
+                    if (hedging != null && ar.succeeded()) {
+                        hedging.latencies.record(System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private <T> Future<T> hedge(Hedging hedging, Replica replica, Function<SqlConnection, Future<T>> function) {
+        hedging.deposit();
+        long delay = hedging.latencies.get();
+        var first = execute(replica, function, hedging);
+        if (delay < 0) {
+            return first;
+        }
+        Promise<T> promise = Promise.promise();
+        var attempts = new AtomicInteger(1);
+        var failures = new AtomicInteger();
+        Handler<AsyncResult<T>> handler = ar -> {
+            if (ar.succeeded()) {
+                promise.tryComplete(ar.result());
+            } else if (failures.incrementAndGet() == attempts.get()) {
+                promise.tryFail(ar.cause());
+            }
+        };
+        long timerId = hedging.vertx.setTimer(Math.max(1, TimeUnit.NANOSECONDS.toMillis(delay)), t -> {
+            if (promise.future().isComplete() || !hedging.tryAcquire()) {
+                return;
+            }
+            attempts.incrementAndGet();
+            hedging.hedgeCount.increment();
+            var other = selectOther(replica);
+            var second = other != null ? execute(other, function, hedging) : primary.withConnection(function);
+            second.onComplete(ar -> {
+                if (ar.succeeded() && promise.tryComplete(ar.result())) {
+                    hedging.hedgeWinCount.increment();
+                } else {
+                    handler.handle(ar);
+                }
+            });
+        });
+        first.onComplete(ar -> {
+            hedging.vertx.cancelTimer(timerId);
+            handler.handle(ar);
+        });
+        return promise.future();
+    }
+
+    /**
+     * Run function in a transaction of a replica, or of the primary when no replica is available.
+     *
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public <T> Future<T> withTransaction(Function<SqlConnection, Future<T>> function) {
+        var replica = select();
+        if (replica == null) {
+            primaryReadCount.increment();
+            return primary.withTransaction(function);
+        }
+        replica.outstanding.incrementAndGet();
+        return replica.pool.withTransaction(conn -> function.apply(mark(conn)))
+                .onComplete(ar -> replica.outstanding.decrementAndGet());
+    }
+
+    /**
+     * Get a connection of a replica, or of the primary when no replica is available. Connections held by the
+     * caller are not counted as outstanding requests.
+     *
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<SqlConnection> getConnection() {
+        var replica = select();
+        if (replica == null) {
+            primaryReadCount.increment();
+            return primary.getConnection();
+        }
+        return replica.pool.getConnection().map(ReplicaRouter::mark);
+    }
+
+    /**
+     * Check whether conn is a connection of a replica given by a router. A replica may lag behind writes whose
+     * caches are already invalidated, so results read on such connections must not be cached.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @return a boolean.
+     */
+    public static boolean isReplicaConnection(SqlConnection conn) {
+        return REPLICA_CONNECTIONS.contains(conn);
+    }
+
+    private static SqlConnection mark(SqlConnection conn) {
+        REPLICA_CONNECTIONS.add(conn);
+        return conn;
+    }
+
+    Replica select() {
+        int n = replicas.length;
+        if (n == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), n);
+        Replica best = null;
+        for (int i = 0; i < n; ++i) {
+            var replica = replicas[(start + i) % n];
+            if (!replica.available) {
+                continue;
+            }
+            if (balancing == Balancing.ROUND_ROBIN) {
+                return replica;
+            }
+            if (best == null || replica.outstanding.get() < best.outstanding.get()) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Run function with a connection of a replica which executed the writes of token. The replica waits up to the
+     * gtid wait timeout for the writes, and the function runs on the primary if the replica is still behind, the
+     * wait fails, e.g. since gtid mode is off, or no replica is available.
+     *
+     * @param token a {@link com.github.longdt.vertxorm.repository.ConsistencyToken} object, null to read from any
+     *              replica.
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public <T> Future<T> withConnection(ConsistencyToken token, Function<SqlConnection, Future<T>> function) {
+        if (token == null) {
+            return withConnection(function);
+        }
+        var replica = select();
+        if (replica == null) {
+            primaryReadCount.increment();
+            return primary.withConnection(function);
+        }
+        replica.outstanding.incrementAndGet();
+        return replica.pool.withConnection(conn -> ifCaughtUp(mark(conn), token, function))
+                .onComplete(ar -> replica.outstanding.decrementAndGet())
+                .compose(result -> result != NOT_CAUGHT_UP ? Future.succeededFuture(result)
+                        : primary.withConnection(function));
+    }
+
+    /**
+     * Run function in a transaction of a replica which executed the writes of token, see
+     * {@link #withConnection(ConsistencyToken, Function)}.
+     *
+     * @param token a {@link com.github.longdt.vertxorm.repository.ConsistencyToken} object, null to read from any
+     *              replica.
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public <T> Future<T> withTransaction(ConsistencyToken token, Function<SqlConnection, Future<T>> function) {
+        if (token == null) {
+            return withTransaction(function);
+        }
+        var replica = select();
+        if (replica == null) {
+            primaryReadCount.increment();
+            return primary.withTransaction(function);
+        }
+        replica.outstanding.incrementAndGet();
+        return replica.pool.withTransaction(conn -> ifCaughtUp(mark(conn), token, function))
+                .onComplete(ar -> replica.outstanding.decrementAndGet())
+                .compose(result -> result != NOT_CAUGHT_UP ? Future.succeededFuture(result)
+                        : primary.withTransaction(function));
+    }
+
+    /**
+     * Get a connection of a replica which executed the writes of token, see
+     * {@link #withConnection(ConsistencyToken, Function)}.
+     *
+     * @param token a {@link com.github.longdt.vertxorm.repository.ConsistencyToken} object, null to read from any
+     *              replica.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<SqlConnection> getConnection(ConsistencyToken token) {
+        if (token == null) {
+            return getConnection();
+        }
+        var replica = select();
+        if (replica == null) {
+            primaryReadCount.increment();
+            return primary.getConnection();
+        }
+        return replica.pool.getConnection()
+                .map(ReplicaRouter::mark)
+                .compose(conn -> waitFor(conn, token)
+                        .onFailure(err -> conn.close())
+                        .compose(caughtUp -> caughtUp ? Future.succeededFuture(conn)
+                                : conn.close().compose(v -> primary.getConnection())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Future<T> ifCaughtUp(SqlConnection conn, ConsistencyToken token,
+                                     Function<SqlConnection, Future<T>> function) {
+        return waitFor(conn, token)
+                .compose(caughtUp -> caughtUp ? function.apply(conn) : Future.succeededFuture((T) NOT_CAUGHT_UP));
+    }
+
+    private Future<Boolean> waitFor(SqlConnection conn, ConsistencyToken token) {
+        return conn.preparedQuery(WAIT_FOR_GTID_SQL)
+                .execute(Tuple.of(token.getGtidSet(), gtidWaitTimeoutSeconds))
+                .map(rows -> {
+                    var timedOut = rows.iterator().next().getInteger(0);
+                    return timedOut != null && timedOut == 0;
+                })
+                // e.g. gtid mode is off, the gtid set is malformed or a privilege is missing
+                .otherwise(false)
+                .map(caughtUp -> {
+                    if (!caughtUp) {
+                        gtidFallbackCount.increment();
+                    }
+                    return caughtUp;
+                });
+    }
+
+    /**
+     * Get a token of all writes executed by the primary so far. Reads given the token see these writes.
+     *
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<ConsistencyToken> currentToken() {
+        return primary.query(GTID_EXECUTED_SQL).execute()
+                .map(rows -> ConsistencyToken.of(rows.iterator().next().getString(0)));
+    }
+
+    /**
+     * Set how long a replica waits for the writes of a {@link ConsistencyToken} before the read falls back to the
+     * primary.
+     *
+     * @param timeout a long.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.ReplicaRouter} object.
+     */
+    public ReplicaRouter setGtidWaitTimeout(long timeout, TimeUnit unit) {
+        this.gtidWaitTimeoutSeconds = unit.toMillis(timeout) / 1000.0;
+        return this;
+    }
+
+    /**
+     * Get the number of reads given a {@link ConsistencyToken} which fell back to the primary since the replica
+     * was behind or failed to wait for the token.
+     *
+     * @return a long.
+     */
+    public long getGtidFallbackCount() {
+        return gtidFallbackCount.sum();
+    }
+
+    private Replica selectOther(Replica replica) {
+        for (int i = 0; i < replicas.length; ++i) {
+            var other = select();
+            if (other == null || other != replica) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hedge reads of {@link #withConnection(Function)}: a read which is not answered within the percentile of
+     * recent read latencies is sent again to another replica, or to the primary if there is no other available
+     * replica, and the first successful result is taken. The slower read is ignored and releases its connection
+     * when it completes. Hedged reads are bounded by budget, the max ratio of hedged reads to reads, with a burst
+     * of {@value #MAX_HEDGE_BURST} hedges. Reads must not have side effects since they may run twice.
+     *
+     * @param vertx a {@link io.vertx.core.Vertx} object.
+     * @param percentile a double in (0, 1], e.g. 0.95.
+     * @param budget a double in (0, 1], e.g. 0.05.
+     * @return a {@link com.github.longdt.vertxorm.repository.ReplicaRouter} object.
+     */
+    public ReplicaRouter enableHedging(Vertx vertx, double percentile, double budget) {
+        if (budget <= 0 || budget > 1) {
+            throw new IllegalArgumentException("budget must be in (0, 1]");
+        }
+        this.hedging = new Hedging(vertx, new LatencyWindow(HEDGE_WINDOW_SIZE, percentile), budget);
+        return this;
+    }
+
+    /**
+     * <p>disableHedging.</p>
+     */
+    public void disableHedging() {
+        this.hedging = null;
+    }
+
+    /**
+     * Get the delay after which reads are hedged.
+     *
+     * @return delay in milliseconds, -1 if hedging is disabled or not enough reads are measured.
+     */
+    public long getHedgeDelayMillis() {
+        var hedging = this.hedging;
+        long delay = hedging != null ? hedging.latencies.get() : -1;
+        return delay < 0 ? -1 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(delay));
+    }
+
+    /**
+     * Get the number of hedged reads.
+     *
+     * @return a long.
+     */
+    public long getHedgeCount() {
+        var hedging = this.hedging;
+        return hedging != null ? hedging.hedgeCount.sum() : 0;
+    }
+
+    /**
+     * Get the number of hedged reads which answered before the reads they hedged.
+     *
+     * @return a long.
+     */
+    public long getHedgeWinCount() {
+        var hedging = this.hedging;
+        return hedging != null ? hedging.hedgeWinCount.sum() : 0;
+    }
+
+    /**
+     * Measure the lag of all replicas once.
+     *
+     * @return a {@link io.vertx.core.Future} object completed when all replicas are measured.
+     */
+    @SuppressWarnings("rawtypes")
+    public Future<Void> probe() {
+        List<Future> futures = new ArrayList<>(replicas.length);
+        for (var replica : replicas) {
+            Future<Long> future;
+            try {
+                future = lagProbe.lagMillis(replica.pool);
+            } catch (RuntimeException e) {
+                future = Future.failedFuture(e);
+            }
+            futures.add(future.onComplete(ar -> replica.update(ar.succeeded() ? ar.result() : null)));
+        }
+        return CompositeFuture.join(futures).otherwiseEmpty().mapEmpty();
+    }
+
+    /**
+     * Measure the lag of all replicas periodically. A round is skipped while the previous one is running.
+     *
+     * @param vertx a {@link io.vertx.core.Vertx} object.
+     * @param period a long.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.ReplicaRouter} object.
+     */
+    public synchronized ReplicaRouter startProbing(Vertx vertx, long period, TimeUnit unit) {
+        stopProbing();
+        this.vertx = vertx;
+        this.probeTimerId = vertx.setPeriodic(Math.max(1, unit.toMillis(period)), t -> {
+            if (probing.compareAndSet(false, true)) {
+                probe().onComplete(ar -> probing.set(false));
+            }
+        });
+        return this;
+    }
+
+    /**
+     * <p>stopProbing.</p>
+     */
+    public synchronized void stopProbing() {
+        if (probeTimerId != -1) {
+            vertx.cancelTimer(probeTimerId);
+            probeTimerId = -1;
+        }
+    }
+
+    /**
+     * <p>Getter for the field <code>primary</code>.</p>
+     *
+     * @return a {@link io.vertx.sqlclient.Pool} object.
+     */
+    public Pool getPrimary() {
+        return primary;
+    }
+
+    /**
+     * <p>getReplicaCount.</p>
+     *
+     * @return a int.
+     */
+    public int getReplicaCount() {
+        return replicas.length;
+    }
+
+    /**
+     * Get the lag of a replica measured by the last probe.
+     *
+     * @param index index of the replica in the list given to the constructor.
+     * @return lag in milliseconds, -1 if it was not measured or the last probe failed.
+     */
+    public long getLagMillis(int index) {
+        return replicas[index].lagMillis;
+    }
+
+    /**
+     * <p>isAvailable.</p>
+     *
+     * @param index index of the replica in the list given to the constructor.
+     * @return true if the replica serves reads.
+     */
+    public boolean isAvailable(int index) {
+        return replicas[index].available;
+    }
+
+    /**
+     * Get the number of reads running on a replica.
+     *
+     * @param index index of the replica in the list given to the constructor.
+     * @return a int.
+     */
+    public int getOutstanding(int index) {
+        return replicas[index].outstanding.get();
+    }
+
+    /**
+     * Get the number of reads which fell back to the primary since no replica was available.
+     *
+     * @return a long.
+     */
+    public long getPrimaryReadCount() {
+        return primaryReadCount.sum();
+    }
+
+    class Replica {
+        final Pool pool;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile long lagMillis = -1;
+        private volatile boolean available = true;
+
+        private Replica(Pool pool) {
+            this.pool = Objects.requireNonNull(pool);
+        }
+
+        private void update(Long lag) {
+            lagMillis = lag != null ? lag : -1;
+            available = lag != null && lag <= maxLagMillis;
+        }
+    }
+
+    private static class Hedging {
+        private final Vertx vertx;
+        private final LatencyWindow latencies;
+        private final long deposit;
+        private final AtomicLong tokens = new AtomicLong(MAX_HEDGE_BURST * TOKEN);
+        private final LongAdder hedgeCount = new LongAdder();
+        private final LongAdder hedgeWinCount = new LongAdder();
+
+        private Hedging(Vertx vertx, LatencyWindow latencies, double budget) {
+            this.vertx = Objects.requireNonNull(vertx);
+            this.latencies = latencies;
+            this.deposit = Math.max(1, Math.round(budget * TOKEN));
+        }
+
+        private void deposit() {
+            tokens.accumulateAndGet(deposit, (t, d) -> Math.min(t + d, MAX_HEDGE_BURST * TOKEN));
+        }
+
+        private boolean tryAcquire() {
+            long t;
+            do {
+                t = tokens.get();
+                if (t < TOKEN) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(t, t - TOKEN));
+            return true;
+        }
+    }
+
+    /**
+     * <p>How reads are balanced across available replicas.</p>
+     */
+    public enum Balancing {
+        /** Replicas are taken in turn. */
+        ROUND_ROBIN,
+        /** The replica with the fewest running reads is taken, ties are taken in turn. */
+        LEAST_OUTSTANDING
+    }
+
+    /**
+     * <p>Measure the replication lag of a replica.</p>
+     */
+    @FunctionalInterface
+    public interface LagProbe {
+        /**
+         * Measure the lag of replica, a failed future marks the replica unavailable.
+         *
+         * @param replica a {@link io.vertx.sqlclient.SqlClient} object.
+         * @return lag in milliseconds.
+         */
+        Future<Long> lagMillis(SqlClient replica);
+
+        /**
+         * Measure lag by <code>SHOW REPLICA STATUS</code>, or <code>SHOW SLAVE STATUS</code> on replicas which
+         * reject it as a syntax error (before MySQL 8.0.22). Lag has a resolution of a second, and replicas whose
+         * replication is stopped are unavailable. The probing user needs the <code>REPLICATION CLIENT</code>
+         * privilege.
+         *
+         * @return a {@link com.github.longdt.vertxorm.repository.ReplicaRouter.LagProbe} object.
+         */
+        static LagProbe replicaStatus() {
+            Set<SqlClient> legacyReplicas = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+            return replica -> {
+                if (legacyReplicas.contains(replica)) {
+                    return slaveStatus(replica);
+                }
+                return replica.query("SHOW REPLICA STATUS").execute()
+                        .compose(rows -> Future.succeededFuture(secondsBehind(rows, "Seconds_Behind_Source")), err -> {
+                            if (!(err instanceof MySQLException) || ((MySQLException) err).getErrorCode() != ER_PARSE_ERROR) {
+                                return Future.failedFuture(err);
+                            }
+                            legacyReplicas.add(replica);
+                            return slaveStatus(replica);
+                        });
+            };
+        }
+
+        /**
+         * Measure lag by the age of the latest timestamp of a heartbeat table, which the primary updates
+         * periodically (e.g. pt-heartbeat). Timestamps are expected in UTC, and lag is at least the update
+         * period of the heartbeat.
+         *
+         * @param tableName a {@link java.lang.String} object.
+         * @param columnName the timestamp column.
+         * @return a {@link com.github.longdt.vertxorm.repository.ReplicaRouter.LagProbe} object.
+         */
+        static LagProbe heartbeat(String tableName, String columnName) {
+            var sql = "SELECT TIMESTAMPDIFF(MICROSECOND, MAX(`" + columnName + "`), UTC_TIMESTAMP(6)) FROM `"
+                    + tableName + "`";
+            return replica -> replica.query(sql).execute()
+                    .map(rows -> {
+                        var lag = rows.iterator().next().getLong(0);
+                        if (lag == null) {
+                            throw new IllegalStateException("Empty heartbeat table: " + tableName);
+                        }
+                        return Math.max(0, lag / 1000);
+                    });
+        }
+
+        private static Future<Long> slaveStatus(SqlClient replica) {
+            return replica.query("SHOW SLAVE STATUS").execute()
+                    .map(rows -> secondsBehind(rows, "Seconds_Behind_Master"));
+        }
+
+        private static long secondsBehind(RowSet<Row> rows, String columnName) {
+            var it = rows.iterator();
+            if (!it.hasNext()) {
+                throw new IllegalStateException("Server is not a replica");
+            }
+            var seconds = it.next().getLong(columnName);
+            if (seconds == null) {
+                throw new IllegalStateException("Replication is not running");
+            }
+            return seconds * 1000;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.repository.query.Order;
+import com.github.longdt.vertxorm.repository.query.Query;
+import com.github.longdt.vertxorm.repository.query.QueryFactory;
+import com.github.longdt.vertxorm.util.ConsistentHashRing;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Pool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * <p>A repository of a table which is split across shards, one {@link CrudRepository} per shard.</p>
+ * Operations by id are routed to the shard owning the consistent hash of {@link IdAccessor#id2DbValue(Object)},
+ * so entities must have their ids before they are inserted. Queries are sent to all shards in parallel and their
+ * results are merged by {@link Query#orderBy()}, then offset and limit of the query are applied to the merged
+ * result. Merged queries can't be ordered by string or binary columns, since the merge couldn't follow the column
+ * collation which orders the rows of each shard. Operations which need a single connection, like transactions and
+ * pages with totals, are done on {@link #getShard(Object)} or {@link #getShards()}.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class ShardedCrudRepository<ID, E> {
+    /** Constant <code>DEFAULT_VIRTUAL_NODES=128</code> */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+    private final List<CrudRepository<ID, E>> shards;
+    private final IdAccessor<ID, E> idAccessor;
+    private final ConsistentHashRing ring;
+
+    /**
+     * Create a repository of shards whose repositories are created by repositoryFactory, one per pool.
+     *
+     * @param pools a {@link java.util.List} object.
+     * @param repositoryFactory a {@link java.util.function.Function} object.
+     * @param <ID> a ID object.
+     * @param <E> a E object.
+     * @return a {@link com.github.longdt.vertxorm.repository.ShardedCrudRepository} object.
+     */
+    public static <ID, E> ShardedCrudRepository<ID, E> create(List<Pool> pools,
+                                                             Function<Pool, ? extends CrudRepository<ID, E>> repositoryFactory) {
+        var shards = new ArrayList<CrudRepository<ID, E>>(pools.size());
+        for (var pool : pools) {
+            shards.add(repositoryFactory.apply(pool));
+        }
+        return new ShardedCrudRepository<>(shards);
+    }
+
+    /**
+     * <p>Constructor for ShardedCrudRepository.</p>
+     *
+     * @param shards repositories of shards, ordered the same way whenever the shards are loaded, since the
+     *               position of a shard decides the ids it owns. New shards are appended.
+     */
+    public ShardedCrudRepository(List<? extends CrudRepository<ID, E>> shards) {
+        this(shards, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * <p>Constructor for ShardedCrudRepository.</p>
+     *
+     * @param shards repositories of shards, see {@link #ShardedCrudRepository(List)}.
+     * @param virtualNodes the number of points of each shard on the hash ring.
+     */
+    public ShardedCrudRepository(List<? extends CrudRepository<ID, E>> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("shards must not be empty");
+        }
+        this.shards = List.copyOf(shards);
+        this.idAccessor = shards.get(0).getIdAccessor();
+        this.ring = new ConsistentHashRing(shards.size(), virtualNodes);
+    }
+
+    /**
+     * Get the repository of the shard owning id.
+     *
+     * @param id a ID object.
+     * @return a {@link com.github.longdt.vertxorm.repository.CrudRepository} object.
+     */
+    public CrudRepository<ID, E> getShard(ID id) {
+        return shards.get(shardIndex(id));
+    }
+
+    private int shardIndex(ID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Sharded entities must have their ids before they are written");
+        }
+        return ring.node(idAccessor.id2DbValue(id));
+    }
+
+    /**
+     * <p>Getter for the field <code>shards</code>.</p>
+     *
+     * @return a {@link java.util.List} object.
+     */
+    public List<CrudRepository<ID, E>> getShards() {
+        return shards;
+    }
+
+    /**
+     * <p>save.</p>
+     *
+     * @param entity a E object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<E> save(E entity) {
+        return getShard(idAccessor.getId(entity)).save(entity);
+    }
+
+    /**
+     * <p>insert.</p>
+     *
+     * @param entity a E object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<E> insert(E entity) {
+        return getShard(idAccessor.getId(entity)).insert(entity);
+    }
+
+    /**
+     * <p>update.</p>
+     *
+     * @param entity a E object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<E> update(E entity) {
+        return getShard(idAccessor.getId(entity)).update(entity);
+    }
+
+    /**
+     * <p>delete.</p>
+     *
+     * @param id a ID object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<Void> delete(ID id) {
+        return getShard(id).delete(id);
+    }
+
+    /**
+     * <p>find.</p>
+     *
+     * @param id a ID object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<Optional<E>> find(ID id) {
+        return getShard(id).find(id);
+    }
+
+    /**
+     * <p>exists.</p>
+     *
+     * @param id a ID object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public Future<Boolean> exists(ID id) {
+        return getShard(id).exists(id);
+    }
+
+    /**
+     * Find entities by ids, ordered as ids. Ids are grouped by shard and shards are queried in parallel.
+     *
+     * @param ids a {@link java.util.Collection} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    @SuppressWarnings("rawtypes")
+    public Future<List<E>> findAllById(Collection<ID> ids) {
+        var groups = new LinkedHashMap<Integer, List<ID>>();
+        for (var id : ids) {
+            groups.computeIfAbsent(shardIndex(id), k -> new ArrayList<>()).add(id);
+        }
+        List<Future> futures = new ArrayList<>(groups.size());
+        groups.forEach((shard, shardIds) -> futures.add(shards.get(shard).findMapById(shardIds)));
+        return CompositeFuture.all(futures).map(cf -> {
+            var entities = new HashMap<ID, E>();
+            for (int i = 0; i < cf.size(); ++i) {
+                entities.putAll(cf.<Map<ID, E>>resultAt(i));
+            }
+            var result = new ArrayList<E>(entities.size());
+            for (var id : ids) {
+                var entity = entities.get(id);
+                if (entity != null) {
+                    result.add(entity);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Find entities matching query on all shards. Each shard returns up to offset + limit rows, which are merged
+     * by the order of query, and entities are only mapped for rows within offset and limit.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @return a {@link io.vertx.core.Future} object, failed by an {@link java.lang.IllegalArgumentException} if
+     * query is ordered by a string or binary column.
+     */
+    @SuppressWarnings("rawtypes")
+    public Future<List<E>> findAll(Query<E> query) {
+        int limit = query.limit();
+        long offset = query.offset();
+        var shardQuery = QueryFactory.copyOf(query);
+        if (limit >= 0) {
+            shardQuery.limit((int) Math.min(Integer.MAX_VALUE, limit + Math.max(offset, 0)));
+        }
+        shardQuery.offset(-1);
+        List<Future> futures = new ArrayList<>(shards.size());
+        for (var shard : shards) {
+            futures.add(shard.findAllViews(shardQuery));
+        }
+        return CompositeFuture.all(futures)
+                .map(cf -> merge(cf.list(), shardQuery.orderBy(), limit, offset));
+    }
+
+    /**
+     * Count entities matching query, the sum of counts of all shards.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    @SuppressWarnings("rawtypes")
+    public Future<Long> count(Query<E> query) {
+        List<Future> futures = new ArrayList<>(shards.size());
+        for (var shard : shards) {
+            futures.add(shard.count(query));
+        }
+        return CompositeFuture.all(futures).map(cf -> {
+            long total = 0;
+            for (int i = 0; i < cf.size(); ++i) {
+                total += cf.<Long>resultAt(i);
+            }
+            return total;
+        });
+    }
+
+    /**
+     * <p>exists.</p>
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    @SuppressWarnings("rawtypes")
+    public Future<Boolean> exists(Query<E> query) {
+        List<Future> futures = new ArrayList<>(shards.size());
+        for (var shard : shards) {
+            futures.add(shard.exists(query));
+        }
+        return CompositeFuture.all(futures).map(cf -> {
+            for (int i = 0; i < cf.size(); ++i) {
+                if (cf.<Boolean>resultAt(i)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    private static <E> List<E> merge(List<List<EntityView<E>>> results, List<Order<E>> orders, int limit, long offset) {
+        long skip = Math.max(offset, 0);
+        long take = limit >= 0 ? limit : Long.MAX_VALUE;
+        var entities = new ArrayList<E>();
+        if (orders == null || orders.isEmpty()) {
+            for (var views : results) {
+                for (var view : views) {
+                    if (entities.size() >= take) {
+                        return entities;
+                    }
+                    if (skip > 0) {
+                        --skip;
+                    } else {
+                        entities.add(view.materialize());
+                    }
+                }
+            }
+            return entities;
+        }
+        checkOrders(results, orders);
+        var comparator = comparator(orders);
+        var positions = new int[results.size()];
+        var heads = new PriorityQueue<Integer>(Math.max(1, results.size()),
+                (a, b) -> comparator.compare(results.get(a).get(positions[a]), results.get(b).get(positions[b])));
+        for (int i = 0; i < results.size(); ++i) {
+            if (!results.get(i).isEmpty()) {
+                heads.add(i);
+            }
+        }
+        while (!heads.isEmpty() && entities.size() < take) {
+            int shard = heads.poll();
+            var views = results.get(shard);
+            var view = views.get(positions[shard]);
+            if (skip > 0) {
+                --skip;
+            } else {
+                entities.add(view.materialize());
+            }
+            if (++positions[shard] < views.size()) {
+                heads.add(shard);
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Reject orders by columns whose values MySQL orders by collation, the merge would read each shard in an order
+     * it doesn't follow.
+     */
+    private static <E> void checkOrders(List<List<EntityView<E>>> results, List<Order<E>> orders) {
+        for (var views : results) {
+            for (var view : views) {
+                for (var order : orders) {
+                    var value = view.getRow().getValue(order.getFieldName());
+                    if (value instanceof String || (value != null && !(value instanceof Comparable))) {
+                        throw new IllegalArgumentException("Can't merge shards ordered by string or binary column: "
+                                + order.getFieldName());
+                    }
+                }
+            }
+        }
+    }
+
+    private static <E> Comparator<EntityView<E>> comparator(List<Order<E>> orders) {
+        Comparator<EntityView<E>> comparator = null;
+        for (var order : orders) {
+            var column = order.getFieldName();
+            Comparator<EntityView<E>> next = (a, b) -> compareValues(a.getRow().getValue(column), b.getRow().getValue(column));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    /**
+     * Compare column values the way MySQL orders them ascending, nulls first.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if (a == null) {
+            return b == null ? 0 : -1;
+        }
+        if (b == null) {
+            return 1;
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+}
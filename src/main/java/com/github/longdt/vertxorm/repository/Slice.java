@@ -0,0 +1,96 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
+import io.vertx.core.shareddata.Shareable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * <p>A slice of keyset paging.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+@DataObject
+public class Slice<E> implements Shareable {
+    private List<E> content;
+    private String nextCursor;
+
+    /**
+     * <p>Constructor for Slice.</p>
+     *
+     * @param content a {@link java.util.List} object.
+     * @param nextCursor cursor of the next slice, null if this is the last slice.
+     */
+    public Slice(List<E> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * <p>Constructor for Slice.</p>
+     *
+     * @param jsonObject a {@link io.vertx.core.json.JsonObject} object.
+     */
+    public Slice(JsonObject jsonObject) {
+        try {
+            DatabindCodec.mapper().updateValue(this, jsonObject);
+        } catch (JsonMappingException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * <p>toJson.</p>
+     *
+     * @return a {@link io.vertx.core.json.JsonObject} object.
+     */
+    public JsonObject toJson() {
+        return JsonObject.mapFrom(this);
+    }
+
+    /**
+     * <p>map.</p>
+     *
+     * @param mapFn a {@link java.util.function.Function} object.
+     * @param <R> a R object.
+     * @return a {@link com.github.longdt.vertxorm.repository.Slice} object.
+     */
+    public <R> Slice<R> map(Function<E, R> mapFn) {
+        List<R> result = new ArrayList<>(content.size());
+        content.forEach(e -> result.add(mapFn.apply(e)));
+        return new Slice<>(result, nextCursor);
+    }
+
+    /**
+     * <p>Getter for the field <code>content</code>.</p>
+     *
+     * @return a {@link java.util.List} object.
+     */
+    public List<E> getContent() {
+        return content;
+    }
+
+    /**
+     * <p>Getter for the field <code>nextCursor</code>.</p>
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * <p>hasNext.</p>
+     *
+     * @return a boolean.
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
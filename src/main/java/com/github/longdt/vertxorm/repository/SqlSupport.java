@@ -1,5 +1,6 @@
 package com.github.longdt.vertxorm.repository;
 
+import com.github.longdt.vertxorm.repository.query.Order;
 import com.github.longdt.vertxorm.repository.query.Query;
 
 import java.util.List;
@@ -19,6 +20,14 @@ public interface SqlSupport {
      */
     String getInsertSql();
 
+    /**
+     * <p>getInsertSql.</p>
+     *
+     * @param rows number of rows in the VALUES clause.
+     * @return a {@link java.lang.String} object.
+     */
+    String getInsertSql(int rows);
+
     /**
      * <p>getAutoIdInsertSql.</p>
      *
@@ -27,11 +36,21 @@ public interface SqlSupport {
     String getAutoIdInsertSql();
 
     /**
-     * <p>getUpsertSql.</p>
+     * <p>getAutoIdInsertSql.</p>
      *
+     * @param rows number of rows in the VALUES clause.
      * @return a {@link java.lang.String} object.
      */
-    String getUpsertSql();
+    String getAutoIdInsertSql(int rows);
+
+    /**
+     * Get multi-row upsert sql which binds every column once and updates non-id columns by
+     * <code>VALUES(col)</code>.
+     *
+     * @param rows number of rows in the VALUES clause.
+     * @return a {@link java.lang.String} object.
+     */
+    String getUpsertSql(int rows);
 
     /**
      * <p>getUpdateSql.</p>
@@ -44,6 +63,15 @@ public interface SqlSupport {
 
     int getUpdateDynamicSql(StringBuilder sqlBuilder, Object[] params);
 
+    /**
+     * Get update sql which sets the columns whose params are not null. Implementations may return the same
+     * instance for the same set of non-null columns.
+     *
+     * @param params an array of {@link java.lang.Object} objects.
+     * @return a {@link com.github.longdt.vertxorm.repository.ParameterizedSql} object.
+     */
+    ParameterizedSql getUpdateDynamicSql(Object[] params);
+
     <E> int getUpdateDynamicSql(StringBuilder sqlBuilder, Object[] params, Query<E> query);
 
     /**
@@ -53,6 +81,38 @@ public interface SqlSupport {
      */
     String getQuerySql();
 
+    /**
+     * Get sql selecting all columns followed by the total of matched rows <code>COUNT(*) OVER()</code>
+     * as the last column.
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    String getQueryWithTotalSql();
+
+    /**
+     * Get sql selecting the id column only.
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    String getQueryIdsSql();
+
+    /**
+     * Get sql selecting only the given columns of the table.
+     *
+     * @param columns a {@link java.util.List} object, each one must be a column of the table.
+     * @return a {@link java.lang.String} object.
+     */
+    String getProjectionSql(List<String> columns);
+
+    /**
+     * Get sql selecting only the given columns of the table followed by the total of matched rows
+     * <code>COUNT(*) OVER()</code> as the last column.
+     *
+     * @param columns a {@link java.util.List} object, each one must be a column of the table.
+     * @return a {@link java.lang.String} object.
+     */
+    String getProjectionWithTotalSql(List<String> columns);
+
     /**
      * <p>getQueryByIdSql.</p>
      *
@@ -60,6 +120,14 @@ public interface SqlSupport {
      */
     String getQueryByIdSql();
 
+    /**
+     * Get sql selecting rows whose id is in size placeholders.
+     *
+     * @param size a int.
+     * @return a {@link java.lang.String} object.
+     */
+    String getQueryByIdsSql(int size);
+
     /**
      * <p>getQuerySql.</p>
      *
@@ -88,6 +156,16 @@ public interface SqlSupport {
      */
     <E> String getSql(String sql, Query<E> query);
 
+    /**
+     * Get the seek predicate of keyset paging which selects rows after the given values of order by columns.
+     *
+     * @param orders a {@link java.util.List} object.
+     * @param values values of order by columns of the last row.
+     * @param <E> a E object.
+     * @return a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     */
+    <E> Query<E> getKeysetQuery(List<Order<E>> orders, List<Object> values);
+
     /**
      * <p>getCountSql.</p>
      *
@@ -102,6 +180,31 @@ public interface SqlSupport {
      */
     String getExistSql();
 
+    /**
+     * Get sql counting up to <code>LIMIT ?</code> rows matching query.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param <E> a E object.
+     * @return a {@link java.lang.String} object.
+     */
+    <E> String getCappedCountSql(Query<E> query);
+
+    /**
+     * Get sql explaining the select of rows matching query.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param <E> a E object.
+     * @return a {@link java.lang.String} object.
+     */
+    <E> String getExplainSql(Query<E> query);
+
+    /**
+     * Get sql selecting the estimated number of rows of table from <code>information_schema.TABLES</code>.
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    String getTableRowsSql();
+
     /**
      * <p>getExistByIdSql.</p>
      *
@@ -1,17 +1,35 @@
 package com.github.longdt.vertxorm.repository.mysql;
 
 import com.github.longdt.vertxorm.repository.*;
+import com.github.longdt.vertxorm.repository.query.Order;
 import com.github.longdt.vertxorm.repository.query.Query;
+import com.github.longdt.vertxorm.repository.query.QueryFactory;
+import com.github.longdt.vertxorm.util.Futures;
+import com.github.longdt.vertxorm.util.LruCache;
+import com.github.longdt.vertxorm.util.MappedRowStream;
+import com.github.longdt.vertxorm.util.SQLHelper;
 import com.github.longdt.vertxorm.util.Tuples;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.mysqlclient.MySQLClient;
 import io.vertx.sqlclient.*;
 import io.vertx.sqlclient.impl.ArrayTuple;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -21,13 +39,30 @@ import java.util.stream.Collectors;
  * @author Long Dinh
  * @version $Id: $Id
  */
-public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID, E> {
+public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID, E>, Cloneable {
+    private static final int MAX_PLACEHOLDERS = 65535;
+    private static final int PACKET_HEADER_SIZE = 16;
     protected Pool pool;
     private IdAccessor<ID, E> idAccessor;
     protected Function<Row, E> rowMapper;
     protected Function<E, Object[]> parametersMapper;
+    protected ParametersWriter<E> parametersWriter;
     protected Collector<Row, ?, List<E>> collector;
+    private Function<Row, EntityView<E>> viewMapper;
+    private Collector<Row, ?, List<EntityView<E>>> viewCollector;
     protected SqlSupport sqlSupport;
+    protected int maxPacketSize;
+    protected CountStrategy countStrategy;
+    private LruCache<Object, CachedResult> countCache;
+    protected int idBatchSize;
+    private final AtomicLong tableVersion = new AtomicLong();
+    private LruCache<Object, CachedResult> queryCache;
+    private int queryCacheMaxWeight;
+    private InvalidationBroadcaster invalidationBroadcaster;
+    private ReplicaRouter replicaRouter;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private ConnectionBroker connectionBroker;
+    private ConnectionBroker.Lane lane;
 
 
     /**
@@ -41,8 +76,57 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
         this.rowMapper = Objects.requireNonNull(configuration.getRowMapper());
         this.collector = Collectors.mapping(rowMapper, Collectors.toList());
         this.parametersMapper = Objects.requireNonNull(configuration.getParametersMapper());
+        this.parametersWriter = configuration.getParametersWriter();
         this.idAccessor = Objects.requireNonNull(configuration.getIdAccessor());
-        this.sqlSupport = new SqlSupportImpl(configuration.getTableName(), configuration.getColumnNames());
+        this.sqlSupport = new SqlSupportImpl(configuration.getTableName(), configuration.getColumnNames(), configuration.getSqlCacheSize());
+        this.viewMapper = EntityView.mapper(configuration.getColumnNames(), configuration.getColumnDecoders(), rowMapper);
+        this.viewCollector = Collectors.mapping(viewMapper, Collectors.toList());
+        this.maxPacketSize = configuration.getMaxPacketSize();
+        this.countStrategy = Objects.requireNonNull(configuration.getCountStrategy());
+        this.countCache = new LruCache<>(configuration.getCountCacheSize());
+        this.idBatchSize = configuration.getIdBatchSize();
+        this.queryCache = configuration.getQueryCacheSize() > 0 ? new LruCache<>(configuration.getQueryCacheSize()) : null;
+        this.queryCacheMaxWeight = configuration.getQueryCacheMaxWeight();
+        this.replicaRouter = configuration.getReplicaRouter();
+        this.concurrencyLimiter = configuration.getConcurrencyLimiter();
+        this.connectionBroker = configuration.getConnectionBroker();
+        this.lane = configuration.getLane();
+        this.invalidationBroadcaster = configuration.getInvalidationBroadcaster();
+        if (invalidationBroadcaster != null) {
+            invalidationBroadcaster.handler(ids -> tableVersion.incrementAndGet());
+        }
+    }
+
+    /**
+     * Get a view of this repository whose operations use lane of the connection broker, e.g. for a batch job using
+     * the repository of user requests. The view shares the pool, caches and configuration of this repository, and
+     * fields of subclasses are copied shallowly.
+     *
+     * @param lane a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.Lane} object.
+     * @param <R> the type of this repository.
+     * @return a view of this repository, or this repository if it uses lane.
+     */
+    @SuppressWarnings("unchecked")
+    public <R extends AbstractCrudRepository<ID, E>> R withLane(ConnectionBroker.Lane lane) {
+        if (lane == this.lane) {
+            return (R) this;
+        }
+        try {
+            var view = (AbstractCrudRepository<ID, E>) clone();
+            view.lane = Objects.requireNonNull(lane);
+            return (R) view;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * <p>Getter for the field <code>lane</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.ConnectionBroker.Lane} object.
+     */
+    public ConnectionBroker.Lane getLane() {
+        return lane;
     }
 
     /** {@inheritDoc} */
@@ -54,51 +138,273 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
         return upsert(conn, entity);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> saveAll(SqlConnection conn, Collection<E> entities) {
+        var result = new ArrayList<>(entities);
+        var newEntities = new ArrayList<E>();
+        var params = new ArrayList<Object[]>();
+        for (E entity : result) {
+            if (idAccessor.getId(entity) == null) {
+                newEntities.add(entity);
+            } else {
+                params.add(parametersMapper.apply(entity));
+            }
+        }
+        return insertAll(conn, newEntities)
+                .compose(v -> insertBatch(conn, null, params, 0, sqlSupport::getUpsertSql, 1, 0))
+                .map(result);
+    }
+
     /** {@inheritDoc} */
     @Override
     public Future<E> insert(SqlConnection conn, E entity) {
         boolean genPk = idAccessor.getId(entity) == null;
-        var params = parametersMapper.apply(entity);
-        String sql;
+        String sql = genPk ? sqlSupport.getAutoIdInsertSql() : sqlSupport.getInsertSql();
         Tuple paramsTuple;
-        if (genPk) {
-            sql = sqlSupport.getAutoIdInsertSql();
-            paramsTuple = Tuples.shift(params, 1);
+        if (parametersWriter != null) {
+            paramsTuple = writeParams(entity, genPk ? 1 : 0, 0);
         } else {
-            sql = sqlSupport.getInsertSql();
-            paramsTuple = Tuple.wrap(params);
+            var params = parametersMapper.apply(entity);
+            paramsTuple = genPk ? Tuples.shift(params, 1) : Tuple.wrap(params);
         }
         return conn.preparedQuery(sql)
                 .execute(paramsTuple)
+                .onComplete(ar -> tableChanged(conn, !genPk ? paramsTuple.getValue(0)
+                        : ar.succeeded() ? ar.result().property(MySQLClient.LAST_INSERTED_ID) : null))
                 .map(res -> {
-                    try {
-                        if (genPk) {
-                            idAccessor.setId(entity, idAccessor.db2IdValue(res.property(MySQLClient.LAST_INSERTED_ID)));
+                    if (genPk) {
+                        setGeneratedId(entity, res.property(MySQLClient.LAST_INSERTED_ID));
+                    }
+                    return entity;
+                });
+    }
+
+    /**
+     * Write columns [from, columnCount) of entity into a tuple which has room for extra more values.
+     */
+    private Tuple writeParams(E entity, int from, int extra) {
+        var paramsTuple = new ArrayTuple(sqlSupport.getColumnNames().size() - from + extra);
+        parametersWriter.write(entity, paramsTuple, from);
+        return paramsTuple;
+    }
+
+    /**
+     * Write the values of an update statement: the columns after id, then id.
+     */
+    private Tuple writeUpdateParams(E entity, Object dbId, int extra) {
+        var paramsTuple = writeParams(entity, 1, 1 + extra);
+        paramsTuple.addValue(dbId);
+        return paramsTuple;
+    }
+
+    private void setGeneratedId(E entity, Long id) {
+        try {
+            idAccessor.setId(entity, idAccessor.db2IdValue(id));
+        } catch (Exception e) {
+            throw new RuntimeException("Can't set id value of entity: " + entity.getClass().getName(), e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> insertAll(SqlConnection conn, Collection<E> entities) {
+        var result = new ArrayList<>(entities);
+        var genPkEntities = new ArrayList<E>();
+        var genPkParams = new ArrayList<Object[]>();
+        var params = new ArrayList<Object[]>();
+        for (E entity : result) {
+            if (idAccessor.getId(entity) == null) {
+                genPkEntities.add(entity);
+                genPkParams.add(parametersMapper.apply(entity));
+            } else {
+                params.add(parametersMapper.apply(entity));
+            }
+        }
+        var idStep = genPkEntities.size() > 1 ? autoIncrementIncrement(conn) : Future.succeededFuture(1L);
+        return idStep
+                .compose(step -> insertBatch(conn, genPkEntities, genPkParams, 1, sqlSupport::getAutoIdInsertSql,
+                        step, 0))
+                .compose(v -> insertBatch(conn, null, params, 0, sqlSupport::getInsertSql, 1, 0))
+                .map(result);
+    }
+
+    /**
+     * Read the step between ids generated by a multi-row insert of the session of conn, which is greater than 1
+     * on e.g. Galera and multi-primary setups.
+     */
+    private static Future<Long> autoIncrementIncrement(SqlConnection conn) {
+        return conn.query("SELECT @@auto_increment_increment")
+                .execute()
+                .map(rows -> rows.iterator().next().getLong(0));
+    }
+
+    /**
+     * Insert rows [from, size) of paramsList by chunks, sqlFunction gives the statement for a number of rows.
+     * Columns before offset are skipped. When entities is not null the generated ids are set on them. MySQL
+     * assigns ids idStep apart to a multi-row insert whose row count is known in advance, so ids are derived
+     * from {@code LAST_INSERT_ID()} plus the row offset times idStep.
+     */
+    private Future<Void> insertBatch(SqlConnection conn, List<E> entities, List<Object[]> paramsList, int offset,
+                                     IntFunction<String> sqlFunction, long idStep, int from) {
+        if (from >= paramsList.size()) {
+            return Future.succeededFuture();
+        }
+        int end = nextBatchEnd(paramsList, offset, from);
+        int rows = end - from;
+        var paramsTuple = new ArrayTuple(rows * (sqlSupport.getColumnNames().size() - offset));
+        for (int i = from; i < end; ++i) {
+            Tuples.addAll(paramsTuple, paramsList.get(i), offset);
+        }
+        return conn.preparedQuery(sqlFunction.apply(rows))
+                .execute(paramsTuple)
+                .onComplete(ar -> {
+                    var dbIds = new ArrayList<>(rows);
+                    if (ar.succeeded()) {
+                        Long firstId = entities != null ? ar.result().property(MySQLClient.LAST_INSERTED_ID) : null;
+                        for (int i = from; i < end; ++i) {
+                            dbIds.add(firstId != null ? (Object) (firstId + (i - from) * idStep) : paramsList.get(i)[0]);
+                        }
+                    }
+                    tableChanged(conn, dbIds);
+                })
+                .compose(res -> {
+                    if (entities != null) {
+                        long firstId = res.property(MySQLClient.LAST_INSERTED_ID);
+                        for (int i = from; i < end; ++i) {
+                            setGeneratedId(entities.get(i), firstId + (i - from) * idStep);
                         }
-                        return entity;
-                    } catch (Exception e) {
-                        throw new RuntimeException("Can't set id value of entity: " + entity.getClass().getName(), e);
                     }
+                    return insertBatch(conn, entities, paramsList, offset, sqlFunction, idStep, end);
                 });
     }
 
+    /**
+     * Find the end (exclusive) of the chunk which starts at from, so that the chunk neither exceeds
+     * the placeholder limit nor the max packet size.
+     */
+    private int nextBatchEnd(List<Object[]> paramsList, int offset, int from) {
+        int rowParams = sqlSupport.getColumnNames().size() - offset;
+        int end = Math.min(paramsList.size(), from + Math.max(1, MAX_PLACEHOLDERS / rowParams));
+        long packetSize = PACKET_HEADER_SIZE;
+        for (int i = from; i < end; ++i) {
+            var params = paramsList.get(i);
+            for (int j = offset; j < params.length; ++j) {
+                packetSize += estimateSize(params[j]);
+            }
+            if (packetSize > maxPacketSize && i > from) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Estimate number of bytes of a parameter in a binary protocol execute packet.
+     */
+    private static int estimateSize(Object value) {
+        if (value == null) {
+            return 1;
+        } else if (value instanceof String) {
+            return 11 + 3 * ((String) value).length();
+        } else if (value instanceof byte[]) {
+            return 11 + ((byte[]) value).length;
+        } else if (value instanceof Buffer) {
+            return 11 + ((Buffer) value).length();
+        } else if (value instanceof BigDecimal) {
+            return 11 + ((BigDecimal) value).precision();
+        }
+        return 16;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Future<E> update(SqlConnection conn, E entity) {
-        var params = parametersMapper.apply(entity);
+        Object dbId;
+        Tuple paramsTuple;
+        if (parametersWriter != null) {
+            dbId = idAccessor.id2DbValue(idAccessor.getId(entity));
+            paramsTuple = writeUpdateParams(entity, dbId, 0);
+        } else {
+            var params = parametersMapper.apply(entity);
+            dbId = params[0];
+            paramsTuple = Tuples.rotate(params, 1);
+        }
         return conn.preparedQuery(sqlSupport.getUpdateSql())
-                .execute(Tuples.rotate(params, 1))
+                .execute(paramsTuple)
+                .onComplete(ar -> tableChanged(conn, dbId))
                 .map(rowSet -> {
                     if (rowSet.rowCount() == 1) {
                         return entity;
                     } else {
-                        throw new EntityNotFoundException("Entity with id: " + params[0] + " is not found");
+                        throw new EntityNotFoundException("Entity with id: " + dbId + " is not found");
                     }
                 });
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<ID>> updateAll(SqlConnection conn, Collection<E> entities) {
+        if (entities.isEmpty()) {
+            return Future.succeededFuture(new ArrayList<>());
+        }
+        var ids = new ArrayList<ID>(entities.size());
+        var dbIds = new ArrayList<>(entities.size());
+        var batch = new ArrayList<Tuple>(entities.size());
+        for (E entity : entities) {
+            var id = idAccessor.getId(entity);
+            if (id == null) {
+                return Future.failedFuture(new IllegalArgumentException("id field must be set"));
+            }
+            ids.add(id);
+            if (parametersWriter != null) {
+                var dbId = idAccessor.id2DbValue(id);
+                dbIds.add(dbId);
+                batch.add(writeUpdateParams(entity, dbId, 0));
+            } else {
+                var params = parametersMapper.apply(entity);
+                dbIds.add(params[0]);
+                batch.add(Tuples.rotate(params, 1));
+            }
+        }
+        return conn.preparedQuery(sqlSupport.getUpdateSql())
+                .executeBatch(batch)
+                .onComplete(ar -> tableChanged(conn, dbIds))
+                .map(rowSet -> {
+                    var notFoundIds = new ArrayList<ID>();
+                    int i = 0;
+                    for (var rs = rowSet; rs != null; rs = rs.next(), ++i) {
+                        if (rs.rowCount() != 1) {
+                            notFoundIds.add(ids.get(i));
+                        }
+                    }
+                    return notFoundIds;
+                });
+    }
+
     @Override
     public Future<E> update(SqlConnection conn, E entity, Query<E> query) {
+        if (parametersWriter != null) {
+            var entityId = idAccessor.getId(entity);
+            if (entityId == null) {
+                return Future.failedFuture(new IllegalArgumentException("id field must be set"));
+            }
+            var sqlBuilder = new StringBuilder();
+            int index = sqlSupport.getUpdateSql(sqlBuilder, query);
+            var dbId = idAccessor.id2DbValue(entityId);
+            var paramsTuple = writeUpdateParams(entity, dbId, index - sqlSupport.getColumnNames().size());
+            query.appendQueryParams(paramsTuple);
+            return conn.preparedQuery(sqlBuilder.toString())
+                    .execute(paramsTuple)
+                    .onComplete(ar -> tableChanged(conn, dbId))
+                    .map(rowSet -> {
+                        if (rowSet.rowCount() == 1) {
+                            return entity;
+                        } else {
+                            throw new EntityNotFoundException("Entity with id: " + dbId + " is not found");
+                        }
+                    });
+        }
         var params = parametersMapper.apply(entity);
         var id = params[0];
         if (id == null) {
@@ -116,6 +422,7 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
         }
         return conn.preparedQuery(sqlBuilder.toString())
                 .execute(paramsTuple)
+                .onComplete(ar -> tableChanged(conn, id))
                 .map(rowSet -> {
                     if (rowSet.rowCount() == 1) {
                         return entity;
@@ -132,20 +439,20 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
         if (id == null) {
             return Future.failedFuture(new IllegalArgumentException("id field must be set"));
         }
-        var sqlBuilder = new StringBuilder();
-        int idx = sqlSupport.getUpdateDynamicSql(sqlBuilder, params);
-        if (idx == 1) {
+        var dynamicSql = sqlSupport.getUpdateDynamicSql(params);
+        if (dynamicSql.getParamCount() == 1) {
             return Future.succeededFuture();
         }
-        idx = 0;
+        int idx = 0;
         for (int i = 1; i < params.length; ++i) {
             if (params[i] != null) {
                 params[idx++] = params[i];
             }
         }
         params[idx++] = id;
-        return conn.preparedQuery(sqlBuilder.toString())
+        return conn.preparedQuery(dynamicSql.getSql())
                 .execute(Tuples.sub(params, 0, idx))
+                .onComplete(ar -> tableChanged(conn, id))
                 .map(rowSet -> {
                     if (rowSet.rowCount() == 1) {
                         return null;
@@ -177,6 +484,7 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
         query.appendQueryParams(paramsTuple);
         return conn.preparedQuery(sqlBuilder.toString())
                 .execute(paramsTuple)
+                .onComplete(ar -> tableChanged(conn, id))
                 .map(rowSet -> {
                     if (rowSet.rowCount() == 1) {
                         return null;
@@ -187,12 +495,12 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
     }
 
     private Future<E> upsert(SqlConnection conn, E entity) {
-        var params = parametersMapper.apply(entity);
-        var upsertParams = new Object[(params.length << 1) - 1];
-        System.arraycopy(params, 1, upsertParams, 0, params.length - 1);
-        System.arraycopy(params, 0, upsertParams, params.length - 1, params.length);
-        return conn.preparedQuery(sqlSupport.getUpsertSql())
-                .execute(Tuple.wrap(upsertParams))
+        var paramsTuple = parametersWriter != null
+                ? writeParams(entity, 0, 0)
+                : Tuple.wrap(parametersMapper.apply(entity));
+        return conn.preparedQuery(sqlSupport.getUpsertSql(1))
+                .execute(paramsTuple)
+                .onComplete(ar -> tableChanged(conn, paramsTuple.getValue(0)))
                 .map(entity);
     }
 
@@ -204,8 +512,10 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
      * @return a {@link io.vertx.core.Future} object.
      */
     public Future<Void> delete(SqlConnection conn, ID id) {
+        var dbId = idAccessor.id2DbValue(id);
         return conn.preparedQuery(sqlSupport.getDeleteSql())
-                .execute(Tuple.of(idAccessor.id2DbValue(id)))
+                .execute(Tuple.of(dbId))
+                .onComplete(ar -> tableChanged(conn, dbId))
                 .map(res -> {
                     if (res.rowCount() != 1) {
                         throw new EntityNotFoundException("Entity " + id + " is not found");
@@ -223,6 +533,45 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
                 .map(this::toEntity);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Future<Map<ID, E>> findMapById(SqlConnection conn, Collection<ID> ids) {
+        return Futures.findByChunks(ids, idBatchSize, chunk -> findMapByIdChunk(conn, chunk));
+    }
+
+    /**
+     * Query a chunk of ids. The placeholders are padded to a power of two by repeating the last id, so that
+     * the number of distinct statements (and prepared statements of each connection) stays logarithmic.
+     */
+    private Future<Map<ID, E>> findMapByIdChunk(SqlConnection conn, Collection<ID> ids) {
+        int size = ids.size() == 1 ? 1 : Integer.highestOneBit(ids.size() - 1) << 1;
+        var params = Tuples.tuple(size);
+        Object dbId = null;
+        for (var id : ids) {
+            dbId = idAccessor.id2DbValue(id);
+            params.addValue(dbId);
+        }
+        for (int i = ids.size(); i < size; ++i) {
+            params.addValue(dbId);
+        }
+        return conn.preparedQuery(sqlSupport.getQueryByIdsSql(size))
+                .mapping(rowMapper)
+                .execute(params)
+                .map(rowSet -> {
+                    var result = new HashMap<ID, E>(rowSet.size() * 4 / 3 + 1);
+                    for (var entity : rowSet) {
+                        result.put(idAccessor.getId(entity), entity);
+                    }
+                    return result;
+                });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getIdBatchSize() {
+        return idBatchSize;
+    }
+
     /**
      * <p>toList.</p>
      *
@@ -259,12 +608,74 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
     public Future<List<E>> findAll(SqlConnection conn, Query<E> query) {
         String sql = sqlSupport.getSql(sqlSupport.getQuerySql(), query);
         var params = getSqlParams(query);
+        if (query.cacheTtl() > 0) {
+            return this.<List<E>>cached(conn, sql, params, query.cacheTtl(), List::size,
+                    () -> conn.preparedQuery(sql).collecting(collector).execute(params).map(this::toList))
+                    .map(ArrayList::new);
+        }
         return conn.preparedQuery(sql)
                 .collecting(collector)
                 .execute(params)
                 .map(this::toList);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Future<RowStream<E>> stream(Query<E> query, int fetchSize) {
+        if (replicaRouter != null) {
+            return CrudRepository.super.stream(query, fetchSize);
+        }
+        return withStreamConnection(() -> CrudRepository.super.stream(query, fetchSize));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<RowStream<ID>> streamIds(Query<E> query, int fetchSize) {
+        return withStreamConnection(() -> CrudRepository.super.streamIds(query, fetchSize));
+    }
+
+    /**
+     * Hold a connection of the broker while the stream of streamFactory is open, since the stream takes its
+     * connection of the pool by itself.
+     */
+    private <T> Future<RowStream<T>> withStreamConnection(Supplier<Future<RowStream<T>>> streamFactory) {
+        if (connectionBroker == null) {
+            return streamFactory.get();
+        }
+        Promise<RowStream<T>> opened = Promise.promise();
+        connectionBroker.submit(lane, () -> {
+            Promise<Void> closed = Promise.promise();
+            streamFactory.get()
+                    .<RowStream<T>>map(stream -> new MappedRowStream<>(stream, row -> row, err -> {
+                        closed.tryComplete();
+                        return Future.succeededFuture();
+                    }))
+                    .onComplete(opened)
+                    .onFailure(err -> closed.tryComplete());
+            return closed.future();
+        }).onFailure(opened::tryFail);
+        return opened.future();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<RowStream<E>> stream(SqlConnection conn, Query<E> query, int fetchSize) {
+        String sql = sqlSupport.getSql(sqlSupport.getQuerySql(), query);
+        var params = getSqlParams(query);
+        return conn.prepare(sql)
+                .map(ps -> new MappedRowStream<>(ps.createStream(fetchSize, params), rowMapper, err -> ps.close()));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<RowStream<ID>> streamIds(SqlConnection conn, Query<E> query, int fetchSize) {
+        String sql = sqlSupport.getSql(sqlSupport.getQueryIdsSql(), query);
+        var params = getSqlParams(query);
+        return conn.prepare(sql)
+                .map(ps -> new MappedRowStream<>(ps.createStream(fetchSize, params),
+                        row -> idAccessor.db2IdValue(row.getValue(0)), err -> ps.close()));
+    }
+
     /** {@inheritDoc} */
     @Override
     public Future<Optional<E>> find(SqlConnection conn, Query<E> query) {
@@ -279,8 +690,80 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
     /** {@inheritDoc} */
     @Override
     public Future<Page<E>> findAll(SqlConnection conn, Query<E> query, PageRequest pageRequest) {
-        query.limit(pageRequest.getSize()).offset(pageRequest.getOffset());
+        return findPage(conn, query, pageRequest, sqlSupport.getQuerySql(), sqlSupport.getQueryWithTotalSql(),
+                rowMapper, collector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <R> Future<List<R>> findAll(SqlConnection conn, Query<E> query, List<String> columns, Function<Row, R> mapper) {
+        String sql;
+        try {
+            sql = sqlSupport.getSql(sqlSupport.getProjectionSql(columns), query);
+        } catch (IllegalArgumentException e) {
+            return Future.failedFuture(e);
+        }
+        var params = getSqlParams(query);
+        Collector<Row, ?, List<R>> projectionCollector = Collectors.mapping(mapper, Collectors.toList());
+        if (query.cacheTtl() > 0) {
+            // results of the same sql and params differ by mapper, lambdas are equal only to themselves
+            return this.<List<R>>cached(conn, sql, params, mapper, query.cacheTtl(), List::size,
+                    () -> conn.preparedQuery(sql).collecting(projectionCollector).execute(params).map(SqlResult::value))
+                    .map(ArrayList::new);
+        }
+        return conn.preparedQuery(sql)
+                .collecting(projectionCollector)
+                .execute(params)
+                .map(SqlResult::value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<EntityView<E>>> findAllViews(SqlConnection conn, Query<E> query) {
         String sql = sqlSupport.getSql(sqlSupport.getQuerySql(), query);
+        return conn.preparedQuery(sql)
+                .collecting(viewCollector)
+                .execute(getSqlParams(query))
+                .map(SqlResult::value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Page<EntityView<E>>> findAllViews(SqlConnection conn, Query<E> query, PageRequest pageRequest) {
+        return findPage(conn, query, pageRequest, sqlSupport.getQuerySql(), sqlSupport.getQueryWithTotalSql(),
+                viewMapper, viewCollector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <R> Future<Page<R>> findAll(SqlConnection conn, Query<E> query, List<String> columns, Function<Row, R> mapper,
+                                       PageRequest pageRequest) {
+        String querySql;
+        String queryWithTotalSql;
+        try {
+            querySql = sqlSupport.getProjectionSql(columns);
+            queryWithTotalSql = sqlSupport.getProjectionWithTotalSql(columns);
+        } catch (IllegalArgumentException e) {
+            return Future.failedFuture(e);
+        }
+        return findPage(conn, query, pageRequest, querySql, queryWithTotalSql, mapper,
+                Collectors.mapping(mapper, Collectors.toList()));
+    }
+
+    /**
+     * Find a page of rows selected by querySql, or by queryWithTotalSql for the WINDOW count strategy.
+     */
+    private <R> Future<Page<R>> findPage(SqlConnection conn, Query<E> query, PageRequest pageRequest, String querySql,
+                                         String queryWithTotalSql, Function<Row, R> mapper,
+                                         Collector<Row, ?, List<R>> collector) {
+        var strategy = pageRequest.getCountStrategy() != null ? pageRequest.getCountStrategy() : countStrategy;
+        if (strategy.getType() == CountStrategy.Type.WINDOW) {
+            return findPageWithTotal(conn, query, pageRequest, queryWithTotalSql, mapper);
+        } else if (strategy.getType() != CountStrategy.Type.EXACT) {
+            return findPage(conn, query, pageRequest, strategy, querySql, collector);
+        }
+        query.limit(pageRequest.getSize()).offset(pageRequest.getOffset());
+        String sql = sqlSupport.getSql(querySql, query);
         var params = getSqlParams(query);
         return conn.preparedQuery(sql)
                 .collecting(collector)
@@ -294,10 +777,195 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
                 });
     }
 
+    /**
+     * Fetch page and total in one query. The total column is the last one so it is invisible to mapper.
+     */
+    private <R> Future<Page<R>> findPageWithTotal(SqlConnection conn, Query<E> query, PageRequest pageRequest,
+                                                  String queryWithTotalSql, Function<Row, R> mapper) {
+        query.limit(pageRequest.getSize()).offset(pageRequest.getOffset());
+        String sql = sqlSupport.getSql(queryWithTotalSql, query);
+        var params = getSqlParams(query);
+        return conn.preparedQuery(sql)
+                .execute(params)
+                .compose(rowSet -> {
+                    if (rowSet.size() == 0) {
+                        if (pageRequest.getOffset() == 0) {
+                            return Future.succeededFuture(new Page<>(pageRequest, 0, List.of()));
+                        }
+                        return count(conn, query).map(cnt -> new Page<>(pageRequest, cnt, List.<R>of()));
+                    }
+                    var content = new ArrayList<R>(rowSet.size());
+                    long total = 0;
+                    for (var row : rowSet) {
+                        if (content.isEmpty()) {
+                            total = row.getLong(row.size() - 1);
+                        }
+                        content.add(mapper.apply(row));
+                    }
+                    return Future.succeededFuture(new Page<>(pageRequest, total, content));
+                });
+    }
+
+    /**
+     * Fetch one more row than page size to know whether there is a next page, then count by strategy
+     * only if the total is unknown.
+     */
+    private <R> Future<Page<R>> findPage(SqlConnection conn, Query<E> query, PageRequest pageRequest, CountStrategy strategy,
+                                         String querySql, Collector<Row, ?, List<R>> collector) {
+        query.limit(pageRequest.getSize() + 1).offset(pageRequest.getOffset());
+        String sql = sqlSupport.getSql(querySql, query);
+        var params = getSqlParams(query);
+        return conn.preparedQuery(sql)
+                .collecting(collector)
+                .execute(params)
+                .compose(sqlResult -> {
+                    var content = sqlResult.value();
+                    boolean last = content.size() <= pageRequest.getSize();
+                    if (!last) {
+                        content.remove(content.size() - 1);
+                    } else if (!content.isEmpty() || pageRequest.getOffset() == 0) {
+                        return Future.succeededFuture(new Page<>(pageRequest, pageRequest.getOffset() + content.size(), true, true, content));
+                    }
+                    // total is at least the elements up to this page plus the first element of next page, an empty
+                    // page past the end tells nothing since the table may have fewer rows than offset
+                    long minTotal = content.isEmpty() ? 0 : pageRequest.getOffset() + content.size() + 1;
+                    switch (strategy.getType()) {
+                        case CAPPED:
+                            var cappedParams = Tuples.tuple(query.getQueryParams()).addLong(strategy.getLimit());
+                            return conn.preparedQuery(sqlSupport.getCappedCountSql(query))
+                                    .execute(cappedParams)
+                                    .map(res -> {
+                                        long cnt = res.iterator().next().getLong(0);
+                                        return new Page<>(pageRequest, Math.max(cnt, minTotal), cnt < strategy.getLimit(), last, content);
+                                    });
+                        case ESTIMATED:
+                            return estimateCount(conn, query)
+                                    .map(cnt -> new Page<>(pageRequest, Math.max(cnt, minTotal), false, last, content));
+                        case CACHED:
+                            if (SQLHelper.getTransaction(conn) != null) {
+                                return count(conn, query).map(cnt -> new Page<>(pageRequest, cnt, true, last, content));
+                            }
+                            var key = getCountCacheKey(query);
+                            long version = tableVersion.get();
+                            var cachedCount = countCache.get(key);
+                            if (cachedCount != null && cachedCount.version == version) {
+                                return Future.succeededFuture(new Page<>(pageRequest, Math.max((Long) cachedCount.value, minTotal), false, last, content));
+                            }
+                            return count(conn, query).map(cnt -> {
+                                if (!ReplicaRouter.isReplicaConnection(conn)) {
+                                    countCache.put(key, new CachedResult(version, cnt), strategy.getTtlMillis());
+                                }
+                                return new Page<>(pageRequest, cnt, true, last, content);
+                            });
+                        default:
+                            return Future.succeededFuture(new Page<>(pageRequest, minTotal, false, last, content));
+                    }
+                });
+    }
+
+    private Future<Long> estimateCount(SqlConnection conn, Query<E> query) {
+        if (!query.isConditional()) {
+            return conn.query(sqlSupport.getTableRowsSql())
+                    .execute()
+                    .map(res -> {
+                        var it = res.iterator();
+                        Long cnt = it.hasNext() ? it.next().getLong(0) : null;
+                        return cnt != null ? cnt : 0L;
+                    });
+        }
+        return conn.preparedQuery(sqlSupport.getExplainSql(query))
+                .execute(query.getQueryParams())
+                .map(res -> {
+                    var row = res.iterator().next();
+                    Long rows = row.getLong("rows");
+                    Double filtered = row.getDouble("filtered");
+                    if (rows == null) {
+                        return 0L;
+                    }
+                    return filtered != null ? (long) (rows * filtered / 100) : rows;
+                });
+    }
+
+    private Object getCountCacheKey(Query<E> query) {
+        var params = query.getQueryParams();
+        var key = new ArrayList<>(params.size() + 1);
+        key.add(sqlSupport.getQuerySql(sqlSupport.getCountSql(), query));
+        for (int i = 0; i < params.size(); ++i) {
+            key.add(params.getValue(i));
+        }
+        return key;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Slice<E>> findAll(SqlConnection conn, Query<E> query, KeysetPageRequest pageRequest) {
+        var orders = getKeysetOrders(query);
+        Query<E> seekQuery;
+        if (pageRequest.getCursor() != null) {
+            List<Object> values;
+            try {
+                values = KeysetCursor.decode(pageRequest.getCursor(), orders.size());
+            } catch (IllegalArgumentException e) {
+                return Future.failedFuture(e);
+            }
+            var keysetQuery = sqlSupport.getKeysetQuery(orders, values);
+            seekQuery = query.isConditional() ? QueryFactory.and(query, keysetQuery) : keysetQuery;
+        } else {
+            seekQuery = QueryFactory.copyOf(query);
+        }
+        seekQuery.orderBy(orders).limit(pageRequest.getSize() + 1).offset(-1);
+        String sql = sqlSupport.getSql(sqlSupport.getQuerySql(), seekQuery);
+        var params = getSqlParams(seekQuery);
+        return conn.preparedQuery(sql)
+                .execute(params)
+                .map(rowSet -> {
+                    var content = new ArrayList<E>(Math.min(rowSet.size(), pageRequest.getSize()));
+                    Row lastRow = null;
+                    for (var row : rowSet) {
+                        if (content.size() == pageRequest.getSize()) {
+                            return new Slice<>(content, KeysetCursor.encode(getKeysetValues(lastRow, orders)));
+                        }
+                        content.add(rowMapper.apply(row));
+                        lastRow = row;
+                    }
+                    return new Slice<>(content, null);
+                });
+    }
+
+    /**
+     * Get order by columns of query followed by id column as the tie-break.
+     */
+    private List<Order<E>> getKeysetOrders(Query<E> query) {
+        var idName = sqlSupport.getColumnNames().get(0);
+        var orders = new ArrayList<Order<E>>();
+        if (query.orderBy() != null) {
+            orders.addAll(query.orderBy());
+        }
+        if (orders.stream().noneMatch(o -> o.getFieldName().equals(idName))) {
+            boolean descending = !orders.isEmpty() && orders.get(orders.size() - 1).isDescending();
+            orders.add(new Order<>(idName, descending));
+        }
+        return orders;
+    }
+
+    private List<Object> getKeysetValues(Row row, List<Order<E>> orders) {
+        var values = new ArrayList<>(orders.size());
+        orders.forEach(o -> values.add(row.getValue(o.getFieldName())));
+        return values;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Future<Long> count(SqlConnection conn, Query<E> query) {
-        return conn.preparedQuery(sqlSupport.getQuerySql(sqlSupport.getCountSql(), query))
+        String sql = sqlSupport.getQuerySql(sqlSupport.getCountSql(), query);
+        if (query.cacheTtl() > 0) {
+            return cached(conn, sql, query.getQueryParams(), query.cacheTtl(), cnt -> 1, () -> doCount(conn, sql, query));
+        }
+        return doCount(conn, sql, query);
+    }
+
+    private Future<Long> doCount(SqlConnection conn, String sql, Query<E> query) {
+        return conn.preparedQuery(sql)
                 .execute(query.getQueryParams())
                 .map(res -> res.iterator().next().getLong(0));
     }
@@ -316,11 +984,140 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
         query.limit(1).offset(-1);
         String sql = sqlSupport.getSql(sqlSupport.getExistSql(), query);
         var params = getSqlParams(query);
+        if (query.cacheTtl() > 0) {
+            return cached(conn, sql, params, query.cacheTtl(), exists -> 1, () -> doExists(conn, sql, params));
+        }
+        return doExists(conn, sql, params);
+    }
+
+    private Future<Boolean> doExists(SqlConnection conn, String sql, Tuple params) {
         return conn.preparedQuery(sql)
                 .execute(params)
                 .map(res -> res.size() > 0);
     }
 
+    /**
+     * Get a query result from the query cache or load and cache it. Entries are tagged with the table version at
+     * the start of the load, so results of loads racing with a write are dropped at the next lookup. Reads on a
+     * connection in a transaction of {@link SQLHelper#withTransaction} bypass the cache, and results read on a
+     * replica connection are not cached.
+     */
+    private <T> Future<T> cached(SqlConnection conn, String sql, Tuple params, long ttlMillis, ToIntFunction<T> weigher,
+                                 Supplier<Future<T>> loader) {
+        return cached(conn, sql, params, null, ttlMillis, weigher, loader);
+    }
+
+    /**
+     * Like {@link #cached(SqlConnection, String, Tuple, long, ToIntFunction, Supplier)}, for results mapped by
+     * mapper, which is a part of the cache key.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Future<T> cached(SqlConnection conn, String sql, Tuple params, Object mapper, long ttlMillis,
+                                 ToIntFunction<T> weigher, Supplier<Future<T>> loader) {
+        // a transaction may read its own uncommitted writes, which must not be served to other connections
+        if (queryCache == null || SQLHelper.getTransaction(conn) != null) {
+            return loader.get();
+        }
+        var key = new ArrayList<>(params.size() + 2);
+        key.add(sql);
+        for (int i = 0; i < params.size(); ++i) {
+            key.add(params.getValue(i));
+        }
+        if (mapper != null) {
+            key.add(mapper);
+        }
+        long version = tableVersion.get();
+        var cachedResult = queryCache.get(key);
+        if (cachedResult != null) {
+            if (cachedResult.version == version) {
+                return Future.succeededFuture((T) cachedResult.value);
+            }
+            queryCache.remove(key);
+        }
+        // a lagging replica may return rows older than version
+        if (ReplicaRouter.isReplicaConnection(conn)) {
+            return loader.get();
+        }
+        return loader.get().onSuccess(result -> {
+            if (weigher.applyAsInt(result) <= queryCacheMaxWeight) {
+                queryCache.put(key, new CachedResult(version, result), ttlMillis);
+            }
+        });
+    }
+
+    /**
+     * Bump the table version after a write, and again when the transaction of conn completes since other
+     * connections may have cached rows which are committed before it. The changed id is broadcast to other
+     * nodes once the write is committed, and not at all if the transaction is rolled back.
+     */
+    private void tableChanged(SqlConnection conn, Object dbId) {
+        tableVersion.incrementAndGet();
+        var txn = SQLHelper.getTransaction(conn);
+        if (txn != null) {
+            txn.completion().onComplete(ar -> {
+                tableVersion.incrementAndGet();
+                if (!isRolledBack(ar)) {
+                    broadcast(dbId);
+                }
+            });
+        } else {
+            broadcast(dbId);
+        }
+    }
+
+    private void tableChanged(SqlConnection conn, Collection<?> dbIds) {
+        tableVersion.incrementAndGet();
+        var txn = SQLHelper.getTransaction(conn);
+        if (txn != null) {
+            txn.completion().onComplete(ar -> {
+                tableVersion.incrementAndGet();
+                if (!isRolledBack(ar)) {
+                    broadcast(dbIds);
+                }
+            });
+        } else {
+            broadcast(dbIds);
+        }
+    }
+
+    /**
+     * A commit which failed otherwise may still have been applied.
+     */
+    private static boolean isRolledBack(AsyncResult<Void> completion) {
+        return completion.failed() && completion.cause() instanceof TransactionRollbackException;
+    }
+
+    private void broadcast(Object dbId) {
+        if (invalidationBroadcaster != null && dbId != null) {
+            invalidationBroadcaster.invalidate(dbId);
+        }
+    }
+
+    private void broadcast(Collection<?> dbIds) {
+        if (invalidationBroadcaster != null) {
+            invalidationBroadcaster.invalidate(dbIds);
+        }
+    }
+
+    /**
+     * Get the table version which is bumped by every write through this repository.
+     *
+     * @return a long.
+     */
+    public long getTableVersion() {
+        return tableVersion.get();
+    }
+
+    private static class CachedResult {
+        private final long version;
+        private final Object value;
+
+        private CachedResult(long version, Object value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+
     /**
      * <p>getSqlParams.</p>
      *
@@ -348,4 +1145,94 @@ public abstract class AbstractCrudRepository<ID, E> implements CrudRepository<ID
     public Pool getPool() {
         return pool;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withConnection(Function<SqlConnection, Future<T>> function) {
+        return withConcurrencyLimit(() -> connectionBroker != null ? connectionBroker.withConnection(lane, function)
+                : pool.withConnection(function));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The transaction is registered by {@link SQLHelper#withTransaction(Pool, Function)}, so writes of function
+     * invalidate the query cache again once it completes.
+     */
+    @Override
+    public <T> Future<T> withTransaction(Function<SqlConnection, Future<T>> function) {
+        return withConcurrencyLimit(() -> connectionBroker != null ? connectionBroker.withTransaction(lane, function)
+                : SQLHelper.withTransaction(pool, function));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withReadConnection(Function<SqlConnection, Future<T>> function) {
+        if (replicaRouter == null) {
+            return withConnection(function);
+        }
+        return withConcurrencyLimit(() -> replicaRouter.withConnection(function));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withReadTransaction(Function<SqlConnection, Future<T>> function) {
+        if (replicaRouter == null) {
+            return withTransaction(function);
+        }
+        return withConcurrencyLimit(() -> replicaRouter.withTransaction(function));
+    }
+
+    /**
+     * Run a read of query which may fill the query cache on the primary, since results read on replicas are not
+     * cached.
+     */
+    private <T> Future<T> withCacheableReadConnection(Query<E> query, Function<SqlConnection, Future<T>> function) {
+        if (queryCache != null && query.cacheTtl() > 0) {
+            return withConnection(function);
+        }
+        return withReadConnection(function);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<E>> findAll(Query<E> query) {
+        return withCacheableReadConnection(query, conn -> findAll(conn, query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <R> Future<List<R>> findAll(Query<E> query, List<String> columns, Function<Row, R> mapper) {
+        return withCacheableReadConnection(query, conn -> findAll(conn, query, columns, mapper));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Long> count(Query<E> query) {
+        return withCacheableReadConnection(query, conn -> count(conn, query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> exists(Query<E> query) {
+        return withCacheableReadConnection(query, conn -> exists(conn, query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Future<T> withConcurrencyLimit(Supplier<Future<T>> operation) {
+        return concurrencyLimiter != null ? concurrencyLimiter.submit(operation) : operation.get();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<SqlConnection> getReadConnection() {
+        return replicaRouter != null ? replicaRouter.getConnection() : pool.getConnection();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public IdAccessor<ID, E> getIdAccessor() {
+        return idAccessor;
+    }
 }
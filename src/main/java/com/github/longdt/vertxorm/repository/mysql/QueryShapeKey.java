@@ -0,0 +1,132 @@
+package com.github.longdt.vertxorm.repository.mysql;
+
+import com.github.longdt.vertxorm.repository.query.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Cache key of sql generated from a base sql and a {@link Query}.</p>
+ * A lookup key refers to the live query, so looking up doesn't copy the query structure. A cached key holds
+ * a snapshot of the structure, since queries are mutable (e.g. limit and offset are set on paging).
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+final class QueryShapeKey {
+    private final String sql;
+    private final boolean paged;
+    private final Query<?> query;
+    private final Object[] shape;
+    private final int hash;
+
+    private QueryShapeKey(String sql, boolean paged, Query<?> query, Object[] shape, int hash) {
+        this.sql = sql;
+        this.paged = paged;
+        this.query = query;
+        this.shape = shape;
+        this.hash = hash;
+    }
+
+    /**
+     * <p>Create a lookup key.</p>
+     *
+     * @param sql   the base sql.
+     * @param query a {@link Query} which {@link Query#hasShape()}.
+     * @param paged whether order by, limit and offset are part of the key.
+     * @return a {@link QueryShapeKey} object.
+     */
+    static QueryShapeKey of(String sql, Query<?> query, boolean paged) {
+        int hash = 31 * sql.hashCode() + query.shapeHash();
+        if (paged) {
+            var orders = query.orderBy();
+            if (orders != null) {
+                for (var order : orders) {
+                    hash = 31 * hash + 2 * order.getFieldName().hashCode() + (order.isDescending() ? 1 : 0);
+                }
+            }
+            hash = 31 * hash + pagingFlags(query);
+        }
+        return new QueryShapeKey(sql, paged, query, null, hash);
+    }
+
+    private static int pagingFlags(Query<?> query) {
+        return (query.limit() >= 0 ? 2 : 0) + (query.offset() >= 0 ? 1 : 0);
+    }
+
+    /**
+     * <p>Create a cached key from this lookup key.</p>
+     *
+     * @return a {@link QueryShapeKey} object.
+     */
+    QueryShapeKey snapshot() {
+        if (shape != null) {
+            return this;
+        }
+        List<Object> tokens = new ArrayList<>();
+        query.appendShape(tokens);
+        if (paged) {
+            var orders = query.orderBy();
+            tokens.add(orders != null ? orders.size() : 0);
+            if (orders != null) {
+                for (var order : orders) {
+                    tokens.add(order.getFieldName());
+                    tokens.add(order.isDescending());
+                }
+            }
+            tokens.add(pagingFlags(query));
+        }
+        return new QueryShapeKey(sql, paged, null, tokens.toArray(), hash);
+    }
+
+    private boolean matches(Object[] shape) {
+        int pos = query.matchShape(shape, 0);
+        if (pos < 0) {
+            return false;
+        }
+        if (!paged) {
+            return pos == shape.length;
+        }
+        var orders = query.orderBy();
+        int orderCount = orders != null ? orders.size() : 0;
+        if (pos + 2 + 2 * orderCount != shape.length || (Integer) shape[pos] != orderCount) {
+            return false;
+        }
+        ++pos;
+        for (int i = 0; i < orderCount; ++i, pos += 2) {
+            var order = orders.get(i);
+            if (!order.getFieldName().equals(shape[pos]) || (Boolean) shape[pos + 1] != order.isDescending()) {
+                return false;
+            }
+        }
+        return (Integer) shape[pos] == pagingFlags(query);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QueryShapeKey)) {
+            return false;
+        }
+        var other = (QueryShapeKey) o;
+        if (hash != other.hash || paged != other.paged || !sql.equals(other.sql)) {
+            return false;
+        }
+        if (shape != null && other.shape != null) {
+            return Arrays.equals(shape, other.shape);
+        } else if (shape != null) {
+            return other.matches(shape);
+        } else if (other.shape != null) {
+            return matches(other.shape);
+        }
+        return Arrays.equals(snapshot().shape, other.snapshot().shape);
+    }
+}
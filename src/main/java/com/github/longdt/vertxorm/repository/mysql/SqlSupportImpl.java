@@ -1,8 +1,16 @@
 package com.github.longdt.vertxorm.repository.mysql;
 
+import com.github.longdt.vertxorm.repository.Configuration;
+import com.github.longdt.vertxorm.repository.ParameterizedSql;
 import com.github.longdt.vertxorm.repository.SqlSupport;
+import com.github.longdt.vertxorm.repository.query.Order;
 import com.github.longdt.vertxorm.repository.query.Query;
+import com.github.longdt.vertxorm.repository.query.RawQuery;
+import com.github.longdt.vertxorm.util.BoundedCache;
+import io.vertx.sqlclient.Tuple;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -15,18 +23,35 @@ import java.util.stream.IntStream;
  * @version $Id: $Id
  */
 public class SqlSupportImpl implements SqlSupport {
+    /** Constant <code>TOTAL_COLUMN="__total"</code> */
+    public static final String TOTAL_COLUMN = "__total";
     private final String tableName;
     private final List<String> columnNames;
     private final String insertSql;
+    private final String insertValuesSql;
+    private final String insertRowSql;
     private final String autoIdInsertSql;
-    private final String upsertSql;
+    private final String autoIdInsertValuesSql;
+    private final String autoIdInsertRowSql;
+    private final String upsertValuesSql;
+    private final String upsertUpdateSql;
     private final String updateSql;
     private final String querySql;
     private final String queryByIdSql;
+    private final String queryWithTotalSql;
+    private final String queryIdsSql;
     private final String countSql;
     private final String existSql;
     private final String existByIdSql;
+    private final String cappedCountSql;
+    private final String explainSql;
+    private final String tableRowsSql;
     private final String deleteSql;
+    private final BoundedCache<Object, ParameterizedSql> updateDynamicSqlCache;
+    private final BoundedCache<QueryShapeKey, String> querySqlCache;
+    private final BoundedCache<Integer, String> queryByIdsSqlCache;
+    private final BoundedCache<List<String>, String> projectionSqlCache;
+    private final BoundedCache<List<String>, String> projectionWithTotalSqlCache;
 
     /**
      * <p>Constructor for SqlSupportImpl.</p>
@@ -35,28 +60,53 @@ public class SqlSupportImpl implements SqlSupport {
      * @param columnNames a {@link java.util.List} object.
      */
     public SqlSupportImpl(String tableName, List<String> columnNames) {
+        this(tableName, columnNames, Configuration.DEFAULT_SQL_CACHE_SIZE);
+    }
+
+    /**
+     * <p>Constructor for SqlSupportImpl.</p>
+     *
+     * @param tableName    a {@link java.lang.String} object.
+     * @param columnNames  a {@link java.util.List} object.
+     * @param sqlCacheSize max number of cached statements of each kind.
+     */
+    public SqlSupportImpl(String tableName, List<String> columnNames, int sqlCacheSize) {
+        this.updateDynamicSqlCache = new BoundedCache<>(sqlCacheSize);
+        this.querySqlCache = new BoundedCache<>(sqlCacheSize);
+        this.queryByIdsSqlCache = new BoundedCache<>(sqlCacheSize);
+        this.projectionSqlCache = new BoundedCache<>(sqlCacheSize);
+        this.projectionWithTotalSqlCache = new BoundedCache<>(sqlCacheSize);
         this.tableName = Objects.requireNonNull(tableName);
         this.columnNames = Objects.requireNonNull(columnNames);
-        insertSql = "INSERT INTO `" + tableName + "` "
+        insertValuesSql = "INSERT INTO `" + tableName + "` "
                 + columnNames.stream().map(c -> '`' + c + '`').collect(Collectors.joining(",", "(", ")"))
-                + " VALUES "
-                + IntStream.rangeClosed(1, columnNames.size()).mapToObj(idx -> "?").collect(Collectors.joining(",", "(", ")"));
-        autoIdInsertSql = "INSERT INTO `" + tableName + "` "
+                + " VALUES ";
+        insertRowSql = IntStream.rangeClosed(1, columnNames.size()).mapToObj(idx -> "?").collect(Collectors.joining(",", "(", ")"));
+        insertSql = insertValuesSql + insertRowSql;
+        autoIdInsertValuesSql = "INSERT INTO `" + tableName + "` "
                 + columnNames.stream().skip(1).map(c -> '`' + c + '`').collect(Collectors.joining(",", "(", ")"))
-                + " VALUES "
-                + IntStream.rangeClosed(1, columnNames.size() - 1).mapToObj(idx -> "?").collect(Collectors.joining(",", "(", ")"));
-        upsertSql = insertSql
-                + " ON DUPLICATE KEY UPDATE "
-                + columnNames.stream().skip(1).map(c -> '`' + c + "` = ?").collect(Collectors.joining(", "));
+                + " VALUES ";
+        autoIdInsertRowSql = IntStream.rangeClosed(1, columnNames.size() - 1).mapToObj(idx -> "?").collect(Collectors.joining(",", "(", ")"));
+        autoIdInsertSql = autoIdInsertValuesSql + autoIdInsertRowSql;
+        upsertUpdateSql = " ON DUPLICATE KEY UPDATE "
+                + columnNames.stream().skip(1).map(c -> '`' + c + "` = VALUES(`" + c + "`)").collect(Collectors.joining(", "));
+        upsertValuesSql = insertSql + upsertUpdateSql;
         updateSql = "UPDATE `" + tableName + "` SET "
                 + columnNames.stream().skip(1).map(c -> '`' + c + "` = ?").collect(Collectors.joining(","))
                 + " WHERE `" + getIdName() + "` = ?";
         querySql = "SELECT " + columnNames.stream().map(c -> '`' + c + '`').collect(Collectors.joining(","))
                 + " FROM `" + tableName + '`';
         queryByIdSql = querySql + " WHERE `" + getIdName() + "` = ?";
+        queryWithTotalSql = "SELECT " + columnNames.stream().map(c -> '`' + c + '`').collect(Collectors.joining(","))
+                + ",COUNT(*) OVER() AS `" + TOTAL_COLUMN + "` FROM `" + tableName + '`';
+        queryIdsSql = "SELECT `" + getIdName() + "` FROM `" + tableName + '`';
         countSql = "SELECT count(*) FROM `" + tableName + "`";
         existSql = "SELECT 1 FROM `" + tableName + "`";
         existByIdSql = existSql + " WHERE `" + getIdName() + "` = ? LIMIT 1";
+        cappedCountSql = "SELECT count(*) FROM (" + existSql;
+        explainSql = "EXPLAIN " + existSql;
+        tableRowsSql = "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '"
+                + tableName + "'";
         deleteSql = "DELETE FROM `" + tableName + "` WHERE `" + getIdName() + "` = ?";
     }
 
@@ -86,6 +136,14 @@ public class SqlSupportImpl implements SqlSupport {
         return insertSql;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getInsertSql(int rows) {
+        return rows == 1 ? insertSql : getMultiRowSql(insertValuesSql, insertRowSql, rows);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -98,8 +156,35 @@ public class SqlSupportImpl implements SqlSupport {
      * {@inheritDoc}
      */
     @Override
-    public String getUpsertSql() {
-        return upsertSql;
+    public String getAutoIdInsertSql(int rows) {
+        return rows == 1 ? autoIdInsertSql : getMultiRowSql(autoIdInsertValuesSql, autoIdInsertRowSql, rows);
+    }
+
+    private static String getMultiRowSql(String valuesSql, String rowSql, int rows) {
+        return appendRows(new StringBuilder(valuesSql.length() + rows * (rowSql.length() + 1)), valuesSql, rowSql, rows)
+                .toString();
+    }
+
+    private static StringBuilder appendRows(StringBuilder sqlBuilder, String valuesSql, String rowSql, int rows) {
+        sqlBuilder.append(valuesSql).append(rowSql);
+        for (int i = 1; i < rows; ++i) {
+            sqlBuilder.append(',').append(rowSql);
+        }
+        return sqlBuilder;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getUpsertSql(int rows) {
+        if (rows == 1) {
+            return upsertValuesSql;
+        }
+        var sqlBuilder = new StringBuilder(insertValuesSql.length() + rows * (insertRowSql.length() + 1) + upsertUpdateSql.length());
+        return appendRows(sqlBuilder, insertValuesSql, insertRowSql, rows)
+                .append(upsertUpdateSql)
+                .toString();
     }
 
     /**
@@ -118,7 +203,46 @@ public class SqlSupportImpl implements SqlSupport {
 
     @Override
     public int getUpdateDynamicSql(StringBuilder sqlBuilder, Object[] params) {
-        sqlBuilder.append("UPDATE `").append(tableName).append("` SET ");
+        var dynamicSql = getUpdateDynamicSql(params);
+        sqlBuilder.append(dynamicSql.getSql());
+        return dynamicSql.getParamCount();
+    }
+
+    @Override
+    public ParameterizedSql getUpdateDynamicSql(Object[] params) {
+        var columnMask = getColumnMask(params);
+        var dynamicSql = updateDynamicSqlCache.get(columnMask);
+        if (dynamicSql == null) {
+            dynamicSql = updateDynamicSqlCache.putIfAbsent(columnMask, buildUpdateDynamicSql(params));
+        }
+        return dynamicSql;
+    }
+
+    /**
+     * Get a key of non-null non-id params: a {@link java.lang.Long} bitmask, or a {@link java.util.BitSet} when
+     * there are more than 64 columns.
+     */
+    private static Object getColumnMask(Object[] params) {
+        if (params.length <= Long.SIZE) {
+            long mask = 0;
+            for (int i = 1; i < params.length; ++i) {
+                if (params[i] != null) {
+                    mask |= 1L << i;
+                }
+            }
+            return mask;
+        }
+        var mask = new BitSet(params.length);
+        for (int i = 1; i < params.length; ++i) {
+            if (params[i] != null) {
+                mask.set(i);
+            }
+        }
+        return mask;
+    }
+
+    private ParameterizedSql buildUpdateDynamicSql(Object[] params) {
+        var sqlBuilder = new StringBuilder("UPDATE `").append(tableName).append("` SET ");
         int counter = 0;
         for (int i = 1; i < params.length; ++i) {
             if (params[i] != null) {
@@ -130,7 +254,25 @@ public class SqlSupportImpl implements SqlSupport {
             sqlBuilder.setLength(sqlBuilder.length() - 1);
         }
         sqlBuilder.append(" WHERE `").append(getIdName()).append("` = ?");
-        return counter + 1;
+        return new ParameterizedSql(sqlBuilder.toString(), counter + 1);
+    }
+
+    /**
+     * <p>Getter for the field <code>updateDynamicSqlCache</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.util.BoundedCache} object.
+     */
+    public BoundedCache<Object, ParameterizedSql> getUpdateDynamicSqlCache() {
+        return updateDynamicSqlCache;
+    }
+
+    /**
+     * Get the cache of select, count and exist sql which are generated from query structures.
+     *
+     * @return a {@link com.github.longdt.vertxorm.util.BoundedCache} object.
+     */
+    public BoundedCache<?, String> getQuerySqlCache() {
+        return querySqlCache;
     }
 
     @Override
@@ -148,6 +290,60 @@ public class SqlSupportImpl implements SqlSupport {
         return querySql;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getQueryWithTotalSql() {
+        return queryWithTotalSql;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getQueryIdsSql() {
+        return queryIdsSql;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getProjectionSql(List<String> columns) {
+        var sql = projectionSqlCache.get(columns);
+        if (sql == null) {
+            sql = projectionSqlCache.putIfAbsent(List.copyOf(columns), "SELECT " + getSelectList(columns)
+                    + " FROM `" + tableName + '`');
+        }
+        return sql;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getProjectionWithTotalSql(List<String> columns) {
+        var sql = projectionWithTotalSqlCache.get(columns);
+        if (sql == null) {
+            sql = projectionWithTotalSqlCache.putIfAbsent(List.copyOf(columns), "SELECT " + getSelectList(columns)
+                    + ",COUNT(*) OVER() AS `" + TOTAL_COLUMN + "` FROM `" + tableName + '`');
+        }
+        return sql;
+    }
+
+    private String getSelectList(List<String> columns) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("columns must not be empty");
+        }
+        for (var column : columns) {
+            if (!columnNames.contains(column)) {
+                throw new IllegalArgumentException("Unknown column: " + column);
+            }
+        }
+        return columns.stream().map(c -> '`' + c + '`').collect(Collectors.joining(","));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -156,11 +352,63 @@ public class SqlSupportImpl implements SqlSupport {
         return queryByIdSql;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getQueryByIdsSql(int size) {
+        var sql = queryByIdsSqlCache.get(size);
+        if (sql == null) {
+            var sqlBuilder = new StringBuilder(querySql.length() + getIdName().length() + 16 + 2 * size)
+                    .append(querySql)
+                    .append(" WHERE `")
+                    .append(getIdName())
+                    .append("` IN (");
+            for (int i = 0; i < size; ++i) {
+                sqlBuilder.append("?,");
+            }
+            sqlBuilder.setCharAt(sqlBuilder.length() - 1, ')');
+            sql = queryByIdsSqlCache.putIfAbsent(size, sqlBuilder.toString());
+        }
+        return sql;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> String getQuerySql(String sql, Query<E> query) {
+        if (!query.isConditional()) {
+            return sql;
+        }
+        if (!query.hasShape()) {
+            return SqlSupport.super.getQuerySql(sql, query);
+        }
+        var key = QueryShapeKey.of(sql, query, false);
+        var querySql = querySqlCache.get(key);
+        if (querySql == null) {
+            querySql = querySqlCache.putIfAbsent(key.snapshot(), SqlSupport.super.getQuerySql(sql, query));
+        }
+        return querySql;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public <E> String getSql(String sql, Query<E> query) {
+        if (!query.hasShape()) {
+            return buildSql(sql, query);
+        }
+        var key = QueryShapeKey.of(sql, query, true);
+        var querySql = querySqlCache.get(key);
+        if (querySql == null) {
+            querySql = querySqlCache.putIfAbsent(key.snapshot(), buildSql(sql, query));
+        }
+        return querySql;
+    }
+
+    private <E> String buildSql(String sql, Query<E> query) {
         StringBuilder sqlBuilder = new StringBuilder(sql);
         if (query.isConditional()) {
             sqlBuilder.append(" WHERE ");
@@ -182,6 +430,43 @@ public class SqlSupportImpl implements SqlSupport {
         return sqlBuilder.toString();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * When all columns are ordered in the same direction, a row constructor comparison
+     * <code>(`a`,`b`) &gt; (?,?)</code> is used, otherwise the comparison is expanded to
+     * <code>(`a` &gt; ?) OR (`a` = ? AND `b` &lt; ?)</code>.
+     */
+    @Override
+    public <E> Query<E> getKeysetQuery(List<Order<E>> orders, List<Object> values) {
+        var sqlBuilder = new StringBuilder();
+        boolean descending = orders.get(0).isDescending();
+        if (orders.stream().allMatch(o -> o.isDescending() == descending)) {
+            sqlBuilder.append('(');
+            orders.forEach(o -> sqlBuilder.append('`').append(o.getFieldName()).append("`,"));
+            sqlBuilder.setCharAt(sqlBuilder.length() - 1, ')');
+            sqlBuilder.append(descending ? " < (" : " > (");
+            orders.forEach(o -> sqlBuilder.append("?,"));
+            sqlBuilder.setCharAt(sqlBuilder.length() - 1, ')');
+            return new RawQuery<>(sqlBuilder.toString(), Tuple.wrap(new ArrayList<>(values)));
+        }
+        var params = new ArrayList<>();
+        for (int i = 0; i < orders.size(); ++i) {
+            if (i > 0) {
+                sqlBuilder.append(" OR ");
+            }
+            sqlBuilder.append('(');
+            for (int j = 0; j < i; ++j) {
+                sqlBuilder.append('`').append(orders.get(j).getFieldName()).append("` = ? AND ");
+                params.add(values.get(j));
+            }
+            var order = orders.get(i);
+            sqlBuilder.append('`').append(order.getFieldName()).append(order.isDescending() ? "` < ?)" : "` > ?)");
+            params.add(values.get(i));
+        }
+        return new RawQuery<>(sqlBuilder.toString(), Tuple.wrap(params));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -198,6 +483,42 @@ public class SqlSupportImpl implements SqlSupport {
         return existSql;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> String getCappedCountSql(Query<E> query) {
+        return getCachedQuerySql(cappedCountSql, query, " LIMIT ?) `t`");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <E> String getExplainSql(Query<E> query) {
+        return getCachedQuerySql(explainSql, query, "");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getTableRowsSql() {
+        return tableRowsSql;
+    }
+
+    private <E> String getCachedQuerySql(String sql, Query<E> query, String suffix) {
+        if (!query.isConditional() || !query.hasShape()) {
+            return SqlSupport.super.getQuerySql(sql, query) + suffix;
+        }
+        var key = QueryShapeKey.of(sql, query, false);
+        var querySql = querySqlCache.get(key);
+        if (querySql == null) {
+            querySql = querySqlCache.putIfAbsent(key.snapshot(), SqlSupport.super.getQuerySql(sql, query) + suffix);
+        }
+        return querySql;
+    }
+
     /**
      * {@inheritDoc}
      */
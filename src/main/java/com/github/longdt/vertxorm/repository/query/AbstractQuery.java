@@ -4,6 +4,7 @@ import com.github.longdt.vertxorm.util.Tuples;
 import io.vertx.sqlclient.Tuple;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>Abstract AbstractQuery class.</p>
@@ -15,6 +16,7 @@ public abstract class AbstractQuery<E> implements Query<E> {
     protected List<Order<E>> orders;
     protected int limit = -1;
     protected long offset = -1;
+    protected long cacheTtl;
     protected Tuple params;
 
     /**
@@ -38,6 +40,39 @@ public abstract class AbstractQuery<E> implements Query<E> {
         return params;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The shape of this class only covers its class and the number of params, so subclasses whose sql depends on
+     * other state don't have shapes unless they override this method.
+     */
+    @Override
+    public boolean hasShape() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int shapeHash() {
+        return 31 * getClass().hashCode() + params.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void appendShape(List<Object> shape) {
+        shape.add(getClass());
+        shape.add(params.size());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int matchShape(Object[] shape, int pos) {
+        if (pos + 2 <= shape.length && shape[pos] == getClass() && (Integer) shape[pos + 1] == params.size()) {
+            return pos + 2;
+        }
+        return -1;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Query<E> orderBy(List<Order<E>> orders) {
@@ -76,4 +111,17 @@ public abstract class AbstractQuery<E> implements Query<E> {
     public long offset() {
         return offset;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public Query<E> cache(long ttl, TimeUnit unit) {
+        this.cacheTtl = unit.toMillis(ttl);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long cacheTtl() {
+        return cacheTtl;
+    }
 }
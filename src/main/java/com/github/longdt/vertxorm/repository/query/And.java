@@ -3,6 +3,7 @@ package com.github.longdt.vertxorm.repository.query;
 import io.vertx.sqlclient.Tuple;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * <p>And class.</p>
@@ -51,6 +52,54 @@ public class And<E> extends AbstractQuery<E> {
         return index;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        if (getClass() != And.class) {
+            return false;
+        }
+        for (var query : childQueries) {
+            if (!query.hasShape()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int shapeHash() {
+        int hash = getClass().hashCode();
+        for (var query : childQueries) {
+            hash = 31 * hash + query.shapeHash();
+        }
+        return hash;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void appendShape(List<Object> shape) {
+        shape.add(getClass());
+        shape.add(childQueries.size());
+        childQueries.forEach(q -> q.appendShape(shape));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int matchShape(Object[] shape, int pos) {
+        if (pos + 2 > shape.length || shape[pos] != getClass() || (Integer) shape[pos + 1] != childQueries.size()) {
+            return -1;
+        }
+        pos += 2;
+        for (var query : childQueries) {
+            pos = query.matchShape(shape, pos);
+            if (pos < 0) {
+                return -1;
+            }
+        }
+        return pos;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Tuple getQueryParams() {
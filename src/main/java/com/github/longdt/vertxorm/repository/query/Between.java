@@ -27,4 +27,10 @@ public class Between<O, A extends Comparable<A>> extends SingleQuery<O> {
                 .append("` BETWEEN ? AND ?");
         return index + 2;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == Between.class;
+    }
 }
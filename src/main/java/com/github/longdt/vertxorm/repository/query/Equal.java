@@ -26,4 +26,10 @@ public class Equal<E> extends SingleQuery<E> {
                 .append("`=?");
         return index + 1;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == Equal.class;
+    }
 }
@@ -26,4 +26,10 @@ public class GreaterThan<O, A extends Comparable<A>> extends SingleQuery<O> {
                 .append("`>?");
         return index + 1;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == GreaterThan.class;
+    }
 }
@@ -25,4 +25,10 @@ public class Has<E> extends SingleQuery<E> {
                 .append("` is not null");
         return index;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == Has.class;
+    }
 }
@@ -26,4 +26,10 @@ public class ILike<E> extends SingleQuery<E> {
                 .append("` ILIKE ?");
         return index + 1;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == ILike.class;
+    }
 }
@@ -34,4 +34,10 @@ public class In<E, V> extends SingleQuery<E> {
         sqlBuilder.append(')');
         return index + params.size();
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == In.class;
+    }
 }
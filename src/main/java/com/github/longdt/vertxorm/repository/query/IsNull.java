@@ -25,4 +25,10 @@ public class IsNull<E> extends SingleQuery<E> {
                 .append("` is null");
         return index;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == IsNull.class;
+    }
 }
@@ -26,4 +26,10 @@ public class LessThanEqual<O, A extends Comparable<A>> extends SingleQuery<O> {
                 .append("`<=?");
         return index + 1;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == LessThanEqual.class;
+    }
 }
@@ -26,4 +26,10 @@ public class Like<E> extends SingleQuery<E> {
                 .append("` LIKE ?");
         return index + 1;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == Like.class;
+    }
 }
@@ -2,6 +2,8 @@ package com.github.longdt.vertxorm.repository.query;
 
 import io.vertx.sqlclient.Tuple;
 
+import java.util.List;
+
 /**
  * <p>Not class.</p>
  *
@@ -65,4 +67,32 @@ public class Not<E> extends AbstractQuery<E> {
     public boolean isConditional() {
         return negatedQuery.isConditional();
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == Not.class && negatedQuery.hasShape();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int shapeHash() {
+        return 31 * getClass().hashCode() + negatedQuery.shapeHash();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void appendShape(List<Object> shape) {
+        shape.add(getClass());
+        negatedQuery.appendShape(shape);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int matchShape(Object[] shape, int pos) {
+        if (pos >= shape.length || shape[pos] != getClass()) {
+            return -1;
+        }
+        return negatedQuery.matchShape(shape, pos + 1);
+    }
 }
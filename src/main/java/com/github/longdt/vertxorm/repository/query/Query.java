@@ -5,6 +5,7 @@ import io.vertx.sqlclient.Tuple;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>Query interface.</p>
@@ -47,6 +48,47 @@ public interface Query<E> {
         return true;
     }
 
+    /**
+     * Whether this query describes the structure of its sql (everything but bound values) by
+     * {@link #shapeHash()}, {@link #appendShape(List)} and {@link #matchShape(Object[], int)}, so that generated
+     * sql can be cached by the structure. Only the query classes of this library have shapes, subclasses and other
+     * implementations don't unless they override this method together with the shape methods.
+     *
+     * @return a boolean.
+     */
+    default boolean hasShape() {
+        return false;
+    }
+
+    /**
+     * Hash code of the sql structure, bound values are ignored. By default the shape is the identity of this query.
+     *
+     * @return a int.
+     */
+    default int shapeHash() {
+        return System.identityHashCode(this);
+    }
+
+    /**
+     * Append tokens which describe the sql structure of this query. By default the only token is this query.
+     *
+     * @param shape a {@link java.util.List} object.
+     */
+    default void appendShape(List<Object> shape) {
+        shape.add(this);
+    }
+
+    /**
+     * Match the sql structure of this query against tokens which start at pos.
+     *
+     * @param shape tokens created by {@link #appendShape(List)}.
+     * @param pos a int.
+     * @return position after the matched tokens or -1 if they don't match.
+     */
+    default int matchShape(Object[] shape, int pos) {
+        return pos < shape.length && shape[pos] == this ? pos + 1 : -1;
+    }
+
     /**
      * <p>orderBy.</p>
      *
@@ -83,6 +125,28 @@ public interface Query<E> {
      */
     List<Order<E>> orderBy();
 
+    /**
+     * Opt in to the query result cache of repository. Results of findAll, count and exists with this query are
+     * cached for ttl, or until a write through the repository. Results read in a transaction are not cached. By
+     * default queries don't support the cache and this method does nothing.
+     *
+     * @param ttl a long, 0 to opt out.
+     * @param unit a {@link java.util.concurrent.TimeUnit} object.
+     * @return a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     */
+    default Query<E> cache(long ttl, TimeUnit unit) {
+        return this;
+    }
+
+    /**
+     * <p>cacheTtl.</p>
+     *
+     * @return the result cache ttl in milliseconds, 0 if results are not cached.
+     */
+    default long cacheTtl() {
+        return 0;
+    }
+
     /**
      * <p>limit.</p>
      *
@@ -0,0 +1,87 @@
+package com.github.longdt.vertxorm.repository.query;
+
+import io.vertx.sqlclient.Tuple;
+
+import java.util.List;
+
+/**
+ * <p>A copy of a query which shares its conditions, but has its own order by, limit, offset and cache ttl. The
+ * copy is used to page a query without changing the query of the caller.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class QueryCopy<E> extends AbstractQuery<E> {
+    private final Query<E> sourceQuery;
+
+    /**
+     * <p>Constructor for QueryCopy.</p>
+     *
+     * @param sourceQuery a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     */
+    public QueryCopy(Query<E> sourceQuery) {
+        super(null);
+        this.sourceQuery = sourceQuery;
+        this.orders = sourceQuery.orderBy();
+        this.limit = sourceQuery.limit();
+        this.offset = sourceQuery.offset();
+        this.cacheTtl = sourceQuery.cacheTtl();
+    }
+
+    /**
+     * <p>Getter for the field <code>sourceQuery</code>.</p>
+     *
+     * @return a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     */
+    public Query<E> getSourceQuery() {
+        return sourceQuery;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int appendQuerySql(StringBuilder sqlBuilder, int index) {
+        return sourceQuery.appendQuerySql(sqlBuilder, index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Tuple appendQueryParams(Tuple tuple) {
+        return sourceQuery.appendQueryParams(tuple);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Tuple getQueryParams() {
+        return sourceQuery.getQueryParams();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isConditional() {
+        return sourceQuery.isConditional();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == QueryCopy.class && sourceQuery.hasShape();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int shapeHash() {
+        return sourceQuery.shapeHash();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void appendShape(List<Object> shape) {
+        sourceQuery.appendShape(shape);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int matchShape(Object[] shape, int pos) {
+        return sourceQuery.matchShape(shape, pos);
+    }
+}
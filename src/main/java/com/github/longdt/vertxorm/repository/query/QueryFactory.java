@@ -431,6 +431,17 @@ public class QueryFactory {
         return EMPTY_PARAMS;
     }
 
+    /**
+     * Creates a copy of query, whose order by, limit, offset and cache ttl can be changed without changing query.
+     *
+     * @param query a {@link com.github.longdt.vertxorm.repository.query.Query} object.
+     * @param <E> a E object.
+     * @return a {@link com.github.longdt.vertxorm.repository.query.QueryCopy} object.
+     */
+    public static <E> QueryCopy<E> copyOf(Query<E> query) {
+        return new QueryCopy<>(query);
+    }
+
     /**
      * <p>emptyQuery.</p>
      *
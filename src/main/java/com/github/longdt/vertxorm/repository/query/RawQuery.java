@@ -2,6 +2,8 @@ package com.github.longdt.vertxorm.repository.query;
 
 import io.vertx.sqlclient.Tuple;
 
+import java.util.List;
+import java.util.Objects;
 import java.util.regex.Pattern;
 
 /**
@@ -55,4 +57,33 @@ public class RawQuery<E> extends AbstractQuery<E> {
     public boolean isConditional() {
         return querySql != null;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public int shapeHash() {
+        return 31 * super.shapeHash() + Objects.hashCode(querySql);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void appendShape(List<Object> shape) {
+        super.appendShape(shape);
+        shape.add(querySql);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int matchShape(Object[] shape, int pos) {
+        pos = super.matchShape(shape, pos);
+        if (pos >= 0 && pos < shape.length && Objects.equals(querySql, shape[pos])) {
+            return pos + 1;
+        }
+        return -1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasShape() {
+        return getClass() == RawQuery.class;
+    }
 }
@@ -62,4 +62,27 @@ public abstract class SingleQuery<E> extends AbstractQuery<E> {
     public String getFieldName() {
         return fieldName;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public int shapeHash() {
+        return 31 * super.shapeHash() + fieldName.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void appendShape(List<Object> shape) {
+        super.appendShape(shape);
+        shape.add(fieldName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int matchShape(Object[] shape, int pos) {
+        pos = super.matchShape(shape, pos);
+        if (pos >= 0 && pos < shape.length && fieldName.equals(shape[pos])) {
+            return pos + 1;
+        }
+        return -1;
+    }
 }
@@ -0,0 +1,138 @@
+package com.github.longdt.vertxorm.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A thread safe Bloom filter of ids.</p>
+ * Integral numbers are hashed by value, so an id read as {@link java.lang.Integer} matches the same id read as
+ * {@link java.lang.Long}. Other values are hashed by {@link java.lang.Object#hashCode()}. Values can not be removed.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class BloomFilter {
+    private static final long MAX_BIT_SIZE = (long) Integer.MAX_VALUE * Long.SIZE;
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLong bitCount = new AtomicLong();
+
+    private BloomFilter(long bitSize, int hashCount) {
+        this.bits = new AtomicLongArray((int) ((bitSize + Long.SIZE - 1) / Long.SIZE));
+        this.bitSize = (long) bits.length() * Long.SIZE;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Create a filter sized for expectedInsertions values with a false positive probability of fpp.
+     *
+     * @param expectedInsertions the expected number of values.
+     * @param fpp the false positive probability when the filter holds expectedInsertions values.
+     * @return a {@link com.github.longdt.vertxorm.util.BloomFilter} object.
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be in (0, 1)");
+        }
+        long bitSize = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        bitSize = Math.min(Math.max(bitSize, Long.SIZE), MAX_BIT_SIZE);
+        int hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bitSize, hashCount);
+    }
+
+    /**
+     * <p>put.</p>
+     *
+     * @param value a {@link java.lang.Object} object.
+     */
+    public void put(Object value) {
+        long x = hash(value);
+        long h1 = mix(x);
+        long h2 = mix(x + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; ++i) {
+            long index = Math.floorMod(h1 + i * h2, bitSize);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+            if ((current & mask) == 0) {
+                bitCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * <p>mightContain.</p>
+     *
+     * @param value a {@link java.lang.Object} object.
+     * @return false if value was never put, true if value was probably put.
+     */
+    public boolean mightContain(Object value) {
+        long x = hash(value);
+        long h1 = mix(x);
+        long h2 = mix(x + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; ++i) {
+            long index = Math.floorMod(h1 + i * h2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the probability that {@link #mightContain(Object)} returns true for a value which was never put,
+     * estimated from the ratio of set bits.
+     *
+     * @return a double.
+     */
+    public double expectedFpp() {
+        return Math.pow((double) bitCount.get() / bitSize, hashCount);
+    }
+
+    /**
+     * <p>Getter for the field <code>bitSize</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    /**
+     * <p>Getter for the field <code>hashCount</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private static long hash(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return value.hashCode();
+    }
+
+    /**
+     * The finalizer of MurmurHash3.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.longdt.vertxorm.util;
+
+/**
+ * <p>A snapshot of Bloom filter statistics.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class BloomFilterStats {
+    private final long negativeCount;
+    private final long positiveCount;
+    private final long falsePositiveCount;
+    private final long rebuildCount;
+    private final long staleCount;
+    private final double expectedFpp;
+
+    /**
+     * <p>Constructor for BloomFilterStats.</p>
+     *
+     * @param negativeCount the number of lookups answered by the filter alone.
+     * @param positiveCount the number of lookups passed to the database.
+     * @param falsePositiveCount the number of lookups passed to the database which found nothing.
+     * @param rebuildCount the number of completed builds.
+     * @param staleCount the number of deletes since the last build.
+     * @param expectedFpp the false positive probability estimated from the filter.
+     */
+    public BloomFilterStats(long negativeCount, long positiveCount, long falsePositiveCount, long rebuildCount,
+                            long staleCount, double expectedFpp) {
+        this.negativeCount = negativeCount;
+        this.positiveCount = positiveCount;
+        this.falsePositiveCount = falsePositiveCount;
+        this.rebuildCount = rebuildCount;
+        this.staleCount = staleCount;
+        this.expectedFpp = expectedFpp;
+    }
+
+    /**
+     * <p>Getter for the field <code>negativeCount</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getNegativeCount() {
+        return negativeCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>positiveCount</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getPositiveCount() {
+        return positiveCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>falsePositiveCount</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getFalsePositiveCount() {
+        return falsePositiveCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>rebuildCount</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>staleCount</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getStaleCount() {
+        return staleCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>expectedFpp</code>.</p>
+     *
+     * @return a double.
+     */
+    public double getExpectedFpp() {
+        return expectedFpp;
+    }
+
+    /**
+     * Get the observed false positive rate, the ratio of lookups of absent ids which were passed to the database.
+     *
+     * @return a double, 0 if there is no lookup of absent ids.
+     */
+    public double observedFpp() {
+        long absentCount = negativeCount + falsePositiveCount;
+        return absentCount == 0 ? 0.0 : (double) falsePositiveCount / absentCount;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "BloomFilterStats{" +
+                "negativeCount=" + negativeCount +
+                ", positiveCount=" + positiveCount +
+                ", falsePositiveCount=" + falsePositiveCount +
+                ", rebuildCount=" + rebuildCount +
+                ", staleCount=" + staleCount +
+                ", expectedFpp=" + expectedFpp +
+                '}';
+    }
+}
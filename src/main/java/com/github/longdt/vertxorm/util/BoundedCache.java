@@ -0,0 +1,122 @@
+package com.github.longdt.vertxorm.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A concurrent cache of at most maxSize entries.</p>
+ * When the cache is full, a new entry replaces an arbitrary one, so keys seen after warm-up are still cached.
+ * It suits keys drawn from a small domain, such as generated sql statements, where a full cache is rare and
+ * tracking recency would cost more than an occasional miss.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class BoundedCache<K, V> {
+    private final ConcurrentHashMap<K, V> map;
+    private final int maxSize;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * <p>Constructor for BoundedCache.</p>
+     *
+     * @param maxSize a int.
+     */
+    public BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<>(Math.min(maxSize, 64));
+    }
+
+    /**
+     * <p>get.</p>
+     *
+     * @param key a {@link java.lang.Object} object.
+     * @return a V object or null if key is not cached.
+     */
+    public V get(Object key) {
+        V value = map.get(key);
+        if (value != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Cache value if key is absent, evicting an arbitrary entry when the cache is full.
+     *
+     * @param key a K object.
+     * @param value a V object.
+     * @return the value associated with key.
+     */
+    public V putIfAbsent(K key, V value) {
+        if (maxSize <= 0) {
+            return value;
+        }
+        if (map.size() >= maxSize && !map.containsKey(key)) {
+            var it = map.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+                evictionCount.increment();
+            }
+        }
+        V prev = map.putIfAbsent(key, value);
+        return prev != null ? prev : value;
+    }
+
+    /**
+     * <p>size.</p>
+     *
+     * @return a int.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * <p>Getter for the field <code>maxSize</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * <p>hitCount.</p>
+     *
+     * @return a long.
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * <p>missCount.</p>
+     *
+     * @return a long.
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * <p>evictionCount.</p>
+     *
+     * @return a long.
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * <p>clear.</p>
+     */
+    public void clear() {
+        map.clear();
+    }
+}
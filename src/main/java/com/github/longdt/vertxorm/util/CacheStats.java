@@ -0,0 +1,102 @@
+package com.github.longdt.vertxorm.util;
+
+/**
+ * <p>A snapshot of cache statistics.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long loadCount;
+    private final long totalLoadTime;
+
+    /**
+     * <p>Constructor for CacheStats.</p>
+     *
+     * @param hitCount a long.
+     * @param missCount a long.
+     * @param evictionCount a long.
+     * @param loadCount a long.
+     * @param totalLoadTime total load time in nanoseconds.
+     */
+    public CacheStats(long hitCount, long missCount, long evictionCount, long loadCount, long totalLoadTime) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.loadCount = loadCount;
+        this.totalLoadTime = totalLoadTime;
+    }
+
+    /**
+     * <p>Getter for the field <code>hitCount</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>missCount</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * <p>hitRate.</p>
+     *
+     * @return a double, 1 if there is no request.
+     */
+    public double hitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>evictionCount</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>loadCount</code>.</p>
+     *
+     * @return a long.
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * <p>Getter for the field <code>totalLoadTime</code>.</p>
+     *
+     * @return total load time in nanoseconds.
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * <p>averageLoadPenalty.</p>
+     *
+     * @return average load time in nanoseconds.
+     */
+    public double averageLoadPenalty() {
+        return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" + evictionCount
+                + ", loadCount=" + loadCount + ", totalLoadTime=" + totalLoadTime + '}';
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.longdt.vertxorm.util;
+
+import java.util.Arrays;
+
+/**
+ * <p>A consistent hash ring of nodes 0 to nodeCount - 1, each placed at virtualNodes points.</p>
+ * Points of a node don't depend on the number of nodes, so adding a node only moves about 1 / nodeCount of keys.
+ * Integral numbers are hashed by value, other keys by {@link java.lang.Object#hashCode()}, which should be stable
+ * across processes (e.g. {@link java.lang.String} or {@link java.util.UUID}).
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class ConsistentHashRing {
+    private final long[] points;
+    private final int[] nodes;
+    private final int nodeCount;
+
+    /**
+     * <p>Constructor for ConsistentHashRing.</p>
+     *
+     * @param nodeCount a int.
+     * @param virtualNodes the number of points of each node.
+     */
+    public ConsistentHashRing(int nodeCount, int virtualNodes) {
+        if (nodeCount <= 0 || virtualNodes <= 0) {
+            throw new IllegalArgumentException("nodeCount and virtualNodes must be positive");
+        }
+        this.nodeCount = nodeCount;
+        var ring = new long[nodeCount * virtualNodes][];
+        for (int node = 0; node < nodeCount; ++node) {
+            for (int v = 0; v < virtualNodes; ++v) {
+                ring[node * virtualNodes + v] = new long[]{mix(((long) node << 32) | v), node};
+            }
+        }
+        Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[ring.length];
+        this.nodes = new int[ring.length];
+        for (int i = 0; i < ring.length; ++i) {
+            points[i] = ring[i][0];
+            nodes[i] = (int) ring[i][1];
+        }
+    }
+
+    /**
+     * Get the node owning key, the node of the first point at or after the hash of key.
+     *
+     * @param key a {@link java.lang.Object} object.
+     * @return a int.
+     */
+    public int node(Object key) {
+        if (nodeCount == 1) {
+            return 0;
+        }
+        int i = Arrays.binarySearch(points, hash(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return nodes[i == points.length ? 0 : i];
+    }
+
+    /**
+     * <p>Getter for the field <code>nodeCount</code>.</p>
+     *
+     * @return a int.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private static long hash(Object key) {
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return mix(((Number) key).longValue());
+        }
+        return mix(key.hashCode());
+    }
+
+    /**
+     * The finalizer of MurmurHash3.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,15 +1,24 @@
 package com.github.longdt.vertxorm.util;
 
 import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * <p>Futures class.</p>
@@ -85,6 +94,38 @@ public final class Futures {
         return promise.future();
     }
 
+    /**
+     * Find values of distinct keys by chunks of up to chunkSize keys concurrently, and merge the found values.
+     *
+     * @param keys a {@link java.util.Collection} object.
+     * @param chunkSize a int.
+     * @param finder finds values of a chunk.
+     * @param <K> a K object.
+     * @param <V> a V object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    @SuppressWarnings("rawtypes")
+    public static <K, V> Future<Map<K, V>> findByChunks(Collection<K> keys, int chunkSize,
+                                                       Function<Collection<K>, Future<Map<K, V>>> finder) {
+        if (keys.isEmpty()) {
+            return Future.succeededFuture(new HashMap<>());
+        } else if (keys.size() <= chunkSize) {
+            return finder.apply(keys);
+        }
+        var chunks = Lists.partition(keys instanceof Set ? keys : new LinkedHashSet<>(keys), chunkSize);
+        List<Future> futures = new ArrayList<>(chunks.size());
+        for (var chunk : chunks) {
+            futures.add(finder.apply(chunk));
+        }
+        return CompositeFuture.all(futures).map(cf -> {
+            var result = new HashMap<K, V>();
+            for (int i = 0; i < cf.size(); ++i) {
+                result.putAll(cf.<Map<K, V>>resultAt(i));
+            }
+            return result;
+        });
+    }
+
     /**
      * <p>joinNow.</p>
      *
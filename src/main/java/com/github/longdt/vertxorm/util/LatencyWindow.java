@@ -0,0 +1,64 @@
+package com.github.longdt.vertxorm.util;
+
+import java.util.Arrays;
+
+/**
+ * <p>A percentile of the latest latencies.</p>
+ * Latencies are kept in a ring of size samples. The percentile is first estimated after size / 8 samples, then
+ * refreshed every size / 8 samples, so reading it is cheap.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class LatencyWindow {
+    private final long[] samples;
+    private final double percentile;
+    private final int refreshInterval;
+    private int count;
+    private int next;
+    private int sinceRefresh;
+    private volatile long value = -1;
+
+    /**
+     * <p>Constructor for LatencyWindow.</p>
+     *
+     * @param size the number of latest latencies which are kept.
+     * @param percentile a double in (0, 1], e.g. 0.95.
+     */
+    public LatencyWindow(int size, double percentile) {
+        if (size < 8 || percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("size must be at least 8 and percentile in (0, 1]");
+        }
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.refreshInterval = size / 8;
+    }
+
+    /**
+     * <p>record.</p>
+     *
+     * @param latency a long.
+     */
+    public synchronized void record(long latency) {
+        samples[next] = latency;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            ++count;
+        }
+        if (++sinceRefresh >= refreshInterval) {
+            sinceRefresh = 0;
+            var sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            value = sorted[Math.max(0, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    /**
+     * Get the percentile of the latest latencies.
+     *
+     * @return a long, -1 until enough latencies are recorded.
+     */
+    public long get() {
+        return value;
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.longdt.vertxorm.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>Lists class.</p>
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public final class Lists {
+    private Lists() {
+    }
+
+    /**
+     * Split elements into consecutive chunks of size elements, the last chunk may be smaller.
+     *
+     * @param elements a {@link java.util.Collection} object.
+     * @param size a int.
+     * @param <T> a T object.
+     * @return a {@link java.util.List} object.
+     */
+    public static <T> List<List<T>> partition(Collection<T> elements, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        var chunks = new ArrayList<List<T>>((elements.size() + size - 1) / size);
+        List<T> chunk = null;
+        for (var e : elements) {
+            if (chunk == null || chunk.size() == size) {
+                chunk = new ArrayList<>(Math.min(size, elements.size() - chunks.size() * size));
+                chunks.add(chunk);
+            }
+            chunk.add(e);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,222 @@
+package com.github.longdt.vertxorm.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A thread safe segmented LRU cache whose entries expire after a per entry ttl.</p>
+ * New entries enter a probationary segment and are promoted to a protected segment (80% of the capacity) on their
+ * second hit, so a scan of one-hit entries only flushes the probationary segment. Entries are partitioned into
+ * independently locked shards by key hash.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class LruCache<K, V> {
+    private static final int MAX_SHARDS = 16;
+    private static final int MIN_SHARD_CAPACITY = 64;
+    private final List<Shard<K, V>> shards;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * <p>Constructor for LruCache.</p>
+     *
+     * @param maxSize the max number of entries, nothing is cached if it isn't positive.
+     */
+    public LruCache(int maxSize) {
+        int shardCount = 1;
+        while (shardCount < MAX_SHARDS && maxSize / (shardCount * 2) >= MIN_SHARD_CAPACITY) {
+            shardCount *= 2;
+        }
+        shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; ++i) {
+            shards.add(new Shard<>(Math.max(0, (maxSize + shardCount - 1) / shardCount)));
+        }
+    }
+
+    private Shard<K, V> shard(Object key) {
+        int h = key.hashCode();
+        return shards.get((h ^ (h >>> 16)) & (shards.size() - 1));
+    }
+
+    /**
+     * <p>get.</p>
+     *
+     * @param key a {@link java.lang.Object} object.
+     * @return a V object or null if key is not cached or expired.
+     */
+    public V get(Object key) {
+        V value = shard(key).get(key);
+        if (value != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * <p>put.</p>
+     *
+     * @param key a K object.
+     * @param value a V object.
+     * @param ttlMillis time to live of the entry.
+     */
+    public void put(K key, V value, long ttlMillis) {
+        evictionCount.add(shard(key).put(key, new Entry<>(value, System.nanoTime() + ttlMillis * 1_000_000)));
+    }
+
+    /**
+     * <p>remove.</p>
+     *
+     * @param key a {@link java.lang.Object} object.
+     */
+    public void remove(Object key) {
+        shard(key).remove(key);
+    }
+
+    /**
+     * <p>size.</p>
+     *
+     * @return a int.
+     */
+    public int size() {
+        int size = 0;
+        for (var shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * <p>hitCount.</p>
+     *
+     * @return a long.
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * <p>missCount.</p>
+     *
+     * @return a long.
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Get the number of entries evicted by the size limit.
+     *
+     * @return a long.
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * <p>clear.</p>
+     */
+    public void clear() {
+        for (var shard : shards) {
+            shard.clear();
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private static class Shard<K, V> {
+        private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final int protectedCapacity;
+
+        private Shard(int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = capacity * 4 / 5;
+        }
+
+        private synchronized V get(Object key) {
+            var entry = protectedSegment.get(key);
+            if (entry != null) {
+                if (entry.expireAt - System.nanoTime() <= 0) {
+                    protectedSegment.remove(key);
+                    return null;
+                }
+                return entry.value;
+            }
+            entry = probation.remove(key);
+            if (entry == null || entry.expireAt - System.nanoTime() <= 0) {
+                return null;
+            }
+            promote(key, entry);
+            return entry.value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void promote(Object key, Entry<V> entry) {
+            if (protectedCapacity == 0) {
+                probation.put((K) key, entry);
+                return;
+            }
+            protectedSegment.put((K) key, entry);
+            if (protectedSegment.size() > protectedCapacity) {
+                var it = protectedSegment.entrySet().iterator();
+                var eldest = it.next();
+                it.remove();
+                probation.put(eldest.getKey(), eldest.getValue());
+            }
+        }
+
+        /**
+         * @return the number of evicted entries.
+         */
+        private synchronized int put(K key, Entry<V> entry) {
+            if (capacity == 0) {
+                return 0;
+            }
+            if (protectedSegment.containsKey(key)) {
+                protectedSegment.put(key, entry);
+                return 0;
+            }
+            probation.put(key, entry);
+            int evicted = 0;
+            while (probation.size() + protectedSegment.size() > capacity) {
+                var segment = probation.isEmpty() ? protectedSegment : probation;
+                var it = segment.entrySet().iterator();
+                it.next();
+                it.remove();
+                ++evicted;
+            }
+            return evicted;
+        }
+
+        private synchronized void remove(Object key) {
+            if (protectedSegment.remove(key) == null) {
+                probation.remove(key);
+            }
+        }
+
+        private synchronized void clear() {
+            probation.clear();
+            protectedSegment.clear();
+        }
+
+        private synchronized int size() {
+            return probation.size() + protectedSegment.size();
+        }
+    }
+}
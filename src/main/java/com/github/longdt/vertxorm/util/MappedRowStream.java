@@ -0,0 +1,148 @@
+package com.github.longdt.vertxorm.util;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.sqlclient.RowStream;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+
+/**
+ * <p>A {@link RowStream} which maps items of another stream and runs a finisher once the stream ends, fails or
+ * is closed.</p>
+ * The end and exception handlers are called after the finisher completes, so resources released by the finisher
+ * (e.g. statement, transaction, connection) are released before the consumer sees the end of the stream.
+ *
+ * @author Long Dinh
+ * @version $Id: $Id
+ */
+public class MappedRowStream<T, R> implements RowStream<R> {
+    private final RowStream<T> stream;
+    private final Function<T, R> mapper;
+    private final Function<Throwable, Future<Void>> finisher;
+    private Handler<Void> endHandler;
+    private Handler<Throwable> exceptionHandler;
+    private Future<Void> finished;
+
+    /**
+     * <p>Constructor for MappedRowStream.</p>
+     *
+     * @param stream   a {@link io.vertx.sqlclient.RowStream} object.
+     * @param mapper   a {@link java.util.function.Function} object.
+     * @param finisher called once with the failure cause, a {@link java.util.concurrent.CancellationException} if
+     *                 the stream was closed before its end, or null if the stream ended.
+     */
+    public MappedRowStream(RowStream<T> stream, Function<T, R> mapper, Function<Throwable, Future<Void>> finisher) {
+        this.stream = stream;
+        this.mapper = mapper;
+        this.finisher = finisher;
+        stream.endHandler(v -> {
+            if (finished == null) {
+                finish(null).onComplete(this::handleEnd);
+            }
+        });
+        stream.exceptionHandler(err -> {
+            if (finished == null) {
+                finish(err).onComplete(ar -> handleException(err));
+            }
+        });
+    }
+
+    private Future<Void> finish(Throwable cause) {
+        if (finished == null) {
+            finished = finisher.apply(cause);
+        }
+        return finished;
+    }
+
+    private void handleEnd(AsyncResult<Void> ar) {
+        if (ar.failed()) {
+            handleException(ar.cause());
+            return;
+        }
+        var handler = endHandler;
+        if (handler != null) {
+            handler.handle(null);
+        }
+    }
+
+    private void handleException(Throwable err) {
+        var handler = exceptionHandler;
+        if (handler != null) {
+            handler.handle(err);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RowStream<R> exceptionHandler(Handler<Throwable> handler) {
+        exceptionHandler = handler;
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RowStream<R> handler(Handler<R> handler) {
+        if (handler == null) {
+            stream.handler(null);
+            return this;
+        }
+        stream.handler(item -> {
+            if (finished != null) {
+                return;
+            }
+            R result;
+            try {
+                result = mapper.apply(item);
+            } catch (RuntimeException e) {
+                finished = stream.close().eventually(v -> finisher.apply(e));
+                finished.onComplete(ar -> handleException(e));
+                return;
+            }
+            handler.handle(result);
+        });
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RowStream<R> pause() {
+        stream.pause();
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RowStream<R> resume() {
+        stream.resume();
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RowStream<R> endHandler(Handler<Void> handler) {
+        endHandler = handler;
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RowStream<R> fetch(long amount) {
+        stream.fetch(amount);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Void> close() {
+        return stream.close().compose(v -> finish(new CancellationException("Stream is closed before its end")),
+                err -> finish(err).eventually(v -> Future.failedFuture(err)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close(Handler<AsyncResult<Void>> completionHandler) {
+        close().onComplete(completionHandler);
+    }
+}
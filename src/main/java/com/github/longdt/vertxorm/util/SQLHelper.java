@@ -5,7 +5,10 @@ import io.vertx.sqlclient.Pool;
 import io.vertx.sqlclient.SqlConnection;
 import io.vertx.sqlclient.Transaction;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * <p>SQLHelper class.</p>
@@ -14,8 +17,13 @@ import java.util.function.BiFunction;
  * @version $Id: $Id
  */
 public class SQLHelper {
+    private static final Map<SqlConnection, Transaction> TRANSACTIONS = new ConcurrentHashMap<>();
+
     /**
-     * <p>withTransaction.</p>
+     * Run action in a transaction. The transaction is registered for conn until it completes,
+     * so that {@link #getTransaction(SqlConnection)} can find it. Pools shared through a
+     * {@link com.github.longdt.vertxorm.repository.ConnectionBroker} use its
+     * {@link com.github.longdt.vertxorm.repository.ConnectionBroker#withTransaction(com.github.longdt.vertxorm.repository.ConnectionBroker.Lane, BiFunction)}.
      *
      * @param pool a {@link io.vertx.sqlclient.Pool} object.
      * @param action a {@link java.util.function.BiFunction} object.
@@ -23,6 +31,37 @@ public class SQLHelper {
      * @return a {@link io.vertx.core.Future} object.
      */
     public static <T> Future<T> withTransaction(Pool pool, BiFunction<SqlConnection, Transaction, Future<T>> action) {
-        return pool.withConnection(conn -> conn.begin().flatMap(txn -> action.apply(conn, txn)));
+        return pool.withConnection(conn -> conn.begin().flatMap(txn -> {
+            TRANSACTIONS.put(conn, txn);
+            txn.completion().onComplete(ar -> TRANSACTIONS.remove(conn, txn));
+            return action.apply(conn, txn)
+                    .onComplete(ar -> TRANSACTIONS.remove(conn, txn));
+        }));
+    }
+
+    /**
+     * Run function in a transaction registered as {@link #withTransaction(Pool, BiFunction)} does, which is
+     * committed if the future of function succeeds and rolled back otherwise, like
+     * {@link Pool#withTransaction(Function)}.
+     *
+     * @param pool a {@link io.vertx.sqlclient.Pool} object.
+     * @param function a {@link java.util.function.Function} object.
+     * @param <T> a T object.
+     * @return a {@link io.vertx.core.Future} object.
+     */
+    public static <T> Future<T> withTransaction(Pool pool, Function<SqlConnection, Future<T>> function) {
+        return withTransaction(pool, (conn, txn) -> function.apply(conn)
+                .compose(res -> txn.commit().map(res),
+                        err -> txn.rollback().compose(v -> Future.<T>failedFuture(err), e -> Future.failedFuture(err))));
+    }
+
+    /**
+     * Get the transaction of conn started by {@link #withTransaction(Pool, BiFunction)}.
+     *
+     * @param conn a {@link io.vertx.sqlclient.SqlConnection} object.
+     * @return a {@link io.vertx.sqlclient.Transaction} object or null if conn is not in such transaction.
+     */
+    public static Transaction getTransaction(SqlConnection conn) {
+        return TRANSACTIONS.get(conn);
     }
 }
@@ -0,0 +1,104 @@
+package com.github.longdt.vertxorm.benchmark;
+
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.model.RuleTemplateConfiguration;
+import com.github.longdt.vertxorm.repository.ParametersWriter;
+import com.github.longdt.vertxorm.util.Tuples;
+import io.vertx.sqlclient.Tuple;
+import io.vertx.sqlclient.impl.ArrayTuple;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compare parameters mapper + tuple wrappers with the parameters writer, see gc.alloc.rate.norm for allocations.
+ * Run with: java -cp target/test-classes:target/classes:&lt;test classpath&gt; com.github.longdt.vertxorm.benchmark.ParametersBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParametersBenchmark {
+    private static final int COLUMN_COUNT = RuleTemplateConfiguration.COLUMN_NAMES.size();
+    private Function<RuleTemplate, Object[]> parametersMapper;
+    private ParametersWriter<RuleTemplate> parametersWriter;
+    private RuleTemplate template;
+
+    @Setup
+    public void setup() {
+        var conf = new RuleTemplateConfiguration();
+        parametersMapper = conf.getParametersMapper();
+        parametersWriter = conf.getParametersWriter();
+        var now = LocalDateTime.now();
+        // arguments are left null, their json encoding costs the same in both paths and hides the difference
+        template = new RuleTemplate()
+                .setId(1)
+                .setName("rule template")
+                .setFlinkJob("flink job")
+                .setActive(true)
+                .setCreatedAt(now)
+                .setUpdatedAt(now);
+    }
+
+    /**
+     * Read all values like the statement encoder does.
+     */
+    private static void consume(Tuple tuple, Blackhole bh) {
+        for (int i = 0; i < tuple.size(); ++i) {
+            bh.consume(tuple.getValue(i));
+        }
+    }
+
+    @Benchmark
+    public void insertGenPk_Mapper(Blackhole bh) {
+        consume(Tuples.shift(parametersMapper.apply(template), 1), bh);
+    }
+
+    @Benchmark
+    public void insertGenPk_Writer(Blackhole bh) {
+        var tuple = new ArrayTuple(COLUMN_COUNT - 1);
+        parametersWriter.write(template, tuple, 1);
+        consume(tuple, bh);
+    }
+
+    @Benchmark
+    public void update_Mapper(Blackhole bh) {
+        consume(Tuples.rotate(parametersMapper.apply(template), 1), bh);
+    }
+
+    @Benchmark
+    public void update_Writer(Blackhole bh) {
+        var tuple = new ArrayTuple(COLUMN_COUNT);
+        parametersWriter.write(template, tuple, 1);
+        tuple.addValue(template.getId());
+        consume(tuple, bh);
+    }
+
+    @Benchmark
+    public void upsert_Mapper(Blackhole bh) {
+        consume(Tuple.wrap(parametersMapper.apply(template)), bh);
+    }
+
+    @Benchmark
+    public void upsert_Writer(Blackhole bh) {
+        var tuple = new ArrayTuple(COLUMN_COUNT);
+        parametersWriter.write(template, tuple, 0);
+        consume(tuple, bh);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParametersBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.longdt.vertxorm.benchmark;
+
+import com.github.longdt.vertxorm.repository.mysql.SqlSupportImpl;
+import com.github.longdt.vertxorm.repository.query.Query;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.longdt.vertxorm.repository.query.QueryFactory.*;
+
+/**
+ * Run with: java -cp target/test-classes:target/classes:&lt;test classpath&gt; com.github.longdt.vertxorm.benchmark.SqlSupportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlSupportBenchmark {
+    private static final List<String> COLUMNS = List.of("id", "name", "arguments", "flink_job", "active", "created_at", "updated_at");
+    private SqlSupportImpl cachedSqlSupport;
+    private SqlSupportImpl uncachedSqlSupport;
+    private Query<Object> query;
+
+    @Setup
+    public void setup() {
+        cachedSqlSupport = new SqlSupportImpl("rule_template", COLUMNS);
+        uncachedSqlSupport = new SqlSupportImpl("rule_template", COLUMNS, 0);
+        query = and(equal("active", 1), in("id", 1, 2, 3, 4, 5), like("name", "%rule%"));
+        query.orderBy(descending("created_at")).limit(20).offset(40);
+    }
+
+    @Benchmark
+    public String getSql_Uncached() {
+        return uncachedSqlSupport.getSql(uncachedSqlSupport.getQuerySql(), query);
+    }
+
+    @Benchmark
+    public String getSql_Cached() {
+        return cachedSqlSupport.getSql(cachedSqlSupport.getQuerySql(), query);
+    }
+
+    @Benchmark
+    public String getCountSql_Uncached() {
+        return uncachedSqlSupport.getQuerySql(uncachedSqlSupport.getCountSql(), query);
+    }
+
+    @Benchmark
+    public String getCountSql_Cached() {
+        return cachedSqlSupport.getQuerySql(cachedSqlSupport.getCountSql(), query);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SqlSupportBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.longdt.vertxorm.codegen;
+
+import com.github.longdt.vertxorm.annotation.Case;
+import com.github.longdt.vertxorm.model.ArgumentDescription;
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.model.RuleTemplateConfiguration;
+import io.vertx.sqlclient.impl.ArrayTuple;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityProcessorTest {
+
+    @Test
+    void namingStrategy() {
+        assertEquals("rule_template", Case.SNAKE_CASE.format("RuleTemplate"));
+        assertEquals("http_server_id", Case.SNAKE_CASE.format("HTTPServerId"));
+        assertEquals("FLINK_JOB", Case.UPPER_SNAKE_CASE.format("flinkJob"));
+        assertEquals("flinkJob", Case.CAMEL_CASE.format("flinkJob"));
+    }
+
+    @Test
+    void generatedConfiguration() {
+        var conf = new RuleTemplateConfiguration();
+        assertEquals("rule_template", conf.getTableName());
+        assertEquals(List.of("id", "name", "arguments", "flink_job", "active", "created_at", "updated_at"), conf.getColumnNames());
+        var now = LocalDateTime.now();
+        var template = new RuleTemplate()
+                .setName("name")
+                .setArguments(Map.of("a", new ArgumentDescription().setName("a")))
+                .setActive(true)
+                .setCreatedAt(now);
+        var params = conf.getParametersMapper().apply(template);
+        assertNull(params[0]);
+        assertEquals("name", params[1]);
+        assertTrue(params[2] instanceof String);
+        assertEquals(true, params[4]);
+        assertEquals(now, params[5]);
+        assertNull(params[6]);
+        var idAccessor = conf.getIdAccessor();
+        idAccessor.setId(template, 10);
+        assertEquals(10, idAccessor.getId(template));
+        assertEquals(10, idAccessor.db2IdValue(10L));
+        var tuple = new ArrayTuple(6);
+        conf.getParametersWriter().write(template, tuple, 1);
+        assertEquals(6, tuple.size());
+        for (int i = 1; i < params.length; ++i) {
+            assertEquals(params[i], tuple.getValue(i - 1));
+        }
+    }
+}
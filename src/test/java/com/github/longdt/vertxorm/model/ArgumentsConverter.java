@@ -0,0 +1,23 @@
+package com.github.longdt.vertxorm.model;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.longdt.vertxorm.annotation.AttributeConverter;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+import java.util.Map;
+
+public class ArgumentsConverter implements AttributeConverter<Map<String, ArgumentDescription>, String> {
+    private static final TypeReference<Map<String, ArgumentDescription>> TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public String toDatabaseValue(Map<String, ArgumentDescription> attribute) {
+        return Json.encode(attribute);
+    }
+
+    @Override
+    public Map<String, ArgumentDescription> toEntityValue(String dbValue) {
+        return ((DatabindCodec) Json.CODEC).fromString(dbValue, TYPE);
+    }
+}
@@ -1,13 +1,22 @@
 package com.github.longdt.vertxorm.model;
 
+import com.github.longdt.vertxorm.annotation.Case;
+import com.github.longdt.vertxorm.annotation.Convert;
+import com.github.longdt.vertxorm.annotation.Entity;
+import com.github.longdt.vertxorm.annotation.Id;
+import com.github.longdt.vertxorm.annotation.NamingStrategy;
 import io.vertx.core.json.JsonObject;
 
 import java.time.LocalDateTime;
 import java.util.Map;
 
+@Entity
+@NamingStrategy(Case.SNAKE_CASE)
 public class RuleTemplate {
+    @Id
     private Integer id;
     private String name;
+    @Convert(converter = ArgumentsConverter.class)
     private Map<String, ArgumentDescription> arguments;
     private String flinkJob;
     private boolean active;
@@ -0,0 +1,74 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.model.RuleTemplateConfiguration;
+import com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.SqlConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingCrudRepositoryTest {
+    private final Map<Integer, RuleTemplate> rows = new HashMap<>();
+    private CachingCrudRepository<Integer, RuleTemplate> repository;
+
+    @BeforeEach
+    void setUp() {
+        var base = new AbstractCrudRepository<Integer, RuleTemplate>() {
+            {
+                init(new StubPool().autoAcquire(), new RuleTemplateConfiguration());
+            }
+        };
+        // writes are applied, then fail as if the reply was lost
+        var delegate = new ForwardingCrudRepository<>(base) {
+            @Override
+            public Future<Optional<RuleTemplate>> find(SqlConnection conn, Integer id) {
+                return Future.succeededFuture(Optional.ofNullable(rows.get(id)));
+            }
+
+            @Override
+            public Future<RuleTemplate> insert(RuleTemplate entity) {
+                rows.put(entity.getId(), entity);
+                return Future.failedFuture("Connection reset");
+            }
+
+            @Override
+            public Future<List<RuleTemplate>> insertAll(SqlConnection conn, Collection<RuleTemplate> entities) {
+                entities.forEach(entity -> rows.put(entity.getId(), entity));
+                return Future.failedFuture("Connection reset");
+            }
+
+            @Override
+            public Future<RuleTemplate> save(RuleTemplate entity) {
+                return insert(entity);
+            }
+        };
+        repository = new CachingCrudRepository<>(delegate, 100, 1, TimeUnit.MINUTES, UnaryOperator.identity());
+    }
+
+    @Test
+    void evictAfterFailedWrite() {
+        assertTrue(repository.find(1).result().isEmpty());
+        assertTrue(repository.insert(new RuleTemplate().setId(1)).failed());
+        assertTrue(repository.find(1).result().isPresent(), "a failed insert may have been applied");
+
+        assertTrue(repository.find(2).result().isEmpty());
+        assertTrue(repository.save(new RuleTemplate().setId(2)).failed());
+        assertTrue(repository.find(2).result().isPresent());
+
+        assertTrue(repository.find(3).result().isEmpty());
+        assertTrue(repository.insertAll(null, List.of(new RuleTemplate().setId(3))).failed());
+        assertTrue(repository.find(3).result().isPresent());
+        assertEquals(6, repository.getStats().getLoadCount());
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.longdt.vertxorm.repository;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class ConcurrencyLimiterTest {
+
+    @Test
+    void queueAndReject() {
+        var limiter = new ConcurrencyLimiter(2, 1, 4, 1);
+        List<Promise<Integer>> operations = new ArrayList<>();
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            results.add(limiter.submit(() -> {
+                Promise<Integer> promise = Promise.promise();
+                operations.add(promise);
+                return promise.future();
+            }));
+        }
+        assertEquals(2, operations.size());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getQueueSize());
+        assertTrue(results.get(3).failed());
+        assertTrue(results.get(3).cause() instanceof ConcurrencyLimitExceededException);
+        assertEquals(1, limiter.getRejectedCount());
+
+        operations.get(0).complete(0);
+        assertEquals(3, operations.size(), "queued operation runs when a slot is released");
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(0, limiter.getQueueSize());
+        operations.get(2).complete(2);
+        assertEquals(2, results.get(2).result());
+        operations.get(1).fail("failed");
+        assertTrue(results.get(1).failed());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void backoff() throws InterruptedException {
+        var limiter = new ConcurrencyLimiter(8, 2, 16, 0);
+        for (int i = 0; i < 10; ++i) {
+            limiter.submit(() -> Future.succeededFuture(0));
+        }
+        assertEquals(8, limiter.getLimit());
+        limiter.submit(() -> {
+            Promise<Integer> promise = Promise.promise();
+            new Thread(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                promise.complete(0);
+            }).start();
+            return promise.future();
+        });
+        for (int i = 0; i < 100 && limiter.getInFlight() > 0; ++i) {
+            Thread.sleep(10);
+        }
+        assertEquals(7, limiter.getLimit(), "slow operations decrease the limit");
+    }
+
+    @Test
+    void queuedOnCallerContext(Vertx vertx, VertxTestContext testContext) {
+        var limiter = new ConcurrencyLimiter(1, 1, 1, 1);
+        var context1 = vertx.getOrCreateContext();
+        var context2 = vertx.getOrCreateContext();
+        Promise<Integer> first = Promise.promise();
+        context1.runOnContext(v -> {
+            limiter.submit(first::future);
+            context2.runOnContext(v2 -> {
+                limiter.submit(() -> {
+                    testContext.verify(() -> assertSame(context2, Vertx.currentContext(),
+                            "a queued operation runs on the context of its caller"));
+                    return Future.succeededFuture(2);
+                }).onComplete(testContext.succeeding(result -> testContext.verify(() -> {
+                    assertEquals(2, result);
+                    assertEquals(0, limiter.getInFlight());
+                    testContext.completeNow();
+                })));
+                context1.runOnContext(v3 -> first.complete(1));
+            });
+        });
+    }
+
+    @Test
+    void queueTimeout(Vertx vertx, VertxTestContext testContext) {
+        var limiter = new ConcurrencyLimiter(1, 1, 1, 1).setMaxQueueWait(vertx, 50, TimeUnit.MILLISECONDS);
+        Promise<Integer> first = Promise.promise();
+        limiter.submit(first::future);
+        long start = System.nanoTime();
+        limiter.submit(() -> Future.succeededFuture(2))
+                .onComplete(testContext.failing(err -> testContext.verify(() -> {
+                    assertTrue(err instanceof ConcurrencyLimitExceededException);
+                    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+                    assertEquals(0, limiter.getQueueSize());
+                    assertEquals(1, limiter.getRejectedCount());
+                    first.complete(1);
+                    assertEquals(0, limiter.getInFlight(), "a timed out operation doesn't run");
+                    testContext.completeNow();
+                })));
+    }
+}
@@ -0,0 +1,157 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.model.RuleTemplateConfiguration;
+import com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository;
+import com.github.longdt.vertxorm.repository.query.QueryFactory;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.mysqlclient.MySQLConnectOptions;
+import io.vertx.mysqlclient.MySQLPool;
+import io.vertx.sqlclient.PoolOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.longdt.vertxorm.repository.ConnectionBroker.Lane.BACKGROUND;
+import static com.github.longdt.vertxorm.repository.ConnectionBroker.Lane.INTERACTIVE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class ConnectionBrokerTest {
+
+    @Test
+    void interactiveFirst(Vertx vertx) {
+        var broker = new ConnectionBroker(MySQLPool.pool(vertx, new MySQLConnectOptions(), new PoolOptions()), 4, 0.5);
+        List<String> started = new ArrayList<>();
+        List<Promise<Void>> running = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            submit(broker, BACKGROUND, "b" + i, started, running);
+        }
+        assertEquals(List.of("b0", "b1"), started, "background holds at most its share");
+        submit(broker, INTERACTIVE, "i0", started, running);
+        submit(broker, INTERACTIVE, "i1", started, running);
+        submit(broker, INTERACTIVE, "i2", started, running);
+        assertEquals(List.of("b0", "b1", "i0", "i1"), started);
+        assertEquals(1, broker.getStats(INTERACTIVE).getQueueDepth());
+        assertEquals(1, broker.getStats(BACKGROUND).getQueueDepth());
+
+        running.get(0).complete();
+        assertEquals("i2", started.get(4), "a released connection goes to interactive work first");
+        running.get(2).complete();
+        assertEquals("b2", started.get(5));
+        var stats = broker.getStats(BACKGROUND);
+        assertEquals(2, stats.getInUse());
+        assertEquals(0, stats.getQueueDepth());
+        assertEquals(3, stats.getAcquiredCount());
+    }
+
+    @Test
+    void queuedOnCallerContext(Vertx vertx, VertxTestContext testContext) {
+        var broker = new ConnectionBroker(new StubPool(), 1, 1);
+        var context1 = vertx.getOrCreateContext();
+        var context2 = vertx.getOrCreateContext();
+        Promise<Void> first = Promise.promise();
+        context1.runOnContext(v -> {
+            broker.submit(INTERACTIVE, first::future);
+            context2.runOnContext(v2 -> {
+                broker.submit(BACKGROUND, () -> {
+                    testContext.verify(() -> assertSame(context2, Vertx.currentContext(),
+                            "a waiting operation runs on the context of its caller"));
+                    return Future.succeededFuture();
+                }).onComplete(testContext.succeeding(v4 -> testContext.verify(() -> {
+                    assertEquals(0, broker.getStats(BACKGROUND).getInUse());
+                    assertEquals(1, broker.getStats(BACKGROUND).getAcquiredCount());
+                    testContext.completeNow();
+                })));
+                context1.runOnContext(v3 -> first.complete());
+            });
+        });
+    }
+
+    @Test
+    void maxWait(Vertx vertx, VertxTestContext testContext) {
+        var broker = new ConnectionBroker(new StubPool(), 1, 1).setMaxWait(vertx, 50, TimeUnit.MILLISECONDS);
+        Promise<Void> first = Promise.promise();
+        broker.submit(INTERACTIVE, first::future);
+        broker.submit(INTERACTIVE, Future::succeededFuture)
+                .onComplete(testContext.failing(err -> testContext.verify(() -> {
+                    assertTrue(err instanceof ConcurrencyLimitExceededException);
+                    var stats = broker.getStats(INTERACTIVE);
+                    assertEquals(1, stats.getTimedOutCount());
+                    assertEquals(0, stats.getQueueDepth());
+                    first.complete();
+                    assertEquals(0, broker.getStats(INTERACTIVE).getInUse(), "a timed out operation doesn't run");
+                    assertEquals(1, broker.getStats(INTERACTIVE).getAcquiredCount());
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void lanes() {
+        var stubPool = new StubPool();
+        var broker = new ConnectionBroker(stubPool, 4, 0.5);
+        var repository = new AbstractCrudRepository<Integer, RuleTemplate>() {
+            {
+                init(stubPool, new RuleTemplateConfiguration().setConnectionBroker(broker, INTERACTIVE));
+            }
+        };
+        AbstractCrudRepository<Integer, RuleTemplate> background = repository.withLane(BACKGROUND);
+        assertSame(repository, repository.withLane(INTERACTIVE));
+        assertEquals(BACKGROUND, background.getLane());
+        assertEquals(INTERACTIVE, repository.getLane());
+
+        var template = new RuleTemplate().setId(1).setArguments(Collections.emptyMap());
+        repository.insert(template);
+        background.insert(template);
+        background.updateAll(List.of(template));
+        assertEquals(1, broker.getStats(INTERACTIVE).getInUse());
+        assertEquals(2, broker.getStats(BACKGROUND).getInUse());
+
+        background.streamIds(QueryFactory.emptyQuery(), 100);
+        broker.withTransaction(INTERACTIVE, (conn, txn) -> Future.succeededFuture());
+        assertEquals(2, broker.getStats(INTERACTIVE).getInUse(), "transactions of SQLHelper go through the broker");
+        assertEquals(1, broker.getStats(BACKGROUND).getQueueDepth(), "streams go through the broker");
+        assertEquals(4, stubPool.getWaiting());
+
+        stubPool.fail("Connection refused");
+        assertEquals(1, broker.getStats(BACKGROUND).getQueueDepth(), "background holds at most its share");
+        stubPool.fail("Connection refused");
+        assertEquals(0, broker.getStats(BACKGROUND).getQueueDepth());
+        assertEquals(2, broker.getStats(BACKGROUND).getInUse(), "the stream holds the released connection");
+        assertEquals(3, stubPool.getWaiting());
+        for (int i = 0; i < 3; ++i) {
+            stubPool.fail("Connection refused");
+        }
+        assertEquals(0, broker.getStats(INTERACTIVE).getInUse());
+        assertEquals(0, broker.getStats(BACKGROUND).getInUse());
+        assertEquals(0, stubPool.getWaiting());
+    }
+
+    @Test
+    void transactionResult() {
+        var broker = new ConnectionBroker(new StubPool().autoAcquire(), 1, 1);
+        assertEquals(1, broker.withTransaction(INTERACTIVE, conn -> Future.succeededFuture(1)).result());
+        var failed = broker.withTransaction(INTERACTIVE, (conn, txn) -> Future.failedFuture("Deadlock found"));
+        assertTrue(failed.failed());
+        assertEquals("Deadlock found", failed.cause().getMessage());
+        assertEquals(0, broker.getStats(INTERACTIVE).getInUse());
+    }
+
+    private static void submit(ConnectionBroker broker, ConnectionBroker.Lane lane, String name, List<String> started,
+                               List<Promise<Void>> running) {
+        broker.submit(lane, () -> {
+            started.add(name);
+            Promise<Void> promise = Promise.promise();
+            running.add(promise);
+            return promise.future();
+        });
+    }
+}
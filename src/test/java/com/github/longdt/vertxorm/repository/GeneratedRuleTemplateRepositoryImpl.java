@@ -0,0 +1,19 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.model.ArgumentsConverter;
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.model.RuleTemplateConfiguration;
+import com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository;
+import io.vertx.sqlclient.Pool;
+
+import java.util.Map;
+
+public class GeneratedRuleTemplateRepositoryImpl extends AbstractCrudRepository<Integer, RuleTemplate> implements RuleTemplateRepository {
+    private static final ArgumentsConverter ARGUMENTS_CONVERTER = new ArgumentsConverter();
+
+    public GeneratedRuleTemplateRepositoryImpl(Pool pool) {
+        var conf = new RuleTemplateConfiguration()
+                .setColumnDecoders(Map.of("arguments", value -> ARGUMENTS_CONVERTER.toEntityValue((String) value)));
+        init(pool, conf);
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.model.ArgumentDescription;
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.repository.query.QueryFactory;
+import com.github.longdt.vertxorm.util.DatabaseTestCase;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneratedRuleTemplateRepositoryImplTest extends DatabaseTestCase {
+    private final RuleTemplateRepository repository = new GeneratedRuleTemplateRepositoryImpl(pool);
+    private static final String DEFAULT_RULE_TEMPLATE_NAME = "Sample Rule Template";
+
+    @Test
+    void insert(Vertx vertx, VertxTestContext testContext) {
+        var arguments = Map.of("max_txn_cnt", new ArgumentDescription().setName("max_txn_cnt")
+                .setType(ArgumentDescription.ValueType.INTEGER));
+        var now = LocalDateTime.now();
+        var template = new RuleTemplate()
+                .setActive(true)
+                .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                .setFlinkJob("Flink Job")
+                .setArguments(arguments)
+                .setCreatedAt(now)
+                .setUpdatedAt(now);
+        repository.insert(template)
+                .compose(entity -> repository.find(entity.getId()))
+                .onComplete(testContext.succeeding(entity -> testContext.verify(() -> {
+                    assertTrue(entity.isPresent());
+                    assertEquals(entity.get().getId(), 1);
+                    assertEquals(entity.get().getName(), DEFAULT_RULE_TEMPLATE_NAME);
+                    assertEquals(entity.get().getFlinkJob(), template.getFlinkJob());
+                    assertEquals(entity.get().getArguments().get("max_txn_cnt").getType(), ArgumentDescription.ValueType.INTEGER);
+                    assertTrue(entity.get().getActive());
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void insertAll(Vertx vertx, VertxTestContext testContext) {
+        var now = LocalDateTime.now();
+        var templates = new ArrayList<RuleTemplate>();
+        for (int i = 0; i < 3; ++i) {
+            templates.add(new RuleTemplate()
+                    .setActive(i % 2 == 0)
+                    .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                    .setFlinkJob("Flink Job " + i)
+                    .setArguments(Collections.emptyMap())
+                    .setCreatedAt(now)
+                    .setUpdatedAt(now));
+        }
+        repository.insertAll(templates)
+                .compose(entities -> repository.findAll(QueryFactory.<RuleTemplate>equal("active", true)
+                        .orderBy(QueryFactory.descending("id"))))
+                .onComplete(testContext.succeeding(entities -> testContext.verify(() -> {
+                    assertEquals(entities.size(), 2);
+                    assertEquals(entities.get(0).getId(), 3);
+                    assertEquals(entities.get(0).getFlinkJob(), "Flink Job 2");
+                    assertEquals(entities.get(1).getId(), 1);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void saveAll(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var now = LocalDateTime.now();
+        var updated = new RuleTemplate()
+                .setActive(false)
+                .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                .setFlinkJob("Updated Flink Job")
+                .setArguments(Collections.emptyMap())
+                .setCreatedAt(now)
+                .setUpdatedAt(now)
+                .setId(1);
+        var created = new RuleTemplate()
+                .setActive(true)
+                .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                .setFlinkJob("New Flink Job")
+                .setArguments(Collections.emptyMap())
+                .setCreatedAt(now)
+                .setUpdatedAt(now);
+        repository.saveAll(List.of(updated, created))
+                .compose(entities -> repository.findAll())
+                .onComplete(testContext.succeeding(entities -> testContext.verify(() -> {
+                    assertEquals(entities.size(), 2);
+                    assertEquals(entities.get(0).getFlinkJob(), updated.getFlinkJob());
+                    assertFalse(entities.get(0).getActive());
+                    assertTrue(entities.get(0).getArguments().isEmpty());
+                    assertEquals(created.getId(), 2);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void updateDynamic(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var template = new RuleTemplate()
+                .setFlinkJob("Updated Flink Job")
+                .setId(1);
+        repository.updateDynamic(template)
+                .compose(v -> repository.find(1))
+                .onComplete(testContext.succeeding(entity -> testContext.verify(() -> {
+                    assertEquals(entity.get().getFlinkJob(), "Updated Flink Job");
+                    assertEquals(entity.get().getName(), DEFAULT_RULE_TEMPLATE_NAME);
+                    assertFalse(entity.get().getArguments().isEmpty());
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void findAllViews(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        repository.findAllViews(QueryFactory.equal("active", true))
+                .onComplete(testContext.succeeding(views -> testContext.verify(() -> {
+                    assertEquals(views.size(), 1);
+                    assertEquals(views.get(0).materialize().getArguments().size(), 1);
+                    testContext.completeNow();
+                })));
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.model.RuleTemplateConfiguration;
+import com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.test.fakecluster.FakeClusterManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class InvalidationBroadcasterTest {
+    private static final String ADDRESS = "vertx-orm.invalidation.rule_template";
+    private Vertx vertx1;
+    private Vertx vertx2;
+
+    @BeforeEach
+    void setUp(VertxTestContext testContext) throws Throwable {
+        CompositeFuture.all(clusteredVertx(), clusteredVertx())
+                .onComplete(testContext.succeeding(cf -> {
+                    vertx1 = cf.resultAt(0);
+                    vertx2 = cf.resultAt(1);
+                    testContext.completeNow();
+                }));
+        assertTrue(testContext.awaitCompletion(30, TimeUnit.SECONDS));
+        if (testContext.failed()) {
+            throw testContext.causeOfFailure();
+        }
+    }
+
+    @AfterEach
+    void tearDown(VertxTestContext testContext) {
+        CompositeFuture.join(vertx1.close(), vertx2.close())
+                .onComplete(ar -> {
+                    FakeClusterManager.reset();
+                    testContext.completeNow();
+                });
+    }
+
+    private static Future<Vertx> clusteredVertx() {
+        return Vertx.clusteredVertx(new VertxOptions().setClusterManager(new FakeClusterManager()));
+    }
+
+    @Test
+    void broadcast(VertxTestContext testContext) {
+        var node1 = new InvalidationBroadcaster(vertx1, ADDRESS, 10);
+        var node2 = new InvalidationBroadcaster(vertx2, ADDRESS, 10);
+        var node3 = new InvalidationBroadcaster(vertx2, ADDRESS, 10);
+        var received = testContext.checkpoint(4);
+        node1.handler(ids -> testContext.verify(() -> {
+            assertEquals(List.of("b"), ids);
+            received.flag();
+        }));
+        node2.handler(ids -> testContext.verify(() -> {
+            assertEquals(List.of(1, 2L, "a"), ids);
+            received.flag();
+        }));
+        node3.handler(ids -> testContext.verify(() -> {
+            if (!ids.equals(List.of("b"))) {
+                assertEquals(List.of(1, 2L, "a"), ids);
+                node2.invalidate("b");
+            }
+            received.flag();
+        }));
+        CompositeFuture.all(node1.registration(), node2.registration(), node3.registration())
+                .onComplete(testContext.succeeding(v -> {
+                    node1.invalidate(1);
+                    node1.invalidate(List.of(2L, "a"));
+                    node1.invalidate(1);
+                }));
+    }
+
+    @Test
+    void broadcastAfterCommit(VertxTestContext testContext) {
+        var node1 = new InvalidationBroadcaster(vertx1, ADDRESS, 10);
+        var node2 = new InvalidationBroadcaster(vertx2, ADDRESS, 10);
+        var repository = new AbstractCrudRepository<Integer, RuleTemplate>() {
+            {
+                init(new StubPool().autoAcquire().onQuery((sql, params) -> Future.succeededFuture(StubPool.rows(1))),
+                        new RuleTemplateConfiguration().setInvalidationBroadcaster(node1));
+            }
+        };
+        node2.handler(ids -> testContext.verify(() -> {
+            assertEquals(List.of(2), ids, "a rolled back write is not broadcast");
+            testContext.completeNow();
+        }));
+        CompositeFuture.all(node1.registration(), node2.registration())
+                .compose(v -> repository.withTransaction(conn -> repository.insertAll(conn, List.of(template(1)))
+                        .compose(entities -> Future.<List<RuleTemplate>>failedFuture("Deadlock found"))))
+                .recover(err -> repository.withTransaction(conn -> repository.insertAll(conn, List.of(template(2)))))
+                .onFailure(testContext::failNow);
+    }
+
+    @Test
+    void rejectUnsupportedId() {
+        var node = new InvalidationBroadcaster(vertx1, ADDRESS, 10);
+        assertThrows(IllegalArgumentException.class, () -> node.invalidate(LocalDateTime.now()));
+        assertThrows(IllegalArgumentException.class, () -> node.invalidate(List.of(1, new Object())));
+    }
+
+    @Test
+    void broadcastIdTypes(VertxTestContext testContext) {
+        var node1 = new InvalidationBroadcaster(vertx1, ADDRESS, 10);
+        var node2 = new InvalidationBroadcaster(vertx2, ADDRESS, 10);
+        var uuid = UUID.randomUUID();
+        node2.handler(ids -> testContext.verify(() -> {
+            assertEquals(List.of((short) 7, uuid, Buffer.buffer("ab")), ids.subList(0, 3));
+            assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) ids.get(3));
+            testContext.completeNow();
+        }));
+        CompositeFuture.all(node1.registration(), node2.registration())
+                .onComplete(testContext.succeeding(v -> node1.invalidate(List.of((short) 7, uuid,
+                        Buffer.buffer("ab"), new byte[]{1, 2, 3}))));
+    }
+
+    private static RuleTemplate template(int id) {
+        return new RuleTemplate().setId(id).setArguments(Collections.emptyMap());
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.longdt.vertxorm.repository;
+
+import io.vertx.core.json.JsonArray;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeAndDecode() {
+        var values = Arrays.<Object>asList("a", 1, 2L, null, new BigDecimal("1.50"), LocalDateTime.of(2020, 1, 2, 3, 4));
+        assertEquals(values, KeysetCursor.decode(KeysetCursor.encode(values), values.size()));
+    }
+
+    @Test
+    void decode_WrongArity() {
+        var cursor = KeysetCursor.encode(List.of("a", 1));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, 3));
+    }
+
+    @Test
+    void decode_Tampered() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor(new JsonArray().add("i"))));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor(new JsonArray().add("i").add("x"))));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor(new JsonArray().add(1).add(1))));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor(new JsonArray().add("dt").add("x"))));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor(new JsonArray().add("s").addNull())));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor(new JsonArray().add("?").add(1))));
+    }
+
+    private static String cursor(JsonArray json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.encode().getBytes(StandardCharsets.UTF_8));
+    }
+}
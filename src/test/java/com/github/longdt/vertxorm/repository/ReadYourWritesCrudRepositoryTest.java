@@ -0,0 +1,138 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.model.RuleTemplateConfiguration;
+import com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesCrudRepositoryTest {
+    private final List<SqlConnection> readConnections = new ArrayList<>();
+    private final List<Tuple> waits = new ArrayList<>();
+    private StubPool primary;
+    private StubPool replica;
+    private ConcurrencyLimiter limiter;
+    private ReplicaRouter router;
+    private ReadYourWritesCrudRepository<Integer, RuleTemplate> repository;
+    private Supplier<Future<RowSet<Row>>> gtidExecuted;
+    private Supplier<Future<RowSet<Row>>> waitResult;
+
+    @BeforeEach
+    void setUp() {
+        gtidExecuted = () -> Future.succeededFuture(StubPool.rows("3E11FA47-71CA-11E1-9E33-C80AA9429562:1-5"));
+        waitResult = () -> Future.succeededFuture(StubPool.rows(0));
+        primary = new StubPool().autoAcquire().onQuery((sql, params) -> gtidExecuted.get());
+        replica = new StubPool().autoAcquire().onQuery((sql, params) -> {
+            waits.add(params);
+            return waitResult.get();
+        });
+        router = new ReplicaRouter(primary, List.of(replica), ReplicaRouter.Balancing.ROUND_ROBIN, 1,
+                TimeUnit.SECONDS, pool -> Future.succeededFuture(0L));
+        limiter = new ConcurrencyLimiter(4, 1, 4, 0);
+        var base = new AbstractCrudRepository<Integer, RuleTemplate>() {
+            {
+                init(primary, new RuleTemplateConfiguration().setReplicaRouter(router).setConcurrencyLimiter(limiter));
+            }
+        };
+        var delegate = new ForwardingCrudRepository<>(base) {
+            @Override
+            public Future<RuleTemplate> insert(RuleTemplate entity) {
+                return Future.succeededFuture(entity);
+            }
+
+            @Override
+            public Future<Optional<RuleTemplate>> find(SqlConnection conn, Integer id) {
+                readConnections.add(conn);
+                return Future.succeededFuture(Optional.empty());
+            }
+        };
+        repository = new ReadYourWritesCrudRepository<>(delegate, router);
+    }
+
+    @Test
+    void captureAfterWrite() {
+        repository.find(1);
+        assertSame(replica.getStubConnection(), readConnections.get(0));
+        assertTrue(waits.isEmpty(), "reads before a write don't wait");
+
+        assertTrue(repository.insert(new RuleTemplate().setId(1)).succeeded());
+        assertEquals(ConsistencyToken.of("3E11FA47-71CA-11E1-9E33-C80AA9429562:1-5"), repository.getToken());
+        repository.find(1);
+        assertSame(replica.getStubConnection(), readConnections.get(1));
+        assertEquals(1, waits.size());
+        assertEquals("3E11FA47-71CA-11E1-9E33-C80AA9429562:1-5", waits.get(0).getString(0));
+        assertEquals(0, router.getGtidFallbackCount());
+    }
+
+    @Test
+    void fallbackOnTimeout() {
+        repository.insert(new RuleTemplate().setId(1));
+        waitResult = () -> Future.succeededFuture(StubPool.rows(1));
+        assertTrue(repository.find(1).succeeded());
+        assertSame(primary.getStubConnection(), readConnections.get(0), "a replica still behind falls back");
+        assertEquals(1, router.getGtidFallbackCount());
+    }
+
+    @Test
+    void fallbackOnError() {
+        repository.insert(new RuleTemplate().setId(1));
+        waitResult = () -> Future.failedFuture("The system variable gtid_mode is OFF");
+        assertTrue(repository.find(1).succeeded());
+        assertSame(primary.getStubConnection(), readConnections.get(0), "a failed wait falls back");
+        assertEquals(1, router.getGtidFallbackCount());
+
+        var token = repository.getToken();
+        assertSame(primary.getStubConnection(), router.withTransaction(token, Future::succeededFuture).result());
+        assertSame(primary.getStubConnection(), router.getConnection(token).result());
+        assertEquals(3, router.getGtidFallbackCount());
+    }
+
+    @Test
+    void primaryOnlyAfterFailedCapture() {
+        repository.insert(new RuleTemplate().setId(1));
+        var token = repository.getToken();
+        gtidExecuted = () -> Future.failedFuture("Connection refused");
+        assertTrue(repository.insert(new RuleTemplate().setId(2)).succeeded(), "a failed capture keeps the write");
+        assertEquals(token, repository.getToken());
+        int replicaConnections = replica.getConnectionCount();
+        repository.find(2);
+        assertSame(primary.getStubConnection(), readConnections.get(0), "reads are pinned to the primary");
+        assertEquals(replicaConnections, replica.getConnectionCount());
+
+        gtidExecuted = () -> Future.succeededFuture(StubPool.rows("3E11FA47-71CA-11E1-9E33-C80AA9429562:1-6"));
+        assertTrue(repository.refreshToken().succeeded());
+        repository.find(2);
+        assertSame(replica.getStubConnection(), readConnections.get(1), "a successful capture unpins reads");
+        assertEquals("3E11FA47-71CA-11E1-9E33-C80AA9429562:1-6", waits.get(waits.size() - 1).getString(0));
+    }
+
+    @Test
+    void concurrencyLimit() {
+        repository.insert(new RuleTemplate().setId(1));
+        repository.withReadConnection(conn -> Promise.promise().future());
+        assertEquals(1, limiter.getInFlight(), "reads with a token are limited");
+        assertEquals(1, waits.size());
+
+        gtidExecuted = () -> Future.failedFuture("Connection refused");
+        repository.insert(new RuleTemplate().setId(2));
+        int primaryConnections = primary.getConnectionCount();
+        repository.withReadConnection(conn -> Promise.promise().future());
+        repository.withReadTransaction(conn -> Promise.promise().future());
+        assertEquals(3, limiter.getInFlight(), "reads pinned to the primary are limited");
+        assertEquals(primaryConnections + 2, primary.getConnectionCount());
+    }
+}
@@ -0,0 +1,298 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.model.RuleTemplateConfiguration;
+import com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository;
+import com.github.longdt.vertxorm.repository.query.QueryFactory;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.mysqlclient.MySQLConnectOptions;
+import io.vertx.mysqlclient.MySQLException;
+import io.vertx.mysqlclient.MySQLPool;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlConnection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(VertxExtension.class)
+class ReplicaRouterTest {
+
+    private static Pool pool(Vertx vertx) {
+        return MySQLPool.pool(vertx, new MySQLConnectOptions(), new PoolOptions());
+    }
+
+    @Test
+    void route(Vertx vertx, VertxTestContext testContext) {
+        var primary = pool(vertx);
+        var replica1 = pool(vertx);
+        var replica2 = pool(vertx);
+        var replica3 = pool(vertx);
+        Map<Pool, Future<Long>> lags = new HashMap<>();
+        lags.put(replica1, Future.succeededFuture(100L));
+        lags.put(replica2, Future.succeededFuture(5000L));
+        lags.put(replica3, Future.failedFuture("Replication is not running"));
+        var router = new ReplicaRouter(primary, List.of(replica1, replica2, replica3),
+                ReplicaRouter.Balancing.ROUND_ROBIN, 1, TimeUnit.SECONDS, replica -> lags.get(replica));
+        assertNotSame(router.select().pool, router.select().pool);
+        router.probe().onComplete(testContext.succeeding(v -> testContext.verify(() -> {
+            assertEquals(100, router.getLagMillis(0));
+            assertEquals(5000, router.getLagMillis(1));
+            assertEquals(-1, router.getLagMillis(2));
+            assertTrue(router.isAvailable(0));
+            assertFalse(router.isAvailable(1));
+            assertFalse(router.isAvailable(2));
+            for (int i = 0; i < 6; ++i) {
+                assertSame(replica1, router.select().pool);
+            }
+            lags.put(replica1, Future.failedFuture("Server is not a replica"));
+            router.probe().onComplete(testContext.succeeding(v2 -> testContext.verify(() -> {
+                assertNull(router.select());
+                testContext.completeNow();
+            })));
+        })));
+    }
+
+    @Test
+    void replicaStatus() {
+        var statuses = new ArrayList<Future<RowSet<Row>>>(List.of(
+                Future.succeededFuture(StubPool.rows(StubPool.row(List.of("Seconds_Behind_Source"), (Object) null))),
+                Future.failedFuture("Connection reset"),
+                Future.succeededFuture(StubPool.rows(StubPool.row(List.of("Seconds_Behind_Source"), 2L)))));
+        var queries = new ArrayList<String>();
+        var replica = new StubPool().onQuery((sql, params) -> {
+            queries.add(sql);
+            return statuses.remove(0);
+        });
+        var legacyQueries = new ArrayList<String>();
+        var legacyReplica = new StubPool().onQuery((sql, params) -> {
+            legacyQueries.add(sql);
+            return sql.equals("SHOW REPLICA STATUS")
+                    ? Future.failedFuture(new MySQLException("You have an error in your SQL syntax", 1064, "42000"))
+                    : Future.succeededFuture(StubPool.rows(StubPool.row(List.of("Seconds_Behind_Master"), 0L)));
+        });
+        var router = new ReplicaRouter(new StubPool(), List.of(replica, legacyReplica),
+                ReplicaRouter.Balancing.ROUND_ROBIN, 5, TimeUnit.SECONDS, ReplicaRouter.LagProbe.replicaStatus());
+        router.probe();
+        assertFalse(router.isAvailable(0), "replication is stopped");
+        assertTrue(router.isAvailable(1));
+        router.probe();
+        assertFalse(router.isAvailable(0));
+        router.probe();
+        assertTrue(router.isAvailable(0), "replication is resumed");
+        assertEquals(2000, router.getLagMillis(0));
+        assertEquals(Collections.nCopies(3, "SHOW REPLICA STATUS"), queries);
+        assertEquals(0, router.getLagMillis(1));
+        assertEquals(List.of("SHOW REPLICA STATUS", "SHOW SLAVE STATUS", "SHOW SLAVE STATUS", "SHOW SLAVE STATUS"),
+                legacyQueries);
+    }
+
+    @Test
+    void leastOutstanding() {
+        var replica1 = new StubPool();
+        var replica2 = new StubPool();
+        var replica3 = new StubPool();
+        var router = new ReplicaRouter(new StubPool(), List.of(replica1, replica2, replica3),
+                ReplicaRouter.Balancing.LEAST_OUTSTANDING, 1, TimeUnit.SECONDS, replica -> Future.succeededFuture(0L));
+        for (int i = 0; i < 3; ++i) {
+            router.withConnection(conn -> Future.succeededFuture(0));
+        }
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(1, router.getOutstanding(i), "ties are taken in turn");
+        }
+        replica2.acquire();
+        assertEquals(0, router.getOutstanding(1));
+        for (int i = 0; i < 3; ++i) {
+            assertSame(replica2, router.select().pool);
+        }
+        router.withConnection(conn -> Future.succeededFuture(0));
+        assertEquals(2, replica2.getConnectionCount());
+        assertEquals(0, router.getPrimaryReadCount());
+    }
+
+    @Test
+    void writesOnPrimary() {
+        var primary = new StubPool();
+        var replica = new StubPool();
+        var router = new ReplicaRouter(primary, List.of(replica), ReplicaRouter.Balancing.ROUND_ROBIN, 1,
+                TimeUnit.SECONDS, pool -> Future.succeededFuture(0L));
+        var repository = new AbstractCrudRepository<Integer, RuleTemplate>() {
+            {
+                init(primary, new RuleTemplateConfiguration().setReplicaRouter(router).setQueryCacheSize(16));
+            }
+        };
+        var now = LocalDateTime.now();
+        var template = new RuleTemplate()
+                .setId(1)
+                .setName("Sample Rule Template")
+                .setFlinkJob("Flink Job")
+                .setArguments(Collections.emptyMap())
+                .setCreatedAt(now)
+                .setUpdatedAt(now);
+        repository.insert(template);
+        repository.update(template);
+        repository.updateDynamic(template);
+        repository.delete(1);
+        repository.updateAll(List.of(template));
+        repository.insertAll(List.of(template));
+        assertEquals(6, primary.getConnectionCount());
+        for (int i = 0; i < 6; ++i) {
+            primary.acquire();
+        }
+        assertEquals(2, primary.getTransactionCount());
+        assertEquals(0, replica.getConnectionCount());
+
+        repository.find(1);
+        repository.findAll(QueryFactory.equal("active", true));
+        repository.count(QueryFactory.equal("active", true));
+        assertEquals(3, replica.getConnectionCount());
+        assertEquals(6, primary.getConnectionCount());
+
+        repository.findAll(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.SECONDS));
+        repository.count(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.SECONDS));
+        assertEquals(8, primary.getConnectionCount(), "reads filling the query cache run on the primary");
+        assertEquals(3, replica.getConnectionCount());
+    }
+
+    @Test
+    void replicaConnections() {
+        var primary = new StubPool().autoAcquire();
+        var replica = new StubPool().autoAcquire();
+        var router = new ReplicaRouter(primary, List.of(replica), ReplicaRouter.Balancing.ROUND_ROBIN, 1,
+                TimeUnit.SECONDS, pool -> Future.succeededFuture(0L));
+        List<SqlConnection> connections = new ArrayList<>();
+        router.withConnection(conn -> {
+            connections.add(conn);
+            return Future.succeededFuture();
+        });
+        router.withTransaction(conn -> {
+            connections.add(conn);
+            return Future.succeededFuture();
+        });
+        router.getConnection().onSuccess(connections::add);
+        assertEquals(3, connections.size());
+        for (var conn : connections) {
+            assertSame(replica.getStubConnection(), conn);
+            assertTrue(ReplicaRouter.isReplicaConnection(conn));
+        }
+        assertFalse(ReplicaRouter.isReplicaConnection(primary.getStubConnection()));
+    }
+
+    @Test
+    void hedge_FirstWins(Vertx vertx) throws InterruptedException {
+        var replica1 = new StubPool();
+        var replica2 = new StubPool();
+        var router = hedgedRouter(vertx, new StubPool(), replica1, replica2, 0.5);
+        var result = router.withConnection(conn -> Future.succeededFuture(1));
+        var first = waiting(replica1, replica2);
+        first.acquire();
+        assertEquals(1, result.result());
+        Thread.sleep(router.getHedgeDelayMillis() + 100);
+        assertEquals(0, router.getHedgeCount(), "the hedge timer is cancelled");
+        assertEquals(0, replica1.getWaiting() + replica2.getWaiting());
+        assertEquals(0, router.getOutstanding(0) + router.getOutstanding(1));
+    }
+
+    @Test
+    void hedge_HedgeWins(Vertx vertx) throws InterruptedException {
+        var replica1 = new StubPool();
+        var replica2 = new StubPool();
+        var router = hedgedRouter(vertx, new StubPool(), replica1, replica2, 0.5);
+        var result = router.withConnection(conn -> Future.succeededFuture(1));
+        var first = waiting(replica1, replica2);
+        var second = first == replica1 ? replica2 : replica1;
+        await(() -> second.getWaiting() == 1);
+        assertEquals(1, router.getHedgeCount());
+        assertFalse(result.isComplete());
+        second.acquire();
+        assertEquals(1, result.result());
+        assertEquals(1, router.getHedgeWinCount());
+        first.acquire();
+        assertEquals(1, router.getHedgeWinCount(), "the slower read is ignored");
+        assertEquals(0, router.getOutstanding(0) + router.getOutstanding(1));
+    }
+
+    @Test
+    void hedge_BothFail(Vertx vertx) throws InterruptedException {
+        var replica1 = new StubPool();
+        var replica2 = new StubPool();
+        var router = hedgedRouter(vertx, new StubPool(), replica1, replica2, 0.5);
+        List<Throwable> failures = new ArrayList<>();
+        var result = router.withConnection(conn -> Future.succeededFuture(1)).onFailure(failures::add);
+        var first = waiting(replica1, replica2);
+        var second = first == replica1 ? replica2 : replica1;
+        await(() -> second.getWaiting() == 1);
+        first.fail("first");
+        assertFalse(result.isComplete(), "the hedge may still succeed");
+        second.fail("second");
+        // the hedge may register its handler on the event loop after the failure
+        await(result::isComplete);
+        assertTrue(result.failed());
+        assertEquals("second", result.cause().getMessage());
+        assertEquals(1, failures.size());
+        assertEquals(0, router.getHedgeWinCount());
+    }
+
+    @Test
+    void hedge_BudgetExhausted(Vertx vertx) throws InterruptedException {
+        var primary = new StubPool();
+        var replica1 = new StubPool();
+        var replica2 = new StubPool();
+        var router = hedgedRouter(vertx, primary, replica1, replica2, 0.01);
+        int reads = ReplicaRouter.MAX_HEDGE_BURST + 1;
+        for (int i = 0; i < reads; ++i) {
+            router.withConnection(conn -> Future.succeededFuture(1));
+        }
+        await(() -> router.getHedgeCount() == ReplicaRouter.MAX_HEDGE_BURST);
+        Thread.sleep(router.getHedgeDelayMillis() + 100);
+        assertEquals(ReplicaRouter.MAX_HEDGE_BURST, router.getHedgeCount(), "hedges are bounded by the budget");
+        assertEquals(reads + ReplicaRouter.MAX_HEDGE_BURST, replica1.getWaiting() + replica2.getWaiting());
+        assertEquals(0, primary.getConnectionCount());
+    }
+
+    /**
+     * Create a router hedging reads after the slowest of the latest reads, which takes at least 200ms.
+     */
+    private static ReplicaRouter hedgedRouter(Vertx vertx, StubPool primary, StubPool replica1, StubPool replica2,
+                                              double budget) throws InterruptedException {
+        var router = new ReplicaRouter(primary, List.of(replica1, replica2), ReplicaRouter.Balancing.ROUND_ROBIN, 1,
+                TimeUnit.SECONDS, pool -> Future.succeededFuture(0L))
+                .enableHedging(vertx, 1.0, budget);
+        for (int i = 0; i < 128; ++i) {
+            router.withConnection(conn -> Future.succeededFuture(0));
+            if (i == 0) {
+                Thread.sleep(200);
+            }
+            waiting(replica1, replica2).acquire();
+        }
+        assertTrue(router.getHedgeDelayMillis() >= 200);
+        return router;
+    }
+
+    private static StubPool waiting(StubPool replica1, StubPool replica2) {
+        assertEquals(1, replica1.getWaiting() + replica2.getWaiting());
+        return replica1.getWaiting() > 0 ? replica1 : replica2;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200 && !condition.getAsBoolean(); ++i) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.longdt.vertxorm.repository;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.longdt.vertxorm.model.ArgumentDescription;
 import com.github.longdt.vertxorm.model.RuleTemplate;
 import com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository;
 import io.vertx.core.json.Json;
@@ -8,6 +9,7 @@ import io.vertx.core.json.jackson.DatabindCodec;
 import io.vertx.sqlclient.Pool;
 
 import java.util.List;
+import java.util.Map;
 
 public class RuleTemplateRepositoryImpl extends AbstractCrudRepository<Integer, RuleTemplate> implements RuleTemplateRepository {
     public RuleTemplateRepositoryImpl(Pool pool) {
@@ -38,6 +40,8 @@ public class RuleTemplateRepositoryImpl extends AbstractCrudRepository<Integer,
                         .setActive(row.getBoolean(4))
                         .setCreatedAt(row.getLocalDateTime(5))
                         .setUpdatedAt(row.getLocalDateTime(6)))
+                .setColumnDecoders(Map.of("arguments", value -> ((DatabindCodec) Json.CODEC).fromString((String) value, new TypeReference<Map<String, ArgumentDescription>>() {
+                })))
                 .setParametersMapper(ruleTemplate -> {
                     Object[] data = new Object[7];
                     data[0] = ruleTemplate.getId();
@@ -4,14 +4,22 @@ import com.github.longdt.vertxorm.model.ArgumentDescription;
 import com.github.longdt.vertxorm.model.RuleTemplate;
 import com.github.longdt.vertxorm.repository.query.QueryFactory;
 import com.github.longdt.vertxorm.util.DatabaseTestCase;
+import com.github.longdt.vertxorm.util.SQLHelper;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.junit5.VertxTestContext;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,6 +50,92 @@ class RuleTemplateRepositoryImplTest extends DatabaseTestCase {
                 })));
     }
 
+    @Test
+    void insertAll(Vertx vertx, VertxTestContext testContext) {
+        var now = LocalDateTime.now();
+        var templates = new ArrayList<RuleTemplate>();
+        for (int i = 0; i < 3; ++i) {
+            templates.add(new RuleTemplate()
+                    .setActive(true)
+                    .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                    .setFlinkJob("Flink Job " + i)
+                    .setArguments(Collections.emptyMap())
+                    .setCreatedAt(now)
+                    .setUpdatedAt(now));
+        }
+        repository.insertAll(templates)
+                .compose(entities -> repository.findAll().map(entities))
+                .onComplete(testContext.succeeding(entities -> testContext.verify(() -> {
+                    assertEquals(entities.size(), 3);
+                    for (int i = 0; i < 3; ++i) {
+                        assertEquals(entities.get(i).getId(), i + 1);
+                        assertEquals(entities.get(i).getFlinkJob(), "Flink Job " + i);
+                    }
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void insertAll_AutoIncrementIncrement(Vertx vertx, VertxTestContext testContext) {
+        var now = LocalDateTime.now();
+        var templates = new ArrayList<RuleTemplate>();
+        for (int i = 0; i < 3; ++i) {
+            templates.add(new RuleTemplate()
+                    .setActive(true)
+                    .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                    .setFlinkJob("Flink Job " + i)
+                    .setArguments(Collections.emptyMap())
+                    .setCreatedAt(now)
+                    .setUpdatedAt(now));
+        }
+        pool.withConnection(conn -> conn.query("SET SESSION auto_increment_increment = 2").execute()
+                .compose(rs -> repository.insertAll(conn, templates))
+                .compose(entities -> conn.query("SET SESSION auto_increment_increment = 1").execute().map(entities),
+                        err -> conn.query("SET SESSION auto_increment_increment = 1").execute()
+                                .compose(rs -> Future.failedFuture(err))))
+                .compose(entities -> repository.findAll(QueryFactory.<RuleTemplate>emptyQuery()
+                        .orderBy(QueryFactory.ascending("id"))))
+                .onComplete(testContext.succeeding(entities -> testContext.verify(() -> {
+                    assertEquals(entities.size(), 3);
+                    for (int i = 0; i < 3; ++i) {
+                        assertEquals(templates.get(i).getId(), 2 * i + 1);
+                        assertEquals(entities.get(i).getId(), templates.get(i).getId());
+                        assertEquals(entities.get(i).getFlinkJob(), "Flink Job " + i);
+                    }
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void saveAll(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var now = LocalDateTime.now();
+        var updated = new RuleTemplate()
+                .setActive(false)
+                .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                .setFlinkJob("Updated Flink Job")
+                .setArguments(Collections.emptyMap())
+                .setCreatedAt(now)
+                .setUpdatedAt(now)
+                .setId(1);
+        var created = new RuleTemplate()
+                .setActive(true)
+                .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                .setFlinkJob("New Flink Job")
+                .setArguments(Collections.emptyMap())
+                .setCreatedAt(now)
+                .setUpdatedAt(now);
+        repository.saveAll(List.of(updated, created))
+                .compose(entities -> repository.findAll())
+                .onComplete(testContext.succeeding(entities -> testContext.verify(() -> {
+                    assertEquals(entities.size(), 2);
+                    assertEquals(entities.get(0).getFlinkJob(), updated.getFlinkJob());
+                    assertFalse(entities.get(0).getActive());
+                    assertEquals(created.getId(), 2);
+                    testContext.completeNow();
+                })));
+    }
+
     @Test
     void update_Success(Vertx vertx, VertxTestContext testContext) {
         awaitCompletion(this::insert, vertx);
@@ -82,6 +176,27 @@ class RuleTemplateRepositoryImplTest extends DatabaseTestCase {
                 })));
     }
 
+    @Test
+    void updateAll(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var now = LocalDateTime.now();
+        var templates = new ArrayList<RuleTemplate>();
+        for (int i = 1; i <= 2; ++i) {
+            templates.add(new RuleTemplate()
+                    .setActive(true)
+                    .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                    .setFlinkJob("Updated Flink Job " + i)
+                    .setArguments(Collections.emptyMap())
+                    .setUpdatedAt(now)
+                    .setId(i));
+        }
+        repository.updateAll(templates)
+                .onComplete(testContext.succeeding(notFoundIds -> testContext.verify(() -> {
+                    assertEquals(notFoundIds, List.of(2));
+                    testContext.completeNow();
+                })));
+    }
+
     @Test
     void updateQuery_Success(Vertx vertx, VertxTestContext testContext) {
         awaitCompletion(this::insert, vertx);
@@ -212,4 +327,390 @@ class RuleTemplateRepositoryImplTest extends DatabaseTestCase {
                     testContext.completeNow();
                 })));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAll_Keyset(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insertAll, vertx);
+        var query = QueryFactory.<RuleTemplate>equal("active", true).orderBy(QueryFactory.descending("name"));
+        repository.findAll(query, new KeysetPageRequest(2))
+                .compose(slice -> {
+                    testContext.verify(() -> {
+                        assertEquals(slice.getContent().size(), 2);
+                        assertEquals(slice.getContent().get(0).getId(), 3);
+                        assertEquals(slice.getContent().get(1).getId(), 2);
+                        assertTrue(slice.hasNext());
+                        assertEquals(query.orderBy().size(), 1);
+                        assertEquals(query.limit(), -1);
+                    });
+                    return repository.findAll(query, new KeysetPageRequest(2, slice.getNextCursor()));
+                })
+                .onComplete(testContext.succeeding(slice -> testContext.verify(() -> {
+                    assertEquals(slice.getContent().size(), 1);
+                    assertEquals(slice.getContent().get(0).getId(), 1);
+                    assertFalse(slice.hasNext());
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void findAll_KeysetTamperedCursor(Vertx vertx, VertxTestContext testContext) {
+        var cursor = KeysetCursor.encode(List.of("name"));
+        repository.findAll(QueryFactory.<RuleTemplate>emptyQuery().orderBy(QueryFactory.descending("name")),
+                new KeysetPageRequest(2, cursor))
+                .onComplete(testContext.failing(e -> testContext.verify(() -> {
+                    assertTrue(e instanceof IllegalArgumentException);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void findAll_CountStrategy(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insertAll, vertx);
+        repository.findAll(QueryFactory.emptyQuery(), new PageRequest(1, 2, CountStrategy.NONE))
+                .compose(page -> {
+                    testContext.verify(() -> {
+                        assertEquals(page.getContent().size(), 2);
+                        assertTrue(page.hasNext());
+                        assertFalse(page.isTotalExact());
+                        assertEquals(page.getTotalElements(), 3);
+                    });
+                    return repository.findAll(QueryFactory.emptyQuery(), new PageRequest(1, 2, CountStrategy.capped(10)));
+                })
+                .onComplete(testContext.succeeding(page -> testContext.verify(() -> {
+                    assertEquals(page.getContent().size(), 2);
+                    assertTrue(page.isTotalExact());
+                    assertEquals(page.getTotalElements(), 3);
+                    assertEquals(page.getTotalPage(), 2);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void findAll_CountStrategyEstimated(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insertAll, vertx);
+        repository.findAll(QueryFactory.emptyQuery(), new PageRequest(1, 2, CountStrategy.ESTIMATED))
+                .compose(page -> {
+                    testContext.verify(() -> {
+                        assertEquals(page.getContent().size(), 2);
+                        assertTrue(page.hasNext());
+                        assertFalse(page.isTotalExact());
+                        assertTrue(page.getTotalElements() >= 3);
+                    });
+                    return repository.findAll(QueryFactory.equal("active", true),
+                            new PageRequest(1, 2, CountStrategy.ESTIMATED));
+                })
+                .onComplete(testContext.succeeding(page -> testContext.verify(() -> {
+                    assertEquals(page.getContent().size(), 2);
+                    assertTrue(page.hasNext());
+                    assertFalse(page.isTotalExact());
+                    assertTrue(page.getTotalElements() >= 3);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void findAll_CountStrategyPastEnd(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insertAll, vertx);
+        repository.findAll(QueryFactory.emptyQuery(), new PageRequest(10, 2, CountStrategy.NONE))
+                .compose(page -> {
+                    testContext.verify(() -> {
+                        assertTrue(page.getContent().isEmpty());
+                        assertTrue(page.isLast());
+                        assertEquals(page.getTotalElements(), 0);
+                    });
+                    return repository.findAll(QueryFactory.emptyQuery(), new PageRequest(10, 2, CountStrategy.capped(10)));
+                })
+                .onComplete(testContext.succeeding(page -> testContext.verify(() -> {
+                    assertTrue(page.isLast());
+                    assertTrue(page.isTotalExact());
+                    assertEquals(page.getTotalElements(), 3);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void findAll_CachedCountInvalidated(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insertAll, vertx);
+        var strategy = CountStrategy.cached(1, TimeUnit.MINUTES);
+        repository.findAll(QueryFactory.emptyQuery(), new PageRequest(1, 1, strategy))
+                .compose(page -> {
+                    testContext.verify(() -> assertEquals(page.getTotalElements(), 3));
+                    return repository.delete(1);
+                })
+                .compose(v -> repository.findAll(QueryFactory.emptyQuery(), new PageRequest(1, 1, strategy)))
+                .onComplete(testContext.succeeding(page -> testContext.verify(() -> {
+                    assertTrue(page.isTotalExact());
+                    assertEquals(page.getTotalElements(), 2);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void stream(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insertAll, vertx);
+        var ids = new ArrayList<Integer>();
+        repository.stream(QueryFactory.<RuleTemplate>emptyQuery().orderBy(QueryFactory.ascending("id")), 2)
+                .onComplete(testContext.succeeding(stream -> stream
+                        .exceptionHandler(testContext::failNow)
+                        .endHandler(v -> testContext.verify(() -> {
+                            assertEquals(ids, List.of(1, 2, 3));
+                            testContext.completeNow();
+                        }))
+                        .handler(entity -> ids.add(entity.getId()))));
+    }
+
+    @Test
+    void findAllById(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insertAll, vertx);
+        repository.findAllById(List.of(3, 5, 1))
+                .onComplete(testContext.succeeding(entities -> testContext.verify(() -> {
+                    assertEquals(entities.size(), 2);
+                    assertEquals(entities.get(0).getId(), 3);
+                    assertEquals(entities.get(1).getId(), 1);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void find_Batching(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insertAll, vertx);
+        var lookups = new ArrayList<Collection<Integer>>();
+        var countingRepository = new ForwardingCrudRepository<Integer, RuleTemplate>(repository) {
+            @Override
+            public Future<Optional<RuleTemplate>> find(Integer id) {
+                lookups.add(List.of(id));
+                return super.find(id);
+            }
+
+            @Override
+            public Future<Map<Integer, RuleTemplate>> findMapById(Collection<Integer> ids) {
+                lookups.add(List.copyOf(ids));
+                return super.findMapById(ids);
+            }
+        };
+        var batchingRepository = new BatchingCrudRepository<>(countingRepository);
+        vertx.runOnContext(v -> CompositeFuture.all(batchingRepository.find(1), batchingRepository.find(5),
+                batchingRepository.find(3), batchingRepository.find(1))
+                .onComplete(testContext.succeeding(cf -> testContext.verify(() -> {
+                    assertEquals(lookups, List.of(List.of(1, 5, 3)));
+                    assertEquals(cf.<Optional<RuleTemplate>>resultAt(0).map(RuleTemplate::getId), Optional.of(1));
+                    assertTrue(cf.<Optional<RuleTemplate>>resultAt(1).isEmpty());
+                    assertEquals(cf.<Optional<RuleTemplate>>resultAt(2).map(RuleTemplate::getId), Optional.of(3));
+                    assertEquals(cf.<Optional<RuleTemplate>>resultAt(3).map(RuleTemplate::getId), Optional.of(1));
+                    testContext.completeNow();
+                }))));
+    }
+
+    @Test
+    void find_Caching(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var cachingRepository = new CachingCrudRepository<>(repository, 100, 1, TimeUnit.MINUTES,
+                RuleTemplateRepositoryImplTest::copy);
+        cachingRepository.find(1)
+                .compose(entity -> {
+                    entity.get().setFlinkJob("Unsaved Flink Job");
+                    return cachingRepository.find(1);
+                })
+                .compose(entity -> {
+                    testContext.verify(() -> assertEquals(entity.get().getFlinkJob(), "Flink Job"));
+                    var updated = copy(entity.get()).setFlinkJob("Updated Flink Job");
+                    return cachingRepository.updateDynamic(updated);
+                })
+                .compose(v -> cachingRepository.find(1))
+                .onComplete(testContext.succeeding(entity -> testContext.verify(() -> {
+                    assertEquals(entity.get().getFlinkJob(), "Updated Flink Job");
+                    var stats = cachingRepository.getStats();
+                    assertEquals(stats.getHitCount(), 1);
+                    assertEquals(stats.getLoadCount(), 2);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void find_BloomFilter(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var bloomRepository = new BloomFilterCrudRepository<>(repository, 1000, 0.01);
+        bloomRepository.rebuild()
+                .compose(v -> bloomRepository.find(1))
+                .compose(entity -> {
+                    testContext.verify(() -> assertTrue(entity.isPresent()));
+                    return bloomRepository.exists(1000);
+                })
+                .onComplete(testContext.succeeding(exists -> testContext.verify(() -> {
+                    assertFalse(exists);
+                    var stats = bloomRepository.getStats();
+                    assertEquals(stats.getRebuildCount(), 1);
+                    assertEquals(stats.getPositiveCount() + stats.getNegativeCount(), 2);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void find_BloomFilterAfterInsert(Vertx vertx, VertxTestContext testContext) {
+        var template = newTemplate();
+        var bloomRepository = new BloomFilterCrudRepository<>(repository, 1000, 0.01);
+        bloomRepository.rebuild()
+                .compose(v -> bloomRepository.insert(template))
+                .compose(entity -> bloomRepository.find(entity.getId()))
+                .onComplete(testContext.succeeding(entity -> testContext.verify(() -> {
+                    assertTrue(entity.isPresent());
+                    assertEquals(bloomRepository.getStats().getNegativeCount(), 0);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void find_BloomFilterInTransaction(Vertx vertx, VertxTestContext testContext) {
+        var template = newTemplate();
+        var bloomRepository = new BloomFilterCrudRepository<>(repository, 1000, 0.01);
+        bloomRepository.rebuild()
+                .compose(v -> SQLHelper.withTransaction(pool, (conn, txn) -> repository.insert(conn, template)
+                        .compose(entity -> bloomRepository.exists(conn, entity.getId()))))
+                .onComplete(testContext.succeeding(exists -> testContext.verify(() -> {
+                    assertTrue(exists);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void find_BloomFilterScheduledRebuild(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var bloomRepository = new BloomFilterCrudRepository<>(repository, 1000, 0.01);
+        bloomRepository.rebuild()
+                .compose(v -> bloomRepository.delete(1))
+                .onComplete(testContext.succeeding(v -> {
+                    testContext.verify(() -> assertEquals(bloomRepository.getStats().getStaleCount(), 1));
+                    bloomRepository.scheduleRebuild(vertx, 10, TimeUnit.MILLISECONDS);
+                    vertx.setPeriodic(10, timerId -> {
+                        var stats = bloomRepository.getStats();
+                        if (stats.getRebuildCount() == 2) {
+                            vertx.cancelTimer(timerId);
+                            bloomRepository.cancelRebuild();
+                            testContext.verify(() -> assertEquals(stats.getStaleCount(), 0));
+                            testContext.completeNow();
+                        }
+                    });
+                }));
+    }
+
+    @Test
+    void findAll_Projection(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        repository.findAll(QueryFactory.equal("active", true), List.of("id", "name"), row -> row.getString("name"),
+                new PageRequest(1, 10))
+                .onComplete(testContext.succeeding(page -> testContext.verify(() -> {
+                    assertEquals(page.getTotalElements(), 1);
+                    assertEquals(page.getContent(), List.of(DEFAULT_RULE_TEMPLATE_NAME));
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void findAll_ProjectionCached(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var columns = List.of("id", "name");
+        repository.findAll(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.MINUTES), columns,
+                row -> row.getString("name"))
+                .compose(names -> {
+                    testContext.verify(() -> assertEquals(names, List.of(DEFAULT_RULE_TEMPLATE_NAME)));
+                    return repository.findAll(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.MINUTES),
+                            columns, row -> row.getInteger("id"));
+                })
+                .onComplete(testContext.succeeding(ids -> testContext.verify(() -> {
+                    Integer id = ids.get(0);
+                    assertEquals(id, 1);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void findAllViews(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        repository.findAllViews(QueryFactory.equal("active", true))
+                .onComplete(testContext.succeeding(views -> testContext.verify(() -> {
+                    assertEquals(views.size(), 1);
+                    var view = views.get(0);
+                    assertEquals(view.<String>get("name"), DEFAULT_RULE_TEMPLATE_NAME);
+                    Map<String, ArgumentDescription> arguments = view.get("arguments");
+                    assertSame(arguments, view.get("arguments"));
+                    assertEquals(view.materialize().getName(), DEFAULT_RULE_TEMPLATE_NAME);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void count_Cached(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var template = newTemplate();
+        repository.count(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.MINUTES))
+                .compose(cnt -> {
+                    testContext.verify(() -> assertEquals(cnt, 1));
+                    return repository.insert(template);
+                })
+                .compose(entity -> repository.count(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.MINUTES)))
+                .onComplete(testContext.succeeding(cnt -> testContext.verify(() -> {
+                    assertEquals(cnt, 2);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void count_CachedInTransaction(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var template = newTemplate();
+        SQLHelper.withTransaction(pool, (conn, txn) -> repository.insert(conn, template)
+                .compose(entity -> repository.count(conn, QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.MINUTES)))
+                .compose(cnt -> {
+                    testContext.verify(() -> assertEquals(cnt, 2));
+                    return repository.count(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.MINUTES));
+                })
+                .compose(cnt -> {
+                    testContext.verify(() -> assertEquals(cnt, 1));
+                    return txn.rollback();
+                }))
+                .compose(v -> repository.count(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.MINUTES)))
+                .onComplete(testContext.succeeding(cnt -> testContext.verify(() -> {
+                    assertEquals(cnt, 1);
+                    testContext.completeNow();
+                })));
+    }
+
+    @Test
+    void count_CachedDuringTransaction(Vertx vertx, VertxTestContext testContext) {
+        awaitCompletion(this::insert, vertx);
+        var template = newTemplate();
+        repository.withTransaction(conn -> repository.insertAll(conn, List.of(template))
+                // another connection caches the count committed before the transaction
+                .compose(entities -> repository.count(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.MINUTES))))
+                .compose(cnt -> {
+                    testContext.verify(() -> assertEquals(cnt, 1));
+                    return repository.count(QueryFactory.<RuleTemplate>equal("active", true).cache(1, TimeUnit.MINUTES));
+                })
+                .onComplete(testContext.succeeding(cnt -> testContext.verify(() -> {
+                    assertEquals(cnt, 2);
+                    testContext.completeNow();
+                })));
+    }
+
+    private static RuleTemplate newTemplate() {
+        var now = LocalDateTime.now();
+        return new RuleTemplate()
+                .setActive(true)
+                .setName(DEFAULT_RULE_TEMPLATE_NAME)
+                .setFlinkJob("Flink Job")
+                .setArguments(Collections.emptyMap())
+                .setCreatedAt(now)
+                .setUpdatedAt(now);
+    }
+
+    private static RuleTemplate copy(RuleTemplate template) {
+        return new RuleTemplate()
+                .setId(template.getId())
+                .setName(template.getName())
+                .setArguments(template.getArguments())
+                .setFlinkJob(template.getFlinkJob())
+                .setActive(template.getActive())
+                .setCreatedAt(template.getCreatedAt())
+                .setUpdatedAt(template.getUpdatedAt());
+    }
+}
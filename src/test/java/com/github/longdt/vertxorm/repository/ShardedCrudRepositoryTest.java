@@ -0,0 +1,120 @@
+package com.github.longdt.vertxorm.repository;
+
+import com.github.longdt.vertxorm.model.RuleTemplate;
+import com.github.longdt.vertxorm.model.RuleTemplateConfiguration;
+import com.github.longdt.vertxorm.repository.mysql.AbstractCrudRepository;
+import com.github.longdt.vertxorm.repository.query.Query;
+import com.github.longdt.vertxorm.repository.query.QueryFactory;
+import io.vertx.core.Future;
+import io.vertx.sqlclient.Row;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedCrudRepositoryTest {
+    private static final List<String> COLUMNS = List.of("id", "rank", "name");
+    private static final Function<Row, EntityView<RuleTemplate>> VIEW_MAPPER = EntityView.mapper(COLUMNS, Map.of(),
+            row -> new RuleTemplate().setId((Integer) row.getValue("id")).setName((String) row.getValue("name")));
+
+    @Test
+    void route() {
+        List<List<Integer>> found = new ArrayList<>();
+        List<CrudRepository<Integer, RuleTemplate>> shards = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            var ids = new ArrayList<Integer>();
+            found.add(ids);
+            shards.add(new ForwardingCrudRepository<>(baseRepository()) {
+                @Override
+                public Future<Optional<RuleTemplate>> find(Integer id) {
+                    ids.add(id);
+                    return Future.succeededFuture(Optional.empty());
+                }
+            });
+        }
+        var repository = new ShardedCrudRepository<>(shards);
+        for (int id = 1; id <= 300; ++id) {
+            repository.find(id);
+            int shard = repository.getShards().indexOf(repository.getShard(id));
+            assertEquals(id, found.get(shard).get(found.get(shard).size() - 1), "find goes to the owner of id");
+        }
+        for (var ids : found) {
+            assertTrue(ids.size() > 50, "ids are spread across shards");
+        }
+        assertThrows(IllegalArgumentException.class, () -> repository.find(null));
+    }
+
+    @Test
+    void findAll_Merge() {
+        List<Query<RuleTemplate>> shardQueries = new ArrayList<>();
+        var repository = new ShardedCrudRepository<>(List.of(
+                shard(shardQueries, row(1, 9), row(4, 5), row(7, 1)),
+                shard(shardQueries, row(2, 9), row(5, 5)),
+                shard(shardQueries, row(3, 8), row(6, 5), row(8, 0))));
+        var query = QueryFactory.<RuleTemplate>emptyQuery()
+                .orderBy(QueryFactory.descending("rank"), QueryFactory.ascending("id"))
+                .limit(3)
+                .offset(2);
+        var result = repository.findAll(query);
+        assertTrue(result.succeeded());
+        assertEquals(List.of(3, 4, 5), ids(result.result()), "offset and limit apply to the merged order");
+        assertEquals(3, query.limit(), "the query of the caller is not changed");
+        assertEquals(2, query.offset());
+        for (var shardQuery : shardQueries) {
+            assertNotSame(query, shardQuery);
+            assertEquals(5, shardQuery.limit(), "each shard returns up to offset + limit rows");
+            assertEquals(-1, shardQuery.offset());
+            assertEquals(query.orderBy(), shardQuery.orderBy());
+        }
+
+        result = repository.findAll(QueryFactory.<RuleTemplate>emptyQuery()
+                .orderBy(QueryFactory.descending("rank"), QueryFactory.ascending("id")));
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8), ids(result.result()));
+        assertEquals(-1, shardQueries.get(shardQueries.size() - 1).limit());
+    }
+
+    @Test
+    void findAll_RejectStringOrder() {
+        var repository = new ShardedCrudRepository<>(List.of(
+                shard(new ArrayList<>(), row(1, 0, "apple"), row(3, 0, "Banana")),
+                shard(new ArrayList<>(), row(2, 0, "banana"))));
+        var result = repository.findAll(QueryFactory.<RuleTemplate>emptyQuery().orderBy(QueryFactory.ascending("name")));
+        assertTrue(result.failed());
+        assertTrue(result.cause() instanceof IllegalArgumentException);
+    }
+
+    @SafeVarargs
+    private static CrudRepository<Integer, RuleTemplate> shard(List<Query<RuleTemplate>> queries,
+                                                               EntityView<RuleTemplate>... views) {
+        return new ForwardingCrudRepository<>(baseRepository()) {
+            @Override
+            public Future<List<EntityView<RuleTemplate>>> findAllViews(Query<RuleTemplate> query) {
+                queries.add(query);
+                return Future.succeededFuture(List.of(views));
+            }
+        };
+    }
+
+    private static CrudRepository<Integer, RuleTemplate> baseRepository() {
+        return new AbstractCrudRepository<>() {
+            {
+                init(new StubPool(), new RuleTemplateConfiguration());
+            }
+        };
+    }
+
+    private static EntityView<RuleTemplate> row(Object... values) {
+        return VIEW_MAPPER.apply(StubPool.row(COLUMNS, values.length < COLUMNS.size()
+                ? new Object[]{values[0], values[1], null} : values));
+    }
+
+    private static List<Integer> ids(List<RuleTemplate> entities) {
+        return entities.stream().map(RuleTemplate::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,233 @@
+package com.github.longdt.vertxorm.repository;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.PreparedQuery;
+import io.vertx.sqlclient.Query;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowIterator;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlConnection;
+import io.vertx.sqlclient.Transaction;
+import io.vertx.sqlclient.TransactionRollbackException;
+import io.vertx.sqlclient.Tuple;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A pool without a database. Connections are given when the test calls {@link #acquire()}, or at once after
+ * {@link #autoAcquire()}, and queries are answered by {@link #onQuery(BiFunction)}.
+ */
+class StubPool implements Pool {
+    private final ArrayDeque<Promise<SqlConnection>> waiters = new ArrayDeque<>();
+    private final SqlConnection connection = proxy(SqlConnection.class, (method, args) -> {
+        switch (method) {
+            case "query":
+            case "preparedQuery":
+                return stubQuery((String) args[0]);
+            case "begin":
+                return args == null ? Future.succeededFuture(begin()) : null;
+            default:
+                return null;
+        }
+    });
+    private volatile BiFunction<String, Tuple, Future<RowSet<Row>>> queryHandler =
+            (sql, params) -> Future.failedFuture("Unexpected query: " + sql);
+    private boolean autoAcquire;
+    private int connectionCount;
+    private int transactionCount;
+
+    StubPool autoAcquire() {
+        this.autoAcquire = true;
+        return this;
+    }
+
+    StubPool onQuery(BiFunction<String, Tuple, Future<RowSet<Row>>> queryHandler) {
+        this.queryHandler = queryHandler;
+        return this;
+    }
+
+    /**
+     * Give a connection to the oldest waiting operation.
+     */
+    void acquire() {
+        Promise<SqlConnection> waiter;
+        synchronized (this) {
+            waiter = waiters.poll();
+        }
+        waiter.complete(connection);
+    }
+
+    /**
+     * Fail the oldest waiting operation.
+     */
+    void fail(String message) {
+        Promise<SqlConnection> waiter;
+        synchronized (this) {
+            waiter = waiters.poll();
+        }
+        waiter.fail(message);
+    }
+
+    synchronized int getWaiting() {
+        return waiters.size();
+    }
+
+    synchronized int getConnectionCount() {
+        return connectionCount;
+    }
+
+    synchronized int getTransactionCount() {
+        return transactionCount;
+    }
+
+    SqlConnection getStubConnection() {
+        return connection;
+    }
+
+    @Override
+    public void getConnection(Handler<AsyncResult<SqlConnection>> handler) {
+        getConnection().onComplete(handler);
+    }
+
+    @Override
+    public Future<SqlConnection> getConnection() {
+        synchronized (this) {
+            ++connectionCount;
+            if (!autoAcquire) {
+                Promise<SqlConnection> waiter = Promise.promise();
+                waiters.add(waiter);
+                return waiter.future();
+            }
+        }
+        return Future.succeededFuture(connection);
+    }
+
+    @Override
+    public <T> Future<T> withConnection(Function<SqlConnection, Future<T>> function) {
+        return getConnection().compose(function);
+    }
+
+    @Override
+    public <T> Future<T> withTransaction(Function<SqlConnection, Future<T>> function) {
+        synchronized (this) {
+            ++transactionCount;
+        }
+        return getConnection().compose(function);
+    }
+
+    /**
+     * Create a transaction whose completion succeeds on commit and fails on rollback.
+     */
+    private Transaction begin() {
+        synchronized (this) {
+            ++transactionCount;
+        }
+        Promise<Void> completion = Promise.promise();
+        return proxy(Transaction.class, (method, args) -> {
+            switch (method) {
+                case "commit":
+                    completion.tryComplete();
+                    return completion.future();
+                case "rollback":
+                    completion.tryFail(TransactionRollbackException.INSTANCE);
+                    return Future.succeededFuture();
+                case "completion":
+                    return completion.future();
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    @Override
+    public Query<RowSet<Row>> query(String sql) {
+        return stubQuery(sql);
+    }
+
+    @Override
+    public PreparedQuery<RowSet<Row>> preparedQuery(String sql) {
+        return stubQuery(sql);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PreparedQuery<RowSet<Row>> stubQuery(String sql) {
+        return proxy(PreparedQuery.class, (method, args) -> {
+            if (method.equals("execute") && (args == null || args[0] instanceof Tuple)) {
+                return queryHandler.apply(sql, args == null ? null : (Tuple) args[0]);
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @Override
+    public void close(Handler<AsyncResult<Void>> handler) {
+        handler.handle(Future.succeededFuture());
+    }
+
+    @Override
+    public Future<Void> close() {
+        return Future.succeededFuture();
+    }
+
+    /**
+     * Create a row set of a single row of values.
+     */
+    static RowSet<Row> rows(Object... values) {
+        return rows(row(List.of(), values));
+    }
+
+    /**
+     * Create a row set of a single row.
+     */
+    @SuppressWarnings("unchecked")
+    static RowSet<Row> rows(Row row) {
+        return proxy(RowSet.class, (method, args) -> {
+            if (method.equals("iterator")) {
+                var it = List.of(row).iterator();
+                return proxy(RowIterator.class, (name, a) -> name.equals("hasNext") ? it.hasNext() : it.next());
+            }
+            if (method.equals("size") || method.equals("rowCount")) {
+                return 1;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    /**
+     * Create a row of values of columns, whose getters take a column index or name.
+     */
+    static Row row(List<String> columns, Object... values) {
+        return proxy(Row.class, (method, args) -> {
+            if (method.startsWith("get") && args != null && args.length == 1) {
+                int index = args[0] instanceof Integer ? (Integer) args[0] : columns.indexOf(args[0]);
+                return values[index];
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(StubPool.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    var result = handler.apply(method.getName(), args);
+                    return result == null && method.getReturnType() == Future.class ? Future.succeededFuture() : result;
+            }
+        });
+    }
+}
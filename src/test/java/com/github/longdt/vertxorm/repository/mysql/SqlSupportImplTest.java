@@ -0,0 +1,132 @@
+package com.github.longdt.vertxorm.repository.mysql;
+
+import com.github.longdt.vertxorm.repository.query.Equal;
+import com.github.longdt.vertxorm.repository.query.Query;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.github.longdt.vertxorm.repository.query.QueryFactory.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlSupportImplTest {
+    private final SqlSupportImpl sqlSupport = new SqlSupportImpl("rule_template", List.of("id", "name", "active"));
+
+    @Test
+    void getSql_SameShape() {
+        Query<Object> query1 = and(equal("active", 1), in("id", 1, 2, 3));
+        Query<Object> query2 = and(equal("active", 0), in("id", 4, 5, 6));
+        var sql = sqlSupport.getSql(sqlSupport.getQuerySql(), query1);
+        assertEquals("SELECT `id`,`name`,`active` FROM `rule_template` WHERE (`active`=?) AND (`id` IN (?,?,?))", sql);
+        assertSame(sql, sqlSupport.getSql(sqlSupport.getQuerySql(), query2));
+        assertEquals(1, sqlSupport.getQuerySqlCache().hitCount());
+    }
+
+    @Test
+    void getSql_DifferentShape() {
+        Query<Object> query = in("id", 1, 2, 3);
+        sqlSupport.getSql(sqlSupport.getQuerySql(), query);
+        assertEquals("SELECT `id`,`name`,`active` FROM `rule_template` WHERE `id` IN (?,?)",
+                sqlSupport.getSql(sqlSupport.getQuerySql(), in("id", 1, 2)));
+        assertEquals("SELECT `id`,`name`,`active` FROM `rule_template` WHERE NOT (`id` IN (?,?,?))",
+                sqlSupport.getSql(sqlSupport.getQuerySql(), not(in("id", 1, 2, 3))));
+        assertEquals("SELECT count(*) FROM `rule_template` WHERE `id` IN (?,?,?)",
+                sqlSupport.getQuerySql(sqlSupport.getCountSql(), query));
+        query.orderBy(descending("name")).limit(10).offset(20);
+        assertEquals("SELECT `id`,`name`,`active` FROM `rule_template` WHERE `id` IN (?,?,?) ORDER BY `name` DESC LIMIT ? OFFSET ?",
+                sqlSupport.getSql(sqlSupport.getQuerySql(), query));
+        query.offset(-1);
+        assertEquals("SELECT `id`,`name`,`active` FROM `rule_template` WHERE `id` IN (?,?,?) ORDER BY `name` DESC LIMIT ?",
+                sqlSupport.getSql(sqlSupport.getQuerySql(), query));
+        assertEquals(0, sqlSupport.getQuerySqlCache().hitCount());
+    }
+
+    @Test
+    void getSql_CustomQuery() {
+        Query<Object> query = new Equal<>("name", "a") {
+            @Override
+            public int appendQuerySql(StringBuilder sqlBuilder, int index) {
+                sqlBuilder.append("LOWER(`").append(fieldName).append("`)=?");
+                return index + 1;
+            }
+        };
+        sqlSupport.getSql(sqlSupport.getQuerySql(), equal("name", "a"));
+        assertFalse(query.hasShape());
+        assertEquals("SELECT `id`,`name`,`active` FROM `rule_template` WHERE LOWER(`name`)=?",
+                sqlSupport.getSql(sqlSupport.getQuerySql(), query));
+        assertEquals(0, sqlSupport.getQuerySqlCache().hitCount());
+    }
+
+    @Test
+    void getUpdateDynamicSql() {
+        var sql = sqlSupport.getUpdateDynamicSql(new Object[]{1, null, true});
+        assertEquals("UPDATE `rule_template` SET `active`=? WHERE `id` = ?", sql.getSql());
+        assertEquals(2, sql.getParamCount());
+        assertSame(sql, sqlSupport.getUpdateDynamicSql(new Object[]{2, null, false}));
+        assertNotSame(sql, sqlSupport.getUpdateDynamicSql(new Object[]{2, "name", false}));
+        assertEquals("UPDATE `rule_template` SET `name`=?,`active`=? WHERE `id` = ?",
+                sqlSupport.getUpdateDynamicSql(new Object[]{3, "name", true}).getSql());
+        var cache = sqlSupport.getUpdateDynamicSqlCache();
+        assertEquals(2, cache.size(), "statements are cached by non-null column bitmask");
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void getUpdateDynamicSql_FullCache() {
+        var sqlSupport = new SqlSupportImpl("rule_template", List.of("id", "name", "active"), 1);
+        sqlSupport.getUpdateDynamicSql(new Object[]{1, null, true});
+        var sql = sqlSupport.getUpdateDynamicSql(new Object[]{1, "name", true});
+        assertEquals(1, sqlSupport.getUpdateDynamicSqlCache().size());
+        assertSame(sql, sqlSupport.getUpdateDynamicSql(new Object[]{2, "name", false}));
+    }
+
+    @Test
+    void getKeysetQuery() {
+        Query<Object> query = sqlSupport.getKeysetQuery(List.of(descending("name"), descending("id")), List.of("a", 1));
+        assertEquals("SELECT `id`,`name`,`active` FROM `rule_template` WHERE (`name`,`id`) < (?,?)",
+                sqlSupport.getSql(sqlSupport.getQuerySql(), query));
+        query = sqlSupport.getKeysetQuery(List.of(descending("name"), ascending("id")), List.of("a", 1));
+        assertEquals("SELECT `id`,`name`,`active` FROM `rule_template` WHERE (`name` < ?) OR (`name` = ? AND `id` > ?)",
+                sqlSupport.getSql(sqlSupport.getQuerySql(), query));
+        assertEquals(3, query.getQueryParams().size());
+    }
+
+    @Test
+    void getCappedCountSql() {
+        assertEquals("SELECT count(*) FROM (SELECT 1 FROM `rule_template` WHERE `active`=? LIMIT ?) `t`",
+                sqlSupport.getCappedCountSql(equal("active", 1)));
+        assertEquals("SELECT count(*) FROM (SELECT 1 FROM `rule_template` LIMIT ?) `t`",
+                sqlSupport.getCappedCountSql(emptyQuery()));
+    }
+
+    @Test
+    void getQueryWithTotalSql() {
+        Query<Object> query = equal("active", 1).limit(10).offset(20);
+        assertEquals("SELECT `id`,`name`,`active`,COUNT(*) OVER() AS `__total` FROM `rule_template` WHERE `active`=? LIMIT ? OFFSET ?",
+                sqlSupport.getSql(sqlSupport.getQueryWithTotalSql(), query));
+    }
+
+    @Test
+    void getQueryIdsSql() {
+        assertEquals("SELECT `id` FROM `rule_template`", sqlSupport.getSql(sqlSupport.getQueryIdsSql(), emptyQuery()));
+    }
+
+    @Test
+    void getProjectionSql() {
+        Query<Object> query = equal("active", 1).limit(10).offset(20);
+        assertEquals("SELECT `id`,`name` FROM `rule_template` WHERE `active`=? LIMIT ? OFFSET ?",
+                sqlSupport.getSql(sqlSupport.getProjectionSql(List.of("id", "name")), query));
+        assertSame(sqlSupport.getProjectionSql(List.of("id", "name")), sqlSupport.getProjectionSql(List.of("id", "name")));
+        assertEquals("SELECT `name`,COUNT(*) OVER() AS `__total` FROM `rule_template`",
+                sqlSupport.getProjectionWithTotalSql(List.of("name")));
+        assertThrows(IllegalArgumentException.class, () -> sqlSupport.getProjectionSql(List.of("name`; DROP TABLE x")));
+    }
+
+    @Test
+    void getQueryByIdsSql() {
+        var sql = sqlSupport.getQueryByIdsSql(4);
+        assertEquals("SELECT `id`,`name`,`active` FROM `rule_template` WHERE `id` IN (?,?,?,?)", sql);
+        assertSame(sql, sqlSupport.getQueryByIdsSql(4));
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.longdt.vertxorm.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void noFalseNegative() {
+        var filter = BloomFilter.create(10_000, 0.01);
+        for (long i = 0; i < 10_000; ++i) {
+            filter.put(i);
+        }
+        for (long i = 0; i < 10_000; ++i) {
+            assertTrue(filter.mightContain(i));
+        }
+        assertTrue(filter.mightContain(42), "integral ids are hashed by value");
+    }
+
+    @Test
+    void falsePositiveRate() {
+        var filter = BloomFilter.create(10_000, 0.01);
+        for (long i = 0; i < 10_000; ++i) {
+            filter.put("id-" + i);
+        }
+        int falsePositives = 0;
+        for (long i = 10_000; i < 110_000; ++i) {
+            if (filter.mightContain("id-" + i)) {
+                ++falsePositives;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFpp(), 0.005);
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.longdt.vertxorm.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void hitAndMiss() {
+        var cache = new BoundedCache<String, Integer>(4);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.putIfAbsent("a", 1));
+        assertEquals(1, cache.putIfAbsent("a", 2), "the cached value wins");
+        assertEquals(1, cache.get("a"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void evictWhenFull() {
+        var cache = new BoundedCache<Integer, Integer>(4);
+        for (int i = 0; i < 4; ++i) {
+            cache.putIfAbsent(i, i);
+        }
+        assertEquals(0, cache.evictionCount());
+        cache.putIfAbsent(0, 0);
+        assertEquals(0, cache.evictionCount(), "a cached key doesn't evict");
+        for (int i = 4; i < 10; ++i) {
+            cache.putIfAbsent(i, i);
+            assertEquals(i, cache.get(i), "new keys are admitted after warm-up");
+            assertEquals(4, cache.size());
+        }
+        assertEquals(6, cache.evictionCount());
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.longdt.vertxorm.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    @Test
+    void balance() {
+        var ring = new ConsistentHashRing(4, 128);
+        var counts = new int[4];
+        for (long i = 0; i < 100_000; ++i) {
+            ++counts[ring.node(i)];
+        }
+        for (int count : counts) {
+            assertTrue(count > 20_000 && count < 30_000, "keys of node: " + count);
+        }
+        assertEquals(ring.node(42L), ring.node(42), "integral keys are hashed by value");
+        assertEquals(ring.node("a"), new ConsistentHashRing(4, 128).node("a"));
+    }
+
+    @Test
+    void addNode() {
+        var ring = new ConsistentHashRing(4, 128);
+        var grown = new ConsistentHashRing(5, 128);
+        int moved = 0;
+        for (long i = 0; i < 100_000; ++i) {
+            int node = grown.node(i);
+            if (node != ring.node(i)) {
+                assertEquals(4, node, "keys only move to the new node");
+                ++moved;
+            }
+        }
+        assertTrue(moved > 15_000 && moved < 25_000, "moved keys: " + moved);
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.longdt.vertxorm.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyWindowTest {
+
+    @Test
+    void percentile() {
+        var window = new LatencyWindow(1000, 0.95);
+        for (int i = 1; i < 125; ++i) {
+            window.record(i);
+        }
+        assertEquals(-1, window.get());
+        for (int i = 125; i <= 1000; ++i) {
+            window.record(i);
+        }
+        assertEquals(950, window.get());
+        for (int i = 0; i < 1000; ++i) {
+            window.record(i % 2 == 0 ? 1 : 2);
+        }
+        assertEquals(2, window.get(), "old latencies leave the window");
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.longdt.vertxorm.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    @Test
+    void scanDoesNotFlushProtected() {
+        var cache = new LruCache<Integer, String>(10);
+        for (int i = 0; i < 5; ++i) {
+            cache.put(i, "v" + i, TimeUnit.HOURS.toMillis(1));
+            assertEquals("v" + i, cache.get(i));
+        }
+        for (int i = 100; i < 120; ++i) {
+            cache.put(i, "v" + i, TimeUnit.HOURS.toMillis(1));
+        }
+        for (int i = 0; i < 5; ++i) {
+            assertEquals("v" + i, cache.get(i));
+        }
+        assertEquals(10, cache.size());
+        assertEquals(15, cache.evictionCount());
+    }
+
+    @Test
+    void expire() throws InterruptedException {
+        var cache = new LruCache<Integer, String>(10);
+        cache.put(1, "v1", 1);
+        Thread.sleep(5);
+        assertNull(cache.get(1));
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void disabled() {
+        var cache = new LruCache<Integer, String>(0);
+        cache.put(1, "v1", TimeUnit.HOURS.toMillis(1));
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.longdt.vertxorm.util;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.sqlclient.RowStream;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedRowStreamTest {
+
+    @Test
+    void end() {
+        var source = new StubRowStream();
+        var causes = new ArrayList<Throwable>();
+        var items = new ArrayList<String>();
+        var stream = new MappedRowStream<Integer, String>(source, String::valueOf, cause -> {
+            causes.add(cause);
+            return Future.succeededFuture();
+        });
+        stream.handler(items::add);
+        source.emit(1);
+        source.emit(2);
+        source.endHandler.handle(null);
+        assertEquals(List.of("1", "2"), items);
+        assertEquals(1, causes.size());
+        assertNull(causes.get(0));
+    }
+
+    @Test
+    void closeBeforeEnd() {
+        var source = new StubRowStream();
+        var causes = new ArrayList<Throwable>();
+        var stream = new MappedRowStream<Integer, String>(source, String::valueOf, cause -> {
+            causes.add(cause);
+            return Future.succeededFuture();
+        });
+        assertTrue(stream.close().succeeded());
+        assertTrue(source.closed);
+        assertEquals(1, causes.size());
+        assertTrue(causes.get(0) instanceof CancellationException);
+        stream.close();
+        assertEquals(1, causes.size());
+    }
+
+    private static class StubRowStream implements RowStream<Integer> {
+        private Handler<Integer> handler;
+        private Handler<Void> endHandler;
+        private boolean closed;
+
+        void emit(Integer item) {
+            handler.handle(item);
+        }
+
+        @Override
+        public RowStream<Integer> exceptionHandler(Handler<Throwable> handler) {
+            return this;
+        }
+
+        @Override
+        public RowStream<Integer> handler(Handler<Integer> handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        @Override
+        public RowStream<Integer> pause() {
+            return this;
+        }
+
+        @Override
+        public RowStream<Integer> resume() {
+            return this;
+        }
+
+        @Override
+        public RowStream<Integer> endHandler(Handler<Void> endHandler) {
+            this.endHandler = endHandler;
+            return this;
+        }
+
+        @Override
+        public RowStream<Integer> fetch(long amount) {
+            return this;
+        }
+
+        @Override
+        public Future<Void> close() {
+            closed = true;
+            return Future.succeededFuture();
+        }
+
+        @Override
+        public void close(Handler<AsyncResult<Void>> completionHandler) {
+            close().onComplete(completionHandler);
+        }
+    }
+}